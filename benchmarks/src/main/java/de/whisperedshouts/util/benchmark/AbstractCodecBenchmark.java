@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package de.whisperedshouts.util.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * common setup of the codec benchmarks. Every benchmark is measured for
+ * throughput and average latency across input sizes from 16 bytes to 64
+ * megabytes. Allocation rates are reported when running with "-prof gc".
+ *
+ * @author mario.ragucci
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public abstract class AbstractCodecBenchmark {
+  /**
+   * the size of the unencoded input in bytes
+   */
+  @Param({ "16", "256", "4096", "65536", "1048576", "67108864" })
+  public int size;
+
+  /**
+   * the random input to encode
+   */
+  protected byte[] input;
+  /**
+   * the encoded input, used by the decode benchmarks
+   */
+  protected byte[] encoded;
+  /**
+   * the encoded input as string, used by the decode benchmarks
+   */
+  protected String encodedString;
+
+  /**
+   * creates the random input and its encoded representation
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    input = new byte[size];
+    new Random(size).nextBytes(input);
+    encoded = referenceEncode(input);
+    encodedString = new String(encoded);
+  }
+
+  /**
+   * encodes the input with the reference implementation
+   *
+   * @param b
+   *          the input to encode
+   * @return the encoded input
+   */
+  protected abstract byte[] referenceEncode(byte[] b);
+}
@@ -0,0 +1,66 @@
+/**
+ *
+ */
+package de.whisperedshouts.util.benchmark;
+
+import org.apache.commons.codec.binary.Base32;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import de.whisperedshouts.util.Base32Util;
+
+/**
+ * compares {@link Base32Util} to {@link Base32}. The jdk does not ship a
+ * base32 implementation
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32Benchmark extends AbstractCodecBenchmark {
+  private final Base32 commons    = new Base32();
+  private final Base32 commonsHex = new Base32(true);
+
+  @Override
+  protected byte[] referenceEncode(byte[] b) {
+    return commons.encode(b);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return Base32Util.encode(input);
+  }
+
+  @Benchmark
+  public byte[] decode() {
+    return Base32Util.decode(encoded);
+  }
+
+  @Benchmark
+  public String encodeToString() {
+    return Base32Util.encodeToString(input);
+  }
+
+  @Benchmark
+  public byte[] encodeHex() {
+    return Base32Util.encode(input, Base32Util.BASE32_HEX_CHARSET);
+  }
+
+  @Benchmark
+  public byte[] commonsEncode() {
+    return commons.encode(input);
+  }
+
+  @Benchmark
+  public byte[] commonsDecode() {
+    return commons.decode(encoded);
+  }
+
+  @Benchmark
+  public String commonsEncodeToString() {
+    return commons.encodeAsString(input);
+  }
+
+  @Benchmark
+  public byte[] commonsEncodeHex() {
+    return commonsHex.encode(input);
+  }
+}
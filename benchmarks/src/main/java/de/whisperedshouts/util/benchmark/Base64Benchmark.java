@@ -0,0 +1,71 @@
+/**
+ *
+ */
+package de.whisperedshouts.util.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import de.whisperedshouts.util.Base64Util;
+
+/**
+ * compares {@link Base64Util} to {@link java.util.Base64} and
+ * {@link org.apache.commons.codec.binary.Base64}
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64Benchmark extends AbstractCodecBenchmark {
+  private final java.util.Base64.Encoder                jdkEncoder = java.util.Base64.getEncoder();
+  private final java.util.Base64.Decoder                jdkDecoder = java.util.Base64.getDecoder();
+  private final org.apache.commons.codec.binary.Base64 commons    = new org.apache.commons.codec.binary.Base64();
+
+  @Override
+  protected byte[] referenceEncode(byte[] b) {
+    return jdkEncoder.encode(b);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return Base64Util.encode(input);
+  }
+
+  @Benchmark
+  public byte[] decode() {
+    return Base64Util.decode(encoded);
+  }
+
+  @Benchmark
+  public String encodeToString() {
+    return Base64Util.encodeToString(input);
+  }
+
+  @Benchmark
+  public byte[] jdkEncode() {
+    return jdkEncoder.encode(input);
+  }
+
+  @Benchmark
+  public byte[] jdkDecode() {
+    return jdkDecoder.decode(encoded);
+  }
+
+  @Benchmark
+  public String jdkEncodeToString() {
+    return jdkEncoder.encodeToString(input);
+  }
+
+  @Benchmark
+  public byte[] commonsEncode() {
+    return commons.encode(input);
+  }
+
+  @Benchmark
+  public byte[] commonsDecode() {
+    return commons.decode(encoded);
+  }
+
+  @Benchmark
+  public String commonsEncodeToString() {
+    return commons.encodeAsString(input);
+  }
+}
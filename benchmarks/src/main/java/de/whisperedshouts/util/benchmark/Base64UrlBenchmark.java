@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package de.whisperedshouts.util.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import de.whisperedshouts.util.Base64UrlUtil;
+
+/**
+ * compares {@link Base64UrlUtil} to {@link java.util.Base64#getUrlEncoder()}
+ * and the url safe {@link org.apache.commons.codec.binary.Base64}. None of
+ * them wraps lines, but commons codec always omits the padding in url safe
+ * mode, so its output is up to two characters shorter
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64UrlBenchmark extends AbstractCodecBenchmark {
+  private final java.util.Base64.Encoder                jdkEncoder = java.util.Base64.getUrlEncoder();
+  private final java.util.Base64.Decoder                jdkDecoder = java.util.Base64.getUrlDecoder();
+  /**
+   * a line length of 0 disables the line wrapping the url safe constructor
+   * enables
+   */
+  private final org.apache.commons.codec.binary.Base64 commons    = new org.apache.commons.codec.binary.Base64(0,
+      null, true);
+
+  @Override
+  protected byte[] referenceEncode(byte[] b) {
+    return jdkEncoder.encode(b);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return Base64UrlUtil.encode(input);
+  }
+
+  @Benchmark
+  public byte[] decode() {
+    return Base64UrlUtil.decode(encoded);
+  }
+
+  @Benchmark
+  public String encodeToString() {
+    return Base64UrlUtil.encodeToString(input);
+  }
+
+  @Benchmark
+  public byte[] jdkEncode() {
+    return jdkEncoder.encode(input);
+  }
+
+  @Benchmark
+  public byte[] jdkDecode() {
+    return jdkDecoder.decode(encoded);
+  }
+
+  @Benchmark
+  public String jdkEncodeToString() {
+    return jdkEncoder.encodeToString(input);
+  }
+
+  @Benchmark
+  public byte[] commonsEncode() {
+    return commons.encode(input);
+  }
+
+  @Benchmark
+  public byte[] commonsDecode() {
+    return commons.decode(encoded);
+  }
+
+  @Benchmark
+  public String commonsEncodeToString() {
+    return commons.encodeAsString(input);
+  }
+}
@@ -0,0 +1,410 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An immutable, thread safe codec. Alphabet, padding and line wrapping are
+ * fixed when the codec is created, so a codec held in a static final field
+ * gives the JIT constant tables instead of a character set lookup per call.
+ * Derived codecs are created by the with methods of the subclasses, the
+ * original codec is never changed.
+ *
+ * Encoding honors the padding and wrapping settings. Decoding skips line
+ * separators and tolerates a missing padding regardless of them.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitCodec {
+  static final byte[]    NO_LINE_SEPARATOR = new byte[0];
+  static final byte[]    CRLF              = { '\r', '\n' };
+
+  final Alphabet         alphabet;
+  final int              bitsPerCharacter;
+  final int              bytesPerQuantum;
+  final int              charactersPerQuantum;
+  final boolean          padding;
+  final int              lineLength;
+  final byte[]           lineSeparator;
+
+  /**
+   * creates a new codec
+   *
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param padding
+   *          whether the last quantum gets padded
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          the quantum size. No line separators are included if it is less
+   *          than a quantum
+   * @param lineSeparator
+   *          the line separator, only whitespace
+   * @throws IllegalArgumentException
+   *           if the alphabet does not match the amount of bits per character
+   */
+  AbstractBitCodec(Alphabet alphabet, int bitsPerCharacter, boolean padding, int lineLength, byte[] lineSeparator) {
+    if (alphabet.size() != 1 << bitsPerCharacter) {
+      throw new IllegalArgumentException("character set has to contain " + (1 << bitsPerCharacter) + " characters");
+    }
+    this.alphabet = alphabet;
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    this.padding = padding;
+    this.lineLength = Math.max(lineLength, 0) / charactersPerQuantum * charactersPerQuantum;
+    this.lineSeparator = this.lineLength > 0 ? lineSeparator : NO_LINE_SEPARATOR;
+  }
+
+  /**
+   * encodes a range of bytes without line separators, padding the last
+   * quantum
+   */
+  abstract int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset);
+
+  /**
+   * decodes a range of characters, skipping whitespace and tolerating a
+   * missing padding. In strict mode invalid input is rejected
+   */
+  abstract int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      boolean strict);
+
+  /**
+   * encodes a range of bytes, padding the last quantum and including the line
+   * separator after every line but the last one. Every line is a run of
+   * complete quanta, so the separators are written between the lines
+   */
+  int encodeLines(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+    int bytesPerLine = lineLength / charactersPerQuantum * bytesPerQuantum;
+    int end = sourceOffset + length;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+    while (end - position > bytesPerLine) {
+      resultPosition += encodeRange(source, position, bytesPerLine, destination, resultPosition);
+      position += bytesPerLine;
+
+      for (byte b : lineSeparator) {
+        destination[resultPosition++] = b;
+      }
+    }
+    resultPosition += encodeRange(source, position, end - position, destination, resultPosition);
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * @return the alphabet of this codec
+   */
+  public Alphabet getAlphabet() {
+    return alphabet;
+  }
+
+  /**
+   * @return whether the last quantum gets padded when encoding
+   */
+  public boolean isPadding() {
+    return padding;
+  }
+
+  /**
+   * @return the amount of characters per line or 0 if no line separators are
+   *         included
+   */
+  public int getLineLength() {
+    return lineLength;
+  }
+
+  /**
+   * @return the line separator, empty if no line separators are included
+   */
+  public String getLineSeparator() {
+    return new String(lineSeparator, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * returns the amount of characters the encoding of length bytes takes,
+   * including padding and line separators
+   *
+   * @param length
+   *          the amount of bytes to encode
+   * @return the amount of characters
+   * @throws IllegalArgumentException
+   *           if the result would not fit into a single array
+   */
+  public int encodedLength(int length) {
+    long characters = padding ? ((long) length + bytesPerQuantum - 1) / bytesPerQuantum * charactersPerQuantum
+        : ((long) length * 8 + bitsPerCharacter - 1) / bitsPerCharacter;
+    if (lineLength > 0 && characters > 0) {
+      // no line separator after the last line
+      characters += (characters - 1) / lineLength * lineSeparator.length;
+    }
+    if (characters > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("input too large to be encoded into a single array");
+    }
+
+    return (int) characters;
+  }
+
+  /**
+   * encodes a byte array
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded characters
+   */
+  public byte[] encode(byte[] byteArray) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = new byte[encodedLength(byteArray.length)];
+    encodeUnchecked(byteArray, 0, byteArray.length, result, 0);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * encodes a range of bytes into the supplied array. Nothing is allocated
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the encoded characters to, must have room
+   *          for {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+    AbstractBitUtil.checkRange(source, sourceOffset, length);
+    AbstractBitUtil.checkRange(destination, destinationOffset, encodedLength(length));
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    int written = encodeUnchecked(source, sourceOffset, length, destination, destinationOffset);
+    CodecMetrics.end(event, alphabet, length, written);
+
+    return written;
+  }
+
+  /**
+   * encodes a byte array to a string
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded string
+   */
+  public String encodeToString(byte[] byteArray) {
+
+    return new String(encode(byteArray), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * returns the exact amount of bytes a range of characters decodes to.
+   * Whitespace is not counted and a missing padding is tolerated
+   *
+   * @param source
+   *          the array holding the encoded characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return the amount of decoded bytes
+   */
+  public int decodedLength(byte[] source, int offset, int length) {
+    AbstractBitUtil.checkRange(source, offset, length);
+
+    return AbstractBitUtil.decodedLength(source, offset, length, alphabet, bitsPerCharacter);
+  }
+
+  /**
+   * decodes a byte array. Whitespace is skipped, a missing padding is
+   * tolerated
+   *
+   * @param byteArray
+   *          the encoded characters
+   * @return the decoded byte array
+   */
+  public byte[] decode(byte[] byteArray) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[AbstractBitUtil.decodedLength(byteArray, 0, byteArray.length, alphabet,
+        bitsPerCharacter)];
+    int written = decodeRange(byteArray, 0, byteArray.length, result, 0, false);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes characters without converting them to bytes first. Whitespace is
+   * skipped, a missing padding is tolerated
+   *
+   * @param encoded
+   *          the encoded characters
+   * @return the decoded byte array
+   */
+  public byte[] decode(CharSequence encoded) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[AbstractBitUtil.decodedLength(encoded, alphabet, bitsPerCharacter)];
+    int written = AbstractBitUtil.decodeCharacters(encoded, result, alphabet, bitsPerCharacter);
+    CodecMetrics.end(event, alphabet, encoded.length(), written);
+
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes a range of characters into the supplied array. Whitespace is
+   * skipped, a missing padding is tolerated. Nothing is allocated
+   *
+   * @param source
+   *          the array holding the encoded characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+    AbstractBitUtil.checkDecodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet,
+        bitsPerCharacter);
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    int written = decodeRange(source, sourceOffset, length, destination, destinationOffset, false);
+    CodecMetrics.end(event, alphabet, length, written);
+
+    return written;
+  }
+
+  /**
+   * decodes a byte array, rejecting invalid input in the same pass. Whitespace
+   * is skipped and a missing padding is tolerated, but characters outside the
+   * alphabet, padding that is not at the end or does not complete the last
+   * quantum and a last quantum that carries no byte are not
+   *
+   * @param byteArray
+   *          the encoded characters
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input is invalid, naming the offset of the first bad
+   *           character
+   */
+  public byte[] decodeStrict(byte[] byteArray) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[AbstractBitUtil.decodedLength(byteArray, 0, byteArray.length, alphabet,
+        bitsPerCharacter)];
+    int written = decodeRange(byteArray, 0, byteArray.length, result, 0, true);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes characters without converting them to bytes first, rejecting
+   * invalid input in the same pass. See {@link #decodeStrict(byte[])}
+   *
+   * @param encoded
+   *          the encoded characters
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input is invalid, naming the offset of the first bad
+   *           character
+   */
+  public byte[] decodeStrict(CharSequence encoded) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[AbstractBitUtil.decodedLength(encoded, alphabet, bitsPerCharacter)];
+    int written = AbstractBitUtil.decodeCharacters(encoded, result, alphabet, bitsPerCharacter, true);
+    CodecMetrics.end(event, alphabet, encoded.length(), written);
+
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * returns whether a range of characters would be accepted by
+   * {@link #decodeStrict(byte[])}, without decoding it. Nothing is allocated
+   *
+   * @param source
+   *          the array holding the encoded characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return true if the range is valid
+   * @throws IndexOutOfBoundsException
+   *           if the range does not lie within the array
+   */
+  public boolean isValid(byte[] source, int offset, int length) {
+    AbstractBitUtil.checkRange(source, offset, length);
+
+    return AbstractBitUtil.indexOfInvalid(source, offset, length, alphabet, bitsPerCharacter) < 0;
+  }
+
+  /**
+   * returns whether a sequence of characters would be accepted by
+   * {@link #decodeStrict(CharSequence)}, without decoding it. Nothing is
+   * allocated
+   *
+   * @param encoded
+   *          the encoded characters
+   * @return true if the sequence is valid
+   */
+  public boolean isValid(CharSequence encoded) {
+
+    return AbstractBitUtil.indexOfInvalid(encoded, alphabet, bitsPerCharacter) < 0;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + alphabet + ", padding=" + padding + ", lineLength=" + lineLength
+        + "]";
+  }
+
+  /**
+   * encodes a range of bytes honoring the padding and wrapping settings,
+   * without checking the ranges. No line separator follows the last line
+   */
+  int encodeUnchecked(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+    // without padding, only the payload characters of the last quantum are
+    // written
+    int overflow = padding ? 0 : length % bytesPerQuantum;
+    int quanta = length - overflow;
+    int written = lineLength > 0 ? encodeLines(source, sourceOffset, quanta, destination, destinationOffset)
+        : encodeRange(source, sourceOffset, quanta, destination, destinationOffset);
+
+    if (overflow > 0) {
+      if (lineLength > 0 && quanta > 0 && quanta % (lineLength / charactersPerQuantum * bytesPerQuantum) == 0) {
+        // the last quantum starts a new line
+        System.arraycopy(lineSeparator, 0, destination, destinationOffset + written, lineSeparator.length);
+        written += lineSeparator.length;
+      }
+      long number = 0;
+      for (int i = 0; i < bytesPerQuantum; i++) {
+        number = (number << 8) | (i < overflow ? source[sourceOffset + quanta + i] & 0xFF : 0);
+      }
+      int characters = (overflow * 8 + bitsPerCharacter - 1) / bitsPerCharacter;
+      int mask = (1 << bitsPerCharacter) - 1;
+      for (int i = 0; i < characters; i++) {
+        int shift = (charactersPerQuantum - 1 - i) * bitsPerCharacter;
+        destination[destinationOffset + written++] = alphabet.encodeTable[(int) (number >>> shift) & mask];
+      }
+    }
+
+    return written;
+  }
+}
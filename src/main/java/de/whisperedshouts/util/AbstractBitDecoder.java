@@ -0,0 +1,296 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental decoder for encoded characters arriving in arbitrary
+ * fragments, similar to {@link javax.crypto.Cipher}.
+ * {@link #update(byte[], int, int, byte[], int)} decodes all complete quanta
+ * and keeps at most one incomplete quantum, {@link #doFinal(byte[], int)}
+ * decodes that quantum, tolerating a missing padding, and resets the decoder
+ * for the next input.
+ *
+ * Whitespace is skipped. Like the decoding streams, the decoder is strict: an
+ * invalid character or a character following the padding of a quantum is
+ * reported with an {@link IllegalArgumentException} holding its offset since
+ * the last reset, the decoder has to be reset afterwards. Instances are not
+ * thread safe, but can be reused after {@link #reset()}, i.E. pooled per
+ * connection.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitDecoder {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final byte[]        decodeTable;
+  private final int           bitsPerCharacter;
+  private final int           bytesPerQuantum;
+  private final int           charactersPerQuantum;
+
+  private long                number;
+  private int                 characters;
+  private int                 paddingCharacters;
+  private long                offset;
+
+  /**
+   * creates a new decoder
+   *
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   */
+  AbstractBitDecoder(Alphabet alphabet, int bitsPerCharacter) {
+    this.decodeTable = alphabet.decodeTable;
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+  }
+
+  /**
+   * returns the amount of bytes the next {@link #update} or {@link #doFinal}
+   * call writes at most, including the characters kept from previous calls
+   *
+   * @param inputLength
+   *          the amount of characters to pass to the next call
+   * @return the size the output has to provide
+   */
+  public int getOutputSize(int inputLength) {
+
+    return (int) (((long) characters + inputLength) * bitsPerCharacter / 8);
+  }
+
+  /**
+   * decodes all complete quanta of the kept and the supplied characters. The
+   * characters of an incomplete last quantum are kept for the next call
+   *
+   * @param input
+   *          the array holding the encoded characters
+   * @param inputOffset
+   *          the offset of the first character
+   * @param inputLength
+   *          the amount of characters to decode
+   * @param output
+   *          the array to write the decoded bytes to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array. The decoder is left
+   *           unchanged in that case
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character
+   */
+  public int update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+    checkRanges(input, inputOffset, inputLength, output, outputOffset, false);
+
+    return decode(input, inputOffset, inputLength, output, outputOffset, false);
+  }
+
+  /**
+   * decodes all complete quanta of the kept and the supplied characters
+   *
+   * @param input
+   *          the encoded characters
+   * @return the decoded bytes, may be empty
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character
+   */
+  public byte[] update(byte[] input) {
+    byte[] output = new byte[requiredLength(input, 0, input.length, false)];
+    decode(input, 0, input.length, output, 0, false);
+
+    return output;
+  }
+
+  /**
+   * decodes the kept characters, tolerating a missing padding, then resets
+   * the decoder
+   *
+   * @param output
+   *          the array to write the decoded bytes to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if the output does not have room for the decoded bytes
+   */
+  public int doFinal(byte[] output, int outputOffset) {
+
+    return doFinal(EMPTY, 0, 0, output, outputOffset);
+  }
+
+  /**
+   * decodes the kept and the supplied characters, tolerating a missing
+   * padding, then resets the decoder
+   *
+   * @param input
+   *          the array holding the encoded characters
+   * @param inputOffset
+   *          the offset of the first character
+   * @param inputLength
+   *          the amount of characters to decode
+   * @param output
+   *          the array to write the decoded bytes to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array. The decoder is left
+   *           unchanged in that case
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character
+   */
+  public int doFinal(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+    checkRanges(input, inputOffset, inputLength, output, outputOffset, true);
+
+    int written = decode(input, inputOffset, inputLength, output, outputOffset, true);
+    reset();
+
+    return written;
+  }
+
+  /**
+   * decodes the kept and the supplied characters, tolerating a missing
+   * padding, then resets the decoder
+   *
+   * @param input
+   *          the encoded characters
+   * @return the decoded bytes
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character
+   */
+  public byte[] doFinal(byte[] input) {
+    byte[] output = new byte[requiredLength(input, 0, input.length, true)];
+    doFinal(input, 0, input.length, output, 0);
+
+    return output;
+  }
+
+  /**
+   * discards the kept characters, so the decoder can be used for a new input
+   */
+  public void reset() {
+    number = 0;
+    characters = 0;
+    paddingCharacters = 0;
+    offset = 0;
+  }
+
+  private int decode(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+      boolean endOfInput) {
+    int mask = (1 << bitsPerCharacter) - 1;
+    int end = inputOffset + inputLength;
+    int resultPosition = outputOffset;
+    for (int position = inputOffset; position < end; position++) {
+      // complete quanta of alphabet characters are resolved at once until
+      // whitespace, padding or an invalid character shows up
+      if (characters == 0) {
+        while (end - position >= charactersPerQuantum) {
+          long quantum = 0;
+          int resolved = 0;
+          for (int i = 0; i < charactersPerQuantum; i++) {
+            int value = decodeTable[input[position + i] & 0xFF];
+            resolved |= value;
+            quantum = (quantum << bitsPerCharacter) | (value & mask);
+          }
+          if (resolved < 0) {
+            break;
+          }
+          for (int i = bytesPerQuantum - 1; i >= 0; i--) {
+            output[resultPosition++] = (byte) (quantum >>> (i * 8));
+          }
+          position += charactersPerQuantum;
+        }
+        if (position == end) {
+          break;
+        }
+      }
+
+      byte b = input[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved == Alphabet.PADDING) {
+        paddingCharacters++;
+        resolved = 0;
+      } else if (resolved < 0 || paddingCharacters > 0) {
+        if (resolved == Alphabet.SKIP || AbstractBitUtil.isWhitespace(b)) {
+          continue;
+        }
+        throw new IllegalArgumentException("invalid character at offset " + (offset + position - inputOffset));
+      }
+      number = (number << bitsPerCharacter) | resolved;
+
+      if (++characters == charactersPerQuantum) {
+        resultPosition = writeQuantum(output, resultPosition);
+      }
+    }
+    offset += inputLength;
+
+    // a missing padding at the end of the input is treated like padding
+    if (endOfInput && characters > 0) {
+      number <<= (charactersPerQuantum - characters) * bitsPerCharacter;
+      resultPosition = writeQuantum(output, resultPosition);
+    }
+
+    return resultPosition - outputOffset;
+  }
+
+  private int writeQuantum(byte[] output, int resultPosition) {
+    int length = (characters - paddingCharacters) * bitsPerCharacter / 8;
+    int shift = charactersPerQuantum * bitsPerCharacter;
+    for (int i = 0; i < length; i++) {
+      shift -= 8;
+      output[resultPosition++] = (byte) (number >>> shift);
+    }
+    number = 0;
+    characters = 0;
+    paddingCharacters = 0;
+
+    return resultPosition;
+  }
+
+  /**
+   * checks the input and output ranges. The exact output length is only
+   * counted if the upper bound does not fit into the output
+   */
+  private void checkRanges(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+      boolean endOfInput) {
+    AbstractBitUtil.checkRange(input, inputOffset, inputLength);
+    AbstractBitUtil.checkRange(output, outputOffset, 0);
+    if (getOutputSize(inputLength) > output.length - outputOffset) {
+      AbstractBitUtil.checkRange(output, outputOffset, requiredLength(input, inputOffset, inputLength, endOfInput));
+    }
+  }
+
+  /**
+   * counts the bytes the kept and the supplied characters decode to. Only
+   * complete quanta are counted unless endOfInput is set, padding at the end
+   * is subtracted
+   */
+  private int requiredLength(byte[] input, int inputOffset, int inputLength, boolean endOfInput) {
+    long count = characters;
+    int trailingPadding = paddingCharacters;
+    for (int i = inputOffset; i < inputOffset + inputLength; i++) {
+      byte b = input[i];
+      if (decodeTable[b & 0xFF] == Alphabet.SKIP || AbstractBitUtil.isWhitespace(b)) {
+        continue;
+      }
+      count++;
+      trailingPadding = decodeTable[b & 0xFF] == Alphabet.PADDING ? trailingPadding + 1 : 0;
+    }
+
+    int lastCharacters = (int) (count % charactersPerQuantum);
+    if (lastCharacters == 0 && count > 0) {
+      lastCharacters = charactersPerQuantum;
+    } else if (!endOfInput && lastCharacters > 0) {
+      // the incomplete quantum is kept, its padding does not count
+      return (int) (count / charactersPerQuantum * bytesPerQuantum);
+    }
+    long quanta = (count - lastCharacters) / charactersPerQuantum;
+
+    return (int) (quanta * bytesPerQuantum
+        + (lastCharacters - Math.min(trailingPadding, lastCharacters)) * bitsPerCharacter / 8);
+  }
+}
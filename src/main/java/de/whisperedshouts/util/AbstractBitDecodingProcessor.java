@@ -0,0 +1,74 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+
+/**
+ * A processor that decodes the published chunks. Line separators and
+ * whitespace are skipped, a missing padding at the end of the input is
+ * tolerated. Characters of an incomplete quantum are kept until the next chunk
+ * arrives. An invalid character terminates the processor with an
+ * {@link IOException} and cancels the upstream subscription.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitDecodingProcessor extends AbstractBitProcessor {
+  private final Alphabet alphabet;
+  private final int      bitsPerCharacter;
+  private final int      bytesPerQuantum;
+  private final int      charactersPerQuantum;
+
+  private ByteBuffer     remainder;
+  private long           offset;
+
+  /**
+   * creates a new decoding processor
+   *
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   */
+  AbstractBitDecodingProcessor(Alphabet alphabet, int bitsPerCharacter) {
+    this.alphabet = alphabet;
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    this.remainder = ByteBuffer.allocate(charactersPerQuantum);
+    this.remainder.flip();
+  }
+
+  @Override
+  ByteBuffer process(ByteBuffer source, boolean endOfInput) throws IOException {
+    long available = (long) remainder.remaining() + source.remaining();
+    if (available == 0) {
+      return null;
+    }
+
+    ByteBuffer destination = ByteBuffer
+        .allocate((int) Math.min((available / charactersPerQuantum + 1) * bytesPerQuantum, Integer.MAX_VALUE));
+    CoderResult result = AbstractBitUtil.decode(new ByteBuffer[] { remainder, source }, destination, alphabet,
+        bitsPerCharacter, endOfInput);
+    long consumed = available - remainder.remaining() - source.remaining();
+    if (result.isError()) {
+      throw new IOException("invalid character at offset " + (offset + consumed + result.length() - 1));
+    }
+    offset += consumed;
+
+    // keep the characters of an incomplete quantum for the next chunk
+    int length = remainder.remaining() + source.remaining();
+    if (length > remainder.capacity()) {
+      remainder = ByteBuffer.allocate(length).put(remainder);
+    } else {
+      remainder.compact();
+    }
+    remainder.put(source).flip();
+
+    return destination.position() == 0 ? null : destination.flip();
+  }
+}
@@ -0,0 +1,200 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental encoder for data arriving in arbitrary fragments, similar to
+ * {@link javax.crypto.Cipher}. {@link #update(byte[], int, int, byte[], int)}
+ * encodes all complete quanta and keeps the bytes of at most one incomplete
+ * quantum, {@link #doFinal(byte[], int)} encodes and pads that quantum and
+ * resets the encoder for the next input.
+ *
+ * Complete quanta are encoded straight from the input into the output by the
+ * same kernels the one-shot methods use, the encoder itself holds no buffer
+ * besides the incomplete quantum. Instances are not thread safe, but can be
+ * reused after {@link #reset()}, i.E. pooled per connection.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitEncoder {
+  private static final byte[]            EMPTY = new byte[0];
+
+  private final int                      bitsPerCharacter;
+  private final int                      bytesPerQuantum;
+  private final int                      charactersPerQuantum;
+  private final ParallelCodec.RangeCodec encoder;
+
+  private final byte[]                   quantum;
+  private int                            quantumLength;
+
+  /**
+   * creates a new encoder
+   *
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param encoder
+   *          the encoder for a range of bytes, padding the last quantum
+   */
+  AbstractBitEncoder(int bitsPerCharacter, ParallelCodec.RangeCodec encoder) {
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    this.encoder = encoder;
+    this.quantum = new byte[bytesPerQuantum];
+  }
+
+  /**
+   * returns the amount of characters the next {@link #update} or
+   * {@link #doFinal} call writes at most, including the bytes kept from
+   * previous calls
+   *
+   * @param inputLength
+   *          the amount of bytes to pass to the next call
+   * @return the size the output has to provide
+   */
+  public int getOutputSize(int inputLength) {
+
+    return AbstractBitUtil.encodedLength(quantumLength + inputLength, bitsPerCharacter);
+  }
+
+  /**
+   * encodes all complete quanta of the kept bytes and the input. The bytes of
+   * an incomplete last quantum are kept for the next call
+   *
+   * @param input
+   *          the array holding the bytes to encode
+   * @param inputOffset
+   *          the offset of the first byte
+   * @param inputLength
+   *          the amount of bytes to encode
+   * @param output
+   *          the array to write the encoded characters to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array. The encoder is left
+   *           unchanged in that case
+   */
+  public int update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+    AbstractBitUtil.checkRange(input, inputOffset, inputLength);
+    long quanta = ((long) quantumLength + inputLength) / bytesPerQuantum;
+    AbstractBitUtil.checkRange(output, outputOffset, (int) Math.min(quanta * charactersPerQuantum, Integer.MAX_VALUE));
+
+    return encode(input, inputOffset, inputLength, output, outputOffset, false);
+  }
+
+  /**
+   * encodes all complete quanta of the kept bytes and the input
+   *
+   * @param input
+   *          the bytes to encode
+   * @return the encoded characters, may be empty
+   */
+  public byte[] update(byte[] input) {
+    long quanta = ((long) quantumLength + input.length) / bytesPerQuantum;
+    byte[] output = new byte[AbstractBitUtil.encodedLength((int) Math.min(quanta * bytesPerQuantum,
+        Integer.MAX_VALUE), bitsPerCharacter)];
+    encode(input, 0, input.length, output, 0, false);
+
+    return output;
+  }
+
+  /**
+   * encodes and pads the kept bytes, then resets the encoder
+   *
+   * @param output
+   *          the array to write the encoded characters to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if the output does not have room for
+   *           {@link #getOutputSize(int)} characters
+   */
+  public int doFinal(byte[] output, int outputOffset) {
+
+    return doFinal(EMPTY, 0, 0, output, outputOffset);
+  }
+
+  /**
+   * encodes the kept bytes and the input, pads the last quantum and resets the
+   * encoder
+   *
+   * @param input
+   *          the array holding the bytes to encode
+   * @param inputOffset
+   *          the offset of the first byte
+   * @param inputLength
+   *          the amount of bytes to encode
+   * @param output
+   *          the array to write the encoded characters to
+   * @param outputOffset
+   *          where to start writing in the output array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array. The encoder is left
+   *           unchanged in that case
+   */
+  public int doFinal(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) {
+    AbstractBitUtil.checkRange(input, inputOffset, inputLength);
+    AbstractBitUtil.checkRange(output, outputOffset, getOutputSize(inputLength));
+
+    int written = encode(input, inputOffset, inputLength, output, outputOffset, true);
+    reset();
+
+    return written;
+  }
+
+  /**
+   * encodes the kept bytes and the input, pads the last quantum and resets the
+   * encoder
+   *
+   * @param input
+   *          the bytes to encode
+   * @return the encoded characters
+   */
+  public byte[] doFinal(byte[] input) {
+    byte[] output = new byte[getOutputSize(input.length)];
+    doFinal(input, 0, input.length, output, 0);
+
+    return output;
+  }
+
+  /**
+   * discards the kept bytes, so the encoder can be used for a new input
+   */
+  public void reset() {
+    quantumLength = 0;
+  }
+
+  private int encode(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset,
+      boolean endOfInput) {
+    int resultPosition = outputOffset;
+
+    // complete the quantum kept from the previous call
+    if (quantumLength > 0) {
+      int length = Math.min(bytesPerQuantum - quantumLength, inputLength);
+      System.arraycopy(input, inputOffset, quantum, quantumLength, length);
+      quantumLength += length;
+      inputOffset += length;
+      inputLength -= length;
+      if (quantumLength < bytesPerQuantum && !endOfInput) {
+        return 0;
+      }
+      resultPosition += encoder.apply(quantum, 0, quantumLength, output, resultPosition);
+      quantumLength = 0;
+    }
+
+    int length = endOfInput ? inputLength : inputLength - inputLength % bytesPerQuantum;
+    resultPosition += encoder.apply(input, inputOffset, length, output, resultPosition);
+
+    // keep the remainder for the next call
+    quantumLength = inputLength - length;
+    System.arraycopy(input, inputOffset + length, quantum, 0, quantumLength);
+
+    return resultPosition - outputOffset;
+  }
+}
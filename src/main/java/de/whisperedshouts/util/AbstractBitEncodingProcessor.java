@@ -0,0 +1,91 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A processor that encodes the published chunks. Every output chunk holds the
+ * characters of all quanta completed by the corresponding input chunk, the
+ * last quantum is padded when the upstream publisher completes.
+ *
+ * Chunks backed by an array are encoded in place, other chunks are copied
+ * through a fixed size scratch array.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitEncodingProcessor extends AbstractBitProcessor {
+  private static final int              SCRATCH_QUANTA = 2048;
+
+  private final int                     bitsPerCharacter;
+  private final int                     bytesPerQuantum;
+  private final ParallelCodec.RangeCodec encoder;
+
+  private final byte[]                  quantum;
+  private int                           quantumLength;
+  private byte[]                        scratch;
+
+  /**
+   * creates a new encoding processor
+   *
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param encoder
+   *          the encoder for a range of complete quanta
+   */
+  AbstractBitEncodingProcessor(int bitsPerCharacter, ParallelCodec.RangeCodec encoder) {
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.encoder = encoder;
+    this.quantum = new byte[bytesPerQuantum];
+  }
+
+  @Override
+  ByteBuffer process(ByteBuffer source, boolean endOfInput) {
+    long available = (long) quantumLength + source.remaining();
+    long encodable = endOfInput ? available : available - available % bytesPerQuantum;
+    if (encodable == 0) {
+      // keep the bytes until the quantum is complete
+      int length = source.remaining();
+      source.get(quantum, quantumLength, length);
+      quantumLength += length;
+      return null;
+    }
+
+    byte[] result = new byte[AbstractBitUtil.encodedLength((int) Math.min(encodable, Integer.MAX_VALUE),
+        bitsPerCharacter)];
+    int resultPosition = 0;
+
+    // complete a quantum left over from the previous chunk
+    if (quantumLength > 0) {
+      int length = Math.min(bytesPerQuantum - quantumLength, source.remaining());
+      source.get(quantum, quantumLength, length);
+      resultPosition += encoder.apply(quantum, 0, quantumLength + length, result, resultPosition);
+      quantumLength = 0;
+    }
+
+    int length = source.remaining() - (endOfInput ? 0 : source.remaining() % bytesPerQuantum);
+    if (source.hasArray()) {
+      encoder.apply(source.array(), source.arrayOffset() + source.position(), length, result, resultPosition);
+      source.position(source.position() + length);
+    } else {
+      if (scratch == null) {
+        scratch = new byte[SCRATCH_QUANTA * bytesPerQuantum];
+      }
+      while (length > 0) {
+        int chunk = Math.min(length, scratch.length);
+        source.get(scratch, 0, chunk);
+        resultPosition += encoder.apply(scratch, 0, chunk, result, resultPosition);
+        length -= chunk;
+      }
+    }
+
+    // keep the remainder for the next chunk
+    quantumLength = source.remaining();
+    source.get(quantum, 0, quantumLength);
+
+    return ByteBuffer.wrap(result);
+  }
+}
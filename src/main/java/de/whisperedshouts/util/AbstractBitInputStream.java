@@ -0,0 +1,202 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that decodes the encoded characters read from the
+ * underlying stream. Line separators and whitespace are skipped, a missing
+ * padding at the end of the stream is tolerated. Only one quantum is decoded
+ * at a time, so the memory used is constant regardless of the amount of data
+ * read.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitInputStream extends FilterInputStream {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final byte[]     decodeTable;
+  private final int        bitsPerCharacter;
+  private final int        charactersPerQuantum;
+
+  private final byte[]     buffer;
+  private int              bufferPosition;
+  private int              bufferLimit;
+  private long             offset;
+  private boolean          endOfStream;
+
+  private final byte[]     quantum;
+  private int              quantumPosition;
+  private int              quantumLength;
+
+  /**
+   * creates a new decoding input stream
+   *
+   * @param in
+   *          the underlying input stream
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   */
+  protected AbstractBitInputStream(InputStream in, Alphabet alphabet, int bitsPerCharacter) {
+    super(in);
+
+    this.decodeTable = alphabet.decodeTable;
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    this.buffer = new byte[BUFFER_SIZE];
+    this.quantum = new byte[AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter)];
+  }
+
+  @Override
+  public int read() throws IOException {
+    while (quantumPosition == quantumLength) {
+      if (!decodeQuantum()) {
+        return -1;
+      }
+    }
+
+    return quantum[quantumPosition++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (off < 0 || len < 0 || off + len > b.length || off + len < 0) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (len == 0) {
+      return 0;
+    }
+
+    int read = 0;
+    while (read < len) {
+      if (quantumPosition == quantumLength && !decodeQuantum()) {
+        break;
+      }
+      int available = Math.min(quantumLength - quantumPosition, len - read);
+      System.arraycopy(quantum, quantumPosition, b, off + read, available);
+      quantumPosition += available;
+      read += available;
+    }
+
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while (skipped < n) {
+      if (quantumPosition == quantumLength && !decodeQuantum()) {
+        break;
+      }
+      int available = (int) Math.min(quantumLength - quantumPosition, n - skipped);
+      quantumPosition += available;
+      skipped += available;
+    }
+
+    return skipped;
+  }
+
+  /**
+   * returns the amount of already decoded bytes that can be read without
+   * blocking
+   */
+  @Override
+  public int available() throws IOException {
+    return quantumLength - quantumPosition;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {
+    // not supported
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  /**
+   * reads the characters of the next quantum and decodes them
+   *
+   * @return false if the end of the stream was reached
+   * @throws IOException
+   *           if the underlying stream could not be read or contains invalid
+   *           characters
+   */
+  private boolean decodeQuantum() throws IOException {
+    long number = 0;
+    int characters = 0;
+    int paddingCharacters = 0;
+    while (characters < charactersPerQuantum) {
+      if (bufferPosition == bufferLimit && !fillBuffer()) {
+        break;
+      }
+      byte b = buffer[bufferPosition++];
+      offset++;
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved == Alphabet.SKIP || AbstractBitUtil.isWhitespace(b)) {
+        continue;
+      }
+
+      if (resolved == Alphabet.PADDING) {
+        paddingCharacters++;
+        resolved = 0;
+      } else if (resolved == Alphabet.INVALID || paddingCharacters > 0) {
+        throw new IOException("invalid character at offset " + (offset - 1));
+      }
+      number = (number << bitsPerCharacter) | resolved;
+      characters++;
+    }
+
+    if (characters == 0) {
+      return false;
+    }
+
+    // a missing padding at the end of the stream is treated like padding
+    int missingCharacters = charactersPerQuantum - characters;
+    number <<= missingCharacters * bitsPerCharacter;
+    int payloadBits = (characters - paddingCharacters) * bitsPerCharacter;
+
+    quantumLength = payloadBits / 8;
+    quantumPosition = 0;
+    int shift = charactersPerQuantum * bitsPerCharacter;
+    for (int i = 0; i < quantumLength; i++) {
+      shift -= 8;
+      quantum[i] = (byte) (number >>> shift);
+    }
+
+    return true;
+  }
+
+  private boolean fillBuffer() throws IOException {
+    if (endOfStream) {
+      return false;
+    }
+
+    int read;
+    do {
+      read = in.read(buffer, 0, buffer.length);
+    } while (read == 0);
+
+    if (read < 0) {
+      endOfStream = true;
+      return false;
+    }
+    bufferPosition = 0;
+    bufferLimit = read;
+
+    return true;
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that encodes everything written to it and passes the
+ * encoded characters on to the underlying stream. Incomplete quanta are kept
+ * between calls to {@link #write(byte[], int, int)} and are padded when the
+ * stream is closed, so the memory used is constant regardless of the amount
+ * of data written.
+ *
+ * The stream must be closed to write the final (padded) quantum.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitOutputStream extends FilterOutputStream {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final byte[]     encodeTable;
+  private final int        bitsPerCharacter;
+  private final int        bytesPerQuantum;
+  private final int        charactersPerQuantum;
+  private final int        lineLength;
+  private final byte[]     lineSeparator;
+
+  private final byte[]     quantum;
+  private int              quantumLength;
+  private final byte[]     buffer;
+  private int              bufferPosition;
+  private int              linePosition;
+  private boolean          closed;
+
+  /**
+   * creates a new encoding output stream
+   *
+   * @param out
+   *          the underlying output stream
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every line of whole quanta that
+   *          fits into a MIME line of 76 characters, like
+   *          {@link Base64Codec#withLineLength(int, String)}
+   */
+  protected AbstractBitOutputStream(OutputStream out, Alphabet alphabet, int bitsPerCharacter,
+      boolean includeLinebreaks) {
+    super(out);
+
+    this.encodeTable = alphabet.encodeTable;
+    this.bitsPerCharacter = bitsPerCharacter;
+    this.bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    this.charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    this.lineLength = includeLinebreaks
+        ? AbstractBitUtil.MIME_LINE_LENGTH / charactersPerQuantum * charactersPerQuantum : 0;
+    this.lineSeparator = includeLinebreaks ? AbstractBitCodec.CRLF : AbstractBitCodec.NO_LINE_SEPARATOR;
+    this.quantum = new byte[bytesPerQuantum];
+    this.buffer = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    quantum[quantumLength++] = (byte) b;
+    if (quantumLength == bytesPerQuantum) {
+      encodeQuantum(quantum, 0, bytesPerQuantum);
+      quantumLength = 0;
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    if (off < 0 || len < 0 || off + len > b.length || off + len < 0) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    // complete a quantum left over from a previous call
+    if (quantumLength > 0) {
+      while (len > 0 && quantumLength < bytesPerQuantum) {
+        quantum[quantumLength++] = b[off++];
+        len--;
+      }
+      if (quantumLength < bytesPerQuantum) {
+        return;
+      }
+      encodeQuantum(quantum, 0, bytesPerQuantum);
+      quantumLength = 0;
+    }
+
+    while (len >= bytesPerQuantum) {
+      encodeQuantum(b, off, bytesPerQuantum);
+      off += bytesPerQuantum;
+      len -= bytesPerQuantum;
+    }
+
+    // keep the remainder for the next call
+    System.arraycopy(b, off, quantum, 0, len);
+    quantumLength = len;
+  }
+
+  /**
+   * flushes all encoded characters to the underlying stream. An incomplete
+   * quantum is kept until more data is written or the stream is closed
+   */
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    out.flush();
+  }
+
+  /**
+   * encodes and pads a remaining incomplete quantum, then closes the
+   * underlying stream
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (quantumLength > 0) {
+        encodeQuantum(quantum, 0, quantumLength);
+        quantumLength = 0;
+      }
+      flushBuffer();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void encodeQuantum(byte[] source, int offset, int length) throws IOException {
+    // build a number out of the bytes of the quantum, missing bytes are zero
+    long number = 0;
+    for (int i = 0; i < bytesPerQuantum; i++) {
+      number <<= 8;
+      if (i < length) {
+        number |= source[offset + i] & 0xFF;
+      }
+    }
+
+    // characters that carry no payload bits are encoded as padding
+    int payloadCharacters = (length * 8 + bitsPerCharacter - 1) / bitsPerCharacter;
+    int mask = (1 << bitsPerCharacter) - 1;
+    for (int i = 0; i < charactersPerQuantum; i++) {
+      if (i < payloadCharacters) {
+        int shift = (charactersPerQuantum - 1 - i) * bitsPerCharacter;
+        put(encodeTable[(int) (number >>> shift) & mask]);
+      } else {
+        put((byte) Alphabet.PADDING_CHARACTER);
+      }
+    }
+  }
+
+  private void put(byte b) throws IOException {
+    // if the line is full, include a line separator
+    if (lineLength > 0 && linePosition == lineLength) {
+      for (byte separator : lineSeparator) {
+        putRaw(separator);
+      }
+      linePosition = 0;
+    }
+    putRaw(b);
+    linePosition++;
+  }
+
+  private void putRaw(byte b) throws IOException {
+    if (bufferPosition == buffer.length) {
+      flushBuffer();
+    }
+    buffer[bufferPosition++] = b;
+  }
+
+  private void flushBuffer() throws IOException {
+    if (bufferPosition > 0) {
+      out.write(buffer, 0, bufferPosition);
+      bufferPosition = 0;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("stream closed");
+    }
+  }
+}
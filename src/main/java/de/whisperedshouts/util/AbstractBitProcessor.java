@@ -0,0 +1,237 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Processor} that encodes or decodes the chunks published by an
+ * upstream publisher and publishes the result to a single subscriber.
+ * Incomplete quanta are kept between chunks, so every output chunk is
+ * available as soon as the input chunk completing its quanta arrives.
+ *
+ * Upstream chunks are requested one at a time and only while the subscriber
+ * has outstanding demand, so at most one input and one output chunk are held
+ * at any time regardless of the total size of the body.
+ *
+ * All signals are serialized by a drain loop, the processor can be used with
+ * publishers and subscribers running on any thread.
+ *
+ * @author mario.ragucci
+ *
+ */
+public abstract class AbstractBitProcessor implements Flow.Processor<ByteBuffer, ByteBuffer> {
+  private final AtomicBoolean                          subscribed = new AtomicBoolean();
+  private volatile Flow.Subscriber<? super ByteBuffer> downstream;
+  private volatile Flow.Subscription                   upstream;
+  private final AtomicLong                             requested  = new AtomicLong();
+  private final AtomicInteger                          wip        = new AtomicInteger();
+
+  private volatile ByteBuffer                          pending;
+  private volatile boolean                             done;
+  private volatile Throwable                           error;
+  private volatile boolean                             cancelled;
+  private volatile Throwable                           failure;
+
+  // only accessed from within the drain loop
+  private ByteBuffer                                   output;
+  private boolean                                      awaiting;
+  private boolean                                      finished;
+  private boolean                                      terminated;
+
+  /**
+   * encodes or decodes the remaining bytes of a chunk. Bytes that do not form
+   * a complete quantum are kept until the next chunk, unless endOfInput is set
+   *
+   * @param source
+   *          the chunk to process
+   * @param endOfInput
+   *          whether this is the end of the input
+   * @return the output chunk or null if no complete quantum was available
+   * @throws IOException
+   *           if the input contains invalid characters
+   */
+  abstract ByteBuffer process(ByteBuffer source, boolean endOfInput) throws IOException;
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("only one subscriber is supported"));
+      return;
+    }
+
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        if (n <= 0) {
+          failure = new IllegalArgumentException("non-positive request: " + n);
+        } else {
+          requested.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+        }
+        drain();
+      }
+
+      @Override
+      public void cancel() {
+        cancelled = true;
+        drain();
+      }
+    });
+    // published only after onSubscribe returned, so no other signal overtakes it
+    downstream = subscriber;
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    Objects.requireNonNull(subscription, "subscription");
+    if (upstream != null || cancelled) {
+      subscription.cancel();
+      return;
+    }
+    upstream = subscription;
+    drain();
+  }
+
+  @Override
+  public void onNext(ByteBuffer item) {
+    pending = Objects.requireNonNull(item, "item");
+    drain();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    error = Objects.requireNonNull(throwable, "throwable");
+    done = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    done = true;
+    drain();
+  }
+
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super ByteBuffer> subscriber = downstream;
+      if (!terminated) {
+        if (cancelled) {
+          terminate();
+        } else if (subscriber != null) {
+          emit(subscriber);
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void emit(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    Throwable f = failure;
+    if (f != null) {
+      terminate();
+      subscriber.onError(f);
+      return;
+    }
+
+    while (true) {
+      if (output == null) {
+        // pending is written before done, so done has to be read first
+        boolean complete = done;
+        ByteBuffer item = pending;
+        if (item != null) {
+          pending = null;
+          awaiting = false;
+          if (!apply(subscriber, item, false)) {
+            return;
+          }
+        } else if (complete) {
+          Throwable e = error;
+          if (e != null) {
+            terminate();
+            subscriber.onError(e);
+            return;
+          }
+          if (finished) {
+            terminate();
+            subscriber.onComplete();
+            return;
+          }
+          // encode or decode the last, incomplete quantum
+          finished = true;
+          if (!apply(subscriber, ByteBuffer.allocate(0), true)) {
+            return;
+          }
+          continue;
+        }
+      }
+
+      long demand = requested.get();
+      if (output != null) {
+        if (demand == 0) {
+          return;
+        }
+        if (demand != Long.MAX_VALUE) {
+          requested.decrementAndGet();
+        }
+        ByteBuffer chunk = output;
+        output = null;
+        subscriber.onNext(chunk);
+        continue;
+      }
+
+      // nothing to emit, ask for the next chunk if the subscriber wants more
+      Flow.Subscription subscription = upstream;
+      if (!awaiting && !done && demand > 0 && subscription != null) {
+        awaiting = true;
+        subscription.request(1);
+      }
+      return;
+    }
+  }
+
+  private boolean apply(Flow.Subscriber<? super ByteBuffer> subscriber, ByteBuffer item, boolean endOfInput) {
+    try {
+      output = process(item, endOfInput);
+    } catch (IOException e) {
+      terminate();
+      subscriber.onError(e);
+      return false;
+    }
+
+    return true;
+  }
+
+  private void terminate() {
+    terminated = true;
+    cancelled = true;
+    pending = null;
+    output = null;
+    Flow.Subscription subscription = upstream;
+    if (subscription != null && !done) {
+      subscription.cancel();
+    }
+  }
+}
@@ -3,6 +3,14 @@
  */
 package de.whisperedshouts.util;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
 import java.util.Arrays;
 
 /**
@@ -10,6 +18,35 @@ import java.util.Arrays;
  *
  */
 public abstract class AbstractBitUtil {
+  /**
+   * the default amount of bytes below which parallel encoding and decoding
+   * does not split the input any further
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+  /**
+   * the amount of characters per line according to MIME spec
+   */
+  public static final int MIME_LINE_LENGTH = 76;
+  /**
+   * the amount of characters per line according to PEM spec
+   */
+  public static final int PEM_LINE_LENGTH  = 64;
+  /**
+   * the line separator according to MIME spec, used whenever newlines are
+   * included without an explicit line separator
+   */
+  static final String     MIME_LINE_SEPARATOR = "\r\n";
+  /**
+   * the amount of bytes encoded at once when writing to an {@link Appendable}
+   */
+  private static final int APPEND_CHUNK_SIZE = 3 * 1024;
+
+  private static final byte[] CRLF = { '\r', '\n' };
+  private static final byte[] LF   = { '\n' };
+
+  private static final VarHandle LONG_BIG_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class,
+      ByteOrder.BIG_ENDIAN);
+
   /**
    * returns the bit representation of a byte
    * @param b the byte to represent
@@ -19,6 +56,668 @@ public abstract class AbstractBitUtil {
     return Integer.toBinaryString(b & 255 | 256).substring(1);
   }
 
+  /**
+   * decodes the characters remaining in the source buffers into the
+   * destination buffer. Whitespace is skipped. Only complete quanta are
+   * consumed unless endOfInput is set, in which case a missing padding at the
+   * end of the input is tolerated
+   * 
+   * @param sources
+   *          the buffers to read the encoded characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if a quantum contains an invalid character. In
+   *         the latter case the source position points to the start of that
+   *         quantum
+   */
+  static CoderResult decode(ByteBuffer[] sources, ByteBuffer destination, Alphabet alphabet,
+      int bitsPerCharacter, boolean endOfInput) {
+
+    return decode(null, sources, destination, alphabet, bitsPerCharacter, endOfInput);
+  }
+
+  /**
+   * decodes the characters remaining in a single source buffer, see
+   * {@link #decode(ByteBuffer[], ByteBuffer, Alphabet, int, boolean)}. The
+   * source is not wrapped into an array, so nothing is allocated
+   * 
+   * @param source
+   *          the buffer to read the encoded characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return the coder result
+   */
+  static CoderResult decode(ByteBuffer source, ByteBuffer destination, Alphabet alphabet, int bitsPerCharacter,
+      boolean endOfInput) {
+
+    return decode(source, null, destination, alphabet, bitsPerCharacter, endOfInput);
+  }
+
+  private static CoderResult decode(ByteBuffer single, ByteBuffer[] sources, ByteBuffer destination,
+      Alphabet alphabet, int bitsPerCharacter, boolean endOfInput) {
+    int count = sources == null ? 1 : sources.length;
+    byte[] decodeTable = alphabet.decodeTable;
+    int charactersPerQuantum = getCharactersPerQuantum(bitsPerCharacter);
+
+    int index = 0;
+    while (true) {
+      while (index < count && !source(single, sources, index).hasRemaining()) {
+        index++;
+      }
+      if (index == count) {
+        return CoderResult.UNDERFLOW;
+      }
+
+      // read the characters of the next quantum without consuming them yet
+      int cursorIndex = index;
+      int cursorPosition = source(single, sources, index).position();
+      long number = 0;
+      int characters = 0;
+      int paddingCharacters = 0;
+      int consumed = 0;
+      while (characters < charactersPerQuantum && cursorIndex < count) {
+        ByteBuffer source = source(single, sources, cursorIndex);
+        if (cursorPosition == source.limit()) {
+          if (++cursorIndex < count) {
+            cursorPosition = source(single, sources, cursorIndex).position();
+          }
+          continue;
+        }
+
+        byte b = source.get(cursorPosition++);
+        consumed++;
+        int resolved = decodeTable[b & 0xFF];
+        if (resolved == Alphabet.SKIP || isWhitespace(b)) {
+          continue;
+        }
+
+        if (resolved == Alphabet.PADDING) {
+          paddingCharacters++;
+          resolved = 0;
+        } else if (resolved == Alphabet.INVALID || paddingCharacters > 0) {
+          return CoderResult.malformedForLength(consumed);
+        }
+        number = (number << bitsPerCharacter) | resolved;
+        characters++;
+      }
+
+      if (characters < charactersPerQuantum) {
+        if (characters > 0 && !endOfInput) {
+          return CoderResult.UNDERFLOW;
+        }
+        // a missing padding at the end of the input is treated like padding
+        number <<= (charactersPerQuantum - characters) * bitsPerCharacter;
+      }
+
+      int length = (characters - paddingCharacters) * bitsPerCharacter / 8;
+      if (destination.remaining() < length) {
+        return CoderResult.OVERFLOW;
+      }
+      int shift = charactersPerQuantum * bitsPerCharacter;
+      for (int i = 0; i < length; i++) {
+        shift -= 8;
+        destination.put((byte) (number >>> shift));
+      }
+
+      // commit the consumed characters
+      for (; index < cursorIndex && index < count; index++) {
+        ByteBuffer committed = source(single, sources, index);
+        committed.position(committed.limit());
+      }
+      if (index < count) {
+        source(single, sources, index).position(cursorPosition);
+      }
+    }
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffers into the destination
+   * buffer. Quanta may span several source buffers. Unless endOfInput is set,
+   * an incomplete quantum at the end of the sources is not consumed
+   * 
+   * @param sources
+   *          the buffers to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the encoded characters to
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination, Alphabet alphabet,
+      int bitsPerCharacter, boolean endOfInput) {
+
+    return encode(null, sources, destination, alphabet, bitsPerCharacter, endOfInput);
+  }
+
+  /**
+   * encodes the bytes remaining in a single source buffer, see
+   * {@link #encode(ByteBuffer[], ByteBuffer, Alphabet, int, boolean)}. The
+   * source is not wrapped into an array, so nothing is allocated
+   * 
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the encoded characters to
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return the coder result
+   */
+  static CoderResult encode(ByteBuffer source, ByteBuffer destination, Alphabet alphabet, int bitsPerCharacter,
+      boolean endOfInput) {
+
+    return encode(source, null, destination, alphabet, bitsPerCharacter, endOfInput);
+  }
+
+  private static CoderResult encode(ByteBuffer single, ByteBuffer[] sources, ByteBuffer destination,
+      Alphabet alphabet, int bitsPerCharacter, boolean endOfInput) {
+    int count = sources == null ? 1 : sources.length;
+    byte[] encodeTable = alphabet.encodeTable;
+    int bytesPerQuantum = getBytesPerQuantum(bitsPerCharacter);
+    int charactersPerQuantum = getCharactersPerQuantum(bitsPerCharacter);
+    int mask = (1 << bitsPerCharacter) - 1;
+
+    long remaining = 0;
+    for (int i = 0; i < count; i++) {
+      remaining += source(single, sources, i).remaining();
+    }
+
+    int index = 0;
+    while (remaining > 0) {
+      if (remaining < bytesPerQuantum && !endOfInput) {
+        return CoderResult.UNDERFLOW;
+      }
+      if (destination.remaining() < charactersPerQuantum) {
+        return CoderResult.OVERFLOW;
+      }
+
+      // build a number out of the bytes of the quantum, missing bytes are zero
+      int length = (int) Math.min(remaining, bytesPerQuantum);
+      long number = 0;
+      for (int i = 0; i < bytesPerQuantum; i++) {
+        number <<= 8;
+        if (i < length) {
+          while (!source(single, sources, index).hasRemaining()) {
+            index++;
+          }
+          number |= source(single, sources, index).get() & 0xFF;
+        }
+      }
+      remaining -= length;
+
+      // characters that carry no payload bits are encoded as padding
+      int payloadCharacters = (length * 8 + bitsPerCharacter - 1) / bitsPerCharacter;
+      for (int i = 0; i < charactersPerQuantum; i++) {
+        if (i < payloadCharacters) {
+          int shift = (charactersPerQuantum - 1 - i) * bitsPerCharacter;
+          destination.put(encodeTable[(int) (number >>> shift) & mask]);
+        } else {
+          destination.put((byte) Alphabet.PADDING_CHARACTER);
+        }
+      }
+    }
+
+    return CoderResult.UNDERFLOW;
+  }
+
+  private static ByteBuffer source(ByteBuffer single, ByteBuffer[] sources, int index) {
+    return sources == null ? single : sources[index];
+  }
+
+  /**
+   * encodes a byte array chunk by chunk and appends the encoded characters.
+   * Writers and string builders get the characters as a char array, any
+   * other appendable as a reused {@link CharBuffer}, so neither the complete
+   * encoded array nor a string is ever built
+   * 
+   * @param source
+   *          the byte array to encode
+   * @param out
+   *          the appendable to append the encoded characters to
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param encoder
+   *          the encoder for a range of bytes, the last range gets padded
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  static void encodeTo(byte[] source, Appendable out, int bitsPerCharacter, ParallelCodec.RangeCodec encoder)
+      throws IOException {
+    int bytesPerQuantum = getBytesPerQuantum(bitsPerCharacter);
+    int chunkSize = Math.min(APPEND_CHUNK_SIZE / bytesPerQuantum * bytesPerQuantum, source.length);
+    int encodedLength = encodedLength(chunkSize, bitsPerCharacter);
+    byte[] encoded = BufferPool.acquireBytes(encodedLength);
+    char[] characters = BufferPool.acquireChars(encodedLength);
+    CharBuffer buffer = null;
+
+    try {
+      for (int position = 0; position < source.length; position += chunkSize) {
+        int length = encoder.apply(source, position, Math.min(chunkSize, source.length - position), encoded, 0);
+        for (int i = 0; i < length; i++) {
+          characters[i] = (char) encoded[i];
+        }
+
+        if (out instanceof Writer) {
+          ((Writer) out).write(characters, 0, length);
+        } else if (out instanceof StringBuilder) {
+          ((StringBuilder) out).append(characters, 0, length);
+        } else {
+          if (buffer == null) {
+            buffer = CharBuffer.wrap(characters);
+          }
+          buffer.clear().limit(length);
+          out.append(buffer);
+        }
+      }
+    } finally {
+      BufferPool.release(encoded);
+      BufferPool.release(characters);
+    }
+  }
+
+  /**
+   * returns the exact amount of bytes a sequence of encoded characters
+   * decodes to. Whitespace is not counted, padding at the end of the sequence
+   * is subtracted and a missing padding is tolerated
+   * 
+   * @param source
+   *          the encoded characters
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of decoded bytes
+   */
+  static int decodedLength(CharSequence source, Alphabet alphabet, int bitsPerCharacter) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int length = source.length();
+    int characters = length;
+    for (int i = 0; i < length; i++) {
+      char c = source.charAt(i);
+      if (c < 256 && (decodeTable[c] == Alphabet.SKIP || decodeTable[c] < 0 && isWhitespace((byte) c))) {
+        characters--;
+      }
+    }
+
+    for (int i = length - 1; i >= 0; i--) {
+      char c = source.charAt(i);
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved == Alphabet.PADDING) {
+        characters--;
+      } else if (resolved != Alphabet.SKIP && (resolved >= 0 || c >= 256 || !isWhitespace((byte) c))) {
+        break;
+      }
+    }
+
+    return (int) ((long) characters * bitsPerCharacter / 8);
+  }
+
+  /**
+   * decodes a sequence of encoded characters into the destination array
+   * without converting them to bytes first. Whitespace is skipped, a missing
+   * padding at the end of the sequence is tolerated
+   * 
+   * @param source
+   *          the encoded characters
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(CharSequence, Alphabet, int)} bytes
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of bytes written
+   */
+  static int decodeCharacters(CharSequence source, byte[] destination, Alphabet alphabet, int bitsPerCharacter) {
+
+    return decodeCharacters(source, destination, alphabet, bitsPerCharacter, false);
+  }
+
+  /**
+   * decodes a sequence of encoded characters into the destination array
+   * without converting them to bytes first. Whitespace is skipped. In strict
+   * mode invalid characters, misplaced padding and an incomplete last quantum
+   * are rejected, otherwise invalid characters decode to garbage
+   * 
+   * @param source
+   *          the encoded characters
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(CharSequence, Alphabet, int)} bytes
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param strict
+   *          whether to reject invalid input
+   * @return the amount of bytes written
+   * @throws IllegalArgumentException
+   *           if strict and the input is invalid, naming the offset of the
+   *           first bad character
+   */
+  static int decodeCharacters(CharSequence source, byte[] destination, Alphabet alphabet, int bitsPerCharacter,
+      boolean strict) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int charactersPerQuantum = getCharactersPerQuantum(bitsPerCharacter);
+    int mask = (1 << bitsPerCharacter) - 1;
+    int length = source.length();
+    int resultPosition = 0;
+    long number = 0;
+    int characters = 0;
+    int paddingCharacters = 0;
+    for (int i = 0; i < length; i++) {
+      char c = source.charAt(i);
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved < 0) {
+        if (resolved == Alphabet.PADDING) {
+          if (strict && paddingCharacters == 0) {
+            checkPadding(indexOfInvalidPadding(source, i, decodeTable, characters, bitsPerCharacter));
+          }
+          paddingCharacters++;
+          resolved = 0;
+        } else if (resolved == Alphabet.SKIP || c < 256 && isWhitespace((byte) c)) {
+          continue;
+        } else if (strict) {
+          throw invalidCharacter(i);
+        }
+      }
+      number = (number << bitsPerCharacter) | (resolved & mask);
+
+      if (++characters == charactersPerQuantum) {
+        resultPosition = writeQuantum(destination, resultPosition, number, characters - paddingCharacters,
+            bitsPerCharacter, charactersPerQuantum);
+        number = 0;
+        characters = 0;
+        paddingCharacters = 0;
+      }
+    }
+
+    // a missing padding at the end of the sequence is treated like padding
+    if (characters > 0) {
+      if (strict) {
+        checkRemainder(characters, length, bitsPerCharacter);
+      }
+      number <<= (charactersPerQuantum - characters) * bitsPerCharacter;
+      resultPosition = writeQuantum(destination, resultPosition, number, characters - paddingCharacters,
+          bitsPerCharacter, charactersPerQuantum);
+    }
+
+    return resultPosition;
+  }
+
+  private static int writeQuantum(byte[] destination, int resultPosition, long number, int payloadCharacters,
+      int bitsPerCharacter, int charactersPerQuantum) {
+    int length = payloadCharacters * bitsPerCharacter / 8;
+    int shift = charactersPerQuantum * bitsPerCharacter;
+    for (int i = 0; i < length; i++) {
+      shift -= 8;
+      destination[resultPosition++] = (byte) (number >>> shift);
+    }
+
+    return resultPosition;
+  }
+
+  /**
+   * returns the offset of the first character that makes a range of encoded
+   * characters invalid, or -1 if the range is valid. A range is valid if it
+   * contains alphabet characters and whitespace only, padding appears only at
+   * the end and completes the last quantum, and an unpadded last quantum
+   * carries at least one byte. Runs of 8 alphabet characters are checked with
+   * a single word read and a single sign test. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the encoded characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the offset of the first bad character, the end of the range if
+   *         the last quantum is incomplete or -1 if the range is valid
+   */
+  static int indexOfInvalid(byte[] source, int offset, int length, Alphabet alphabet, int bitsPerCharacter) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int charactersPerQuantum = getCharactersPerQuantum(bitsPerCharacter);
+    int end = offset + length;
+    int characters = 0;
+    int position = offset;
+    while (position < end) {
+      if (position <= end - 8) {
+        long word = (long) LONG_BIG_ENDIAN.get(source, position);
+        // every invalid, padding or skipped character resolves to a negative
+        // value, so one sign test covers all 8 characters
+        int resolved = decodeTable[(int) (word >>> 56)] | decodeTable[(int) (word >>> 48) & 0xFF]
+            | decodeTable[(int) (word >>> 40) & 0xFF] | decodeTable[(int) (word >>> 32) & 0xFF]
+            | decodeTable[(int) (word >>> 24) & 0xFF] | decodeTable[(int) (word >>> 16) & 0xFF]
+            | decodeTable[(int) (word >>> 8) & 0xFF] | decodeTable[(int) word & 0xFF];
+        if (resolved >= 0) {
+          characters += 8;
+          position += 8;
+          continue;
+        }
+      }
+
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved >= 0) {
+        characters++;
+      } else if (resolved == Alphabet.PADDING) {
+        return indexOfInvalidPadding(source, position, end, decodeTable, characters % charactersPerQuantum,
+            bitsPerCharacter);
+      } else if (resolved != Alphabet.SKIP && !isWhitespace(b)) {
+        return position;
+      }
+      position++;
+    }
+
+    return isCompleteRemainder(characters % charactersPerQuantum, bitsPerCharacter) ? -1 : end;
+  }
+
+  /**
+   * returns the offset of the first character that makes a sequence of
+   * encoded characters invalid, or -1 if the sequence is valid. See
+   * {@link #indexOfInvalid(byte[], int, int, Alphabet, int)}
+   * 
+   * @param source
+   *          the encoded characters
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the offset of the first bad character, the length of the sequence
+   *         if the last quantum is incomplete or -1 if the sequence is valid
+   */
+  static int indexOfInvalid(CharSequence source, Alphabet alphabet, int bitsPerCharacter) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int charactersPerQuantum = getCharactersPerQuantum(bitsPerCharacter);
+    int length = source.length();
+    int characters = 0;
+    for (int i = 0; i < length; i++) {
+      char c = source.charAt(i);
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved >= 0) {
+        characters++;
+      } else if (resolved == Alphabet.PADDING) {
+        return indexOfInvalidPadding(source, i, decodeTable, characters % charactersPerQuantum, bitsPerCharacter);
+      } else if (resolved != Alphabet.SKIP && (c >= 256 || !isWhitespace((byte) c))) {
+        return i;
+      }
+    }
+
+    return isCompleteRemainder(characters % charactersPerQuantum, bitsPerCharacter) ? -1 : length;
+  }
+
+  /**
+   * checks the padding that starts at position. Only padding and whitespace
+   * may follow and the padding has to complete the current quantum
+   * 
+   * @param source
+   *          the array holding the encoded characters
+   * @param position
+   *          the offset of the first padding character
+   * @param end
+   *          the end of the range
+   * @param decodeTable
+   *          the decode table of the alphabet
+   * @param characters
+   *          the amount of alphabet characters in the current quantum
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the offset of the first bad character or -1 if the padding is
+   *         valid
+   */
+  static int indexOfInvalidPadding(byte[] source, int position, int end, byte[] decodeTable, int characters,
+      int bitsPerCharacter) {
+    int paddingCharacters = 0;
+    for (int i = position; i < end; i++) {
+      byte b = source[i];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved == Alphabet.PADDING) {
+        paddingCharacters++;
+      } else if (resolved != Alphabet.SKIP && !isWhitespace(b)) {
+        return i;
+      }
+    }
+
+    return isCompletePadding(characters, paddingCharacters, bitsPerCharacter) ? -1 : position;
+  }
+
+  private static int indexOfInvalidPadding(CharSequence source, int position, byte[] decodeTable, int characters,
+      int bitsPerCharacter) {
+    int paddingCharacters = 0;
+    for (int i = position; i < source.length(); i++) {
+      char c = source.charAt(i);
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved == Alphabet.PADDING) {
+        paddingCharacters++;
+      } else if (resolved != Alphabet.SKIP && (c >= 256 || !isWhitespace((byte) c))) {
+        return i;
+      }
+    }
+
+    return isCompletePadding(characters, paddingCharacters, bitsPerCharacter) ? -1 : position;
+  }
+
+  private static boolean isCompletePadding(int characters, int paddingCharacters, int bitsPerCharacter) {
+
+    return characters > 0 && isCompleteRemainder(characters, bitsPerCharacter)
+        && characters + paddingCharacters == getCharactersPerQuantum(bitsPerCharacter);
+  }
+
+  /**
+   * returns whether the characters of an unpadded last quantum carry at least
+   * one byte and no more bits than fit into a single character, i.E. 2 or 3
+   * base64 characters but not 1
+   */
+  private static boolean isCompleteRemainder(int characters, int bitsPerCharacter) {
+
+    return characters * bitsPerCharacter % 8 < bitsPerCharacter;
+  }
+
+  /**
+   * throws if the result of {@link #indexOfInvalidPadding} names a bad
+   * character
+   * 
+   * @param invalidOffset
+   *          the offset of the first bad character or -1
+   * @throws IllegalArgumentException
+   *           if the offset is not -1
+   */
+  static void checkPadding(int invalidOffset) {
+    if (invalidOffset >= 0) {
+      throw invalidCharacter(invalidOffset);
+    }
+  }
+
+  /**
+   * throws if the characters at the end of the input do not form a complete
+   * unpadded quantum
+   * 
+   * @param characters
+   *          the amount of alphabet characters in the last quantum
+   * @param end
+   *          the offset of the end of the input
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @throws IllegalArgumentException
+   *           if the last quantum is incomplete
+   */
+  static void checkRemainder(int characters, int end, int bitsPerCharacter) {
+    if (!isCompleteRemainder(characters, bitsPerCharacter)) {
+      throw new IllegalArgumentException("incomplete quantum at offset " + end);
+    }
+  }
+
+  /**
+   * @param offset
+   *          the offset of the bad character
+   * @return the exception strict decoding throws for a bad character
+   */
+  static IllegalArgumentException invalidCharacter(int offset) {
+
+    return new IllegalArgumentException("invalid character at offset " + offset);
+  }
+
+  /**
+   * returns the amount of bytes that form one quantum, i.E. 3 bytes for 6 bit
+   * (base64) or 5 bytes for 5 bit (base32) characters
+   * 
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of bytes per quantum
+   */
+  static int getBytesPerQuantum(int bitsPerCharacter) {
+    return bitsPerCharacter / greatestCommonDivisor(8, bitsPerCharacter);
+  }
+
+  /**
+   * returns the amount of encoded characters that form one quantum, i.E. 4
+   * characters for 6 bit (base64) or 8 characters for 5 bit (base32)
+   * characters
+   * 
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of characters per quantum
+   */
+  static int getCharactersPerQuantum(int bitsPerCharacter) {
+    return 8 / greatestCommonDivisor(8, bitsPerCharacter);
+  }
+
+  private static int greatestCommonDivisor(int a, int b) {
+    while (b != 0) {
+      int remainder = a % b;
+      a = b;
+      b = remainder;
+    }
+
+    return a;
+  }
+
   /**
    * returns a bitmask that was left shifted (=nulled) by size bit
    * 
@@ -53,35 +752,191 @@ public abstract class AbstractBitUtil {
   }
 
   /**
-   * scans a byte array and removes newline characters.
+   * scans a byte array and removes line separators and whitespace.
    * also padds the array if it has not the proper length
    * @param byteArray the byte array to scan
    * @param bitModulator the modulo to use
    * @return a sanitized byte array
+   * @deprecated the decoders skip whitespace on the fly and no longer need a
+   *             sanitized copy of their input
    */
+  @Deprecated
   public static byte[] sanitizeArray(byte[] byteArray, int bitModulator) {
-    byte[] result = null;
-    byte[] sanitizedTempArray = new byte[byteArray.length];
+    byte[] sanitizedTempArray = new byte[byteArray.length + bitModulator];
     int sanitizedSize = 0;
     for (byte b : byteArray) {
-      if((char)b == System.lineSeparator().getBytes()[0]) {
-        continue;
-      } else {
+      if (!isWhitespace(b)) {
         sanitizedTempArray[sanitizedSize++] = b;
       }
     }
-    result = Arrays.copyOf(sanitizedTempArray, sanitizedSize);
-    
+
     // padding
     int paddingSize = bitModulator - (sanitizedSize % bitModulator);
-    if(paddingSize != bitModulator) {
-      result = Arrays.copyOf(sanitizedTempArray, sanitizedSize + paddingSize);
-      for(int i = 1; i <= paddingSize; i++) {
-        result[result.length - i] = '=';
+    if (paddingSize == bitModulator) {
+      paddingSize = 0;
+    }
+    Arrays.fill(sanitizedTempArray, sanitizedSize, sanitizedSize + paddingSize, (byte) '=');
+
+    return Arrays.copyOf(sanitizedTempArray, sanitizedSize + paddingSize);
+  }
+
+  /**
+   * returns the amount of characters the encoding of length bytes takes,
+   * including padding
+   * 
+   * @param length
+   *          the amount of bytes to encode
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of encoded characters
+   * @throws IllegalArgumentException
+   *           if the encoded characters do not fit into a single array
+   */
+  static int encodedLength(int length, int bitsPerCharacter) {
+    int bytesPerQuantum = getBytesPerQuantum(bitsPerCharacter);
+    long encodedLength = (length + (long) bytesPerQuantum - 1) / bytesPerQuantum
+        * getCharactersPerQuantum(bitsPerCharacter);
+    if (encodedLength > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("input too large to be encoded into a single array");
+    }
+
+    return (int) encodedLength;
+  }
+
+  /**
+   * returns the line separator as bytes. Only whitespace is allowed, so the
+   * decoders can skip the separator. CRLF and LF are returned as shared
+   * arrays, which must not be modified
+   * 
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return the line separator as bytes
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  static byte[] getLineSeparatorBytes(String lineSeparator) {
+    if ("\r\n".equals(lineSeparator)) {
+      return CRLF;
+    }
+    if ("\n".equals(lineSeparator)) {
+      return LF;
+    }
+    byte[] bytes = new byte[lineSeparator.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      char c = lineSeparator.charAt(i);
+      if (c > 0x7F || !isWhitespace((byte) c)) {
+        throw new IllegalArgumentException("line separator contains non whitespace character at position " + i);
       }
+      bytes[i] = (byte) c;
     }
-    
-    return result;
+
+    return bytes;
+  }
+
+  /**
+   * checks that a range lies within an array
+   * 
+   * @param array
+   *          the array
+   * @param offset
+   *          the offset of the range
+   * @param length
+   *          the length of the range
+   * @throws IndexOutOfBoundsException
+   *           if the range does not lie within the array
+   */
+  static void checkRange(byte[] array, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > array.length || offset + length < 0) {
+      throw new IndexOutOfBoundsException("range [" + offset + ", " + offset + " + " + length
+          + ") out of bounds for length " + array.length);
+    }
+  }
+
+  /**
+   * checks the source and destination ranges of a decode. The exact decoded
+   * length is only counted if the upper bound does not fit into the
+   * destination
+   * 
+   * @param source
+   *          the array holding the encoded characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  static void checkDecodeRange(byte[] source, int sourceOffset, int length, byte[] destination,
+      int destinationOffset, Alphabet alphabet, int bitsPerCharacter) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, 0);
+    if ((long) length * bitsPerCharacter / 8 > destination.length - destinationOffset) {
+      checkRange(destination, destinationOffset,
+          decodedLength(source, sourceOffset, length, alphabet, bitsPerCharacter));
+    }
+  }
+
+  /**
+   * returns whether a character is skipped when decoding, i.E. the line
+   * separators CR and LF as well as space and tab
+   * 
+   * @param b
+   *          the character to check
+   * @return true if the character is whitespace
+   */
+  static boolean isWhitespace(byte b) {
+    return b == '\n' || b == '\r' || b == ' ' || b == '\t';
+  }
+
+  /**
+   * returns the exact amount of bytes a range of encoded characters decodes
+   * to. Whitespace is not counted, padding at the end of the range is
+   * subtracted and a missing padding is tolerated. Padding within the range
+   * ends a quantum early, so the decoded data may be shorter than returned
+   * 
+   * @param source
+   *          the array holding the encoded characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @return the amount of decoded bytes
+   */
+  static int decodedLength(byte[] source, int offset, int length, Alphabet alphabet, int bitsPerCharacter) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int end = offset + length;
+    int characters = length;
+    for (int position = offset; position < end; position++) {
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved == Alphabet.SKIP || resolved < 0 && isWhitespace(b)) {
+        characters--;
+      }
+    }
+
+    for (int position = end - 1; position >= offset; position--) {
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved == Alphabet.PADDING) {
+        characters--;
+      } else if (resolved != Alphabet.SKIP && (resolved >= 0 || !isWhitespace(b))) {
+        break;
+      }
+    }
+
+    return (int) ((long) characters * bitsPerCharacter / 8);
   }
 
   /**
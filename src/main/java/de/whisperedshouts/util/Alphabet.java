@@ -0,0 +1,285 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An immutable, precompiled representation of a character set. Instead of
+ * resolving every character with {@link String#indexOf(int)}, the alphabet
+ * holds an encode table (index to character) and a 256 entry decode table
+ * (character to index) that can be used by the encoders and decoders directly.
+ *
+ * Alphabets are built once per character set and cached, so
+ * {@link #of(String)} can be called on every encode and decode. Alphabets
+ * created by {@link #ofIgnoreCase(String)} fold the case in the decode table
+ * itself, so the input never has to be converted. Crockford's base32 and
+ * z-base-32 always decode case insensitive, Crockford's base32 additionally
+ * reads I and L as 1, O as 0 and skips hyphens.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class Alphabet {
+  /**
+   * marker in the decode table for characters not part of the alphabet
+   */
+  public static final byte INVALID = -1;
+  /**
+   * marker in the decode table for the padding character
+   */
+  public static final byte PADDING = -2;
+  /**
+   * marker in the decode table for characters that are skipped like
+   * whitespace, i.E. the hyphens of Crockford's base32
+   */
+  public static final byte SKIP    = -3;
+  /**
+   * the padding character
+   */
+  public static final char PADDING_CHARACTER = '=';
+
+  private static final ConcurrentMap<String, Alphabet> CACHE             = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, Alphabet> IGNORE_CASE_CACHE = new ConcurrentHashMap<>();
+
+  private final String characterSet;
+  private final boolean ignoreCase;
+  /**
+   * the name the codec counters and events are reported under, i.E. base64
+   */
+  final String         name;
+  final byte[]         encodeTable;
+  final byte[]         decodeTable;
+  /**
+   * two characters for every 12 bit (64 character alphabets), 10 bit (32
+   * character alphabets) or 8 bit (16 character alphabets) value, not
+   * available for other alphabets
+   */
+  final short[]        encodePairTable;
+
+  /**
+   * creates a new alphabet
+   *
+   * @param characterSet
+   *          the characters to encode to
+   * @param ignoreCase
+   *          whether the other case of a letter decodes like the letter
+   * @param aliases
+   *          pairs of an additional character and the character it decodes
+   *          like
+   * @param skipped
+   *          the characters that are skipped when decoding
+   */
+  private Alphabet(String characterSet, boolean ignoreCase, String aliases, String skipped) {
+    int size = characterSet.length();
+    if (size == 0 || size > 128) {
+      throw new IllegalArgumentException("invalid character set size: " + size);
+    }
+
+    this.characterSet = characterSet;
+    this.ignoreCase = ignoreCase;
+    this.name = nameOf(characterSet);
+    this.encodeTable = new byte[size];
+    this.decodeTable = new byte[256];
+
+    Arrays.fill(decodeTable, INVALID);
+    decodeTable[PADDING_CHARACTER] = PADDING;
+    for (int i = 0; i < size; i++) {
+      char c = characterSet.charAt(i);
+      if (c > 0x7F) {
+        throw new IllegalArgumentException("character set contains non ascii character at position " + i);
+      }
+      if (decodeTable[c] >= 0) {
+        throw new IllegalArgumentException("character set contains duplicate character '" + c + "'");
+      }
+      encodeTable[i] = (byte) c;
+      decodeTable[c] = (byte) i;
+    }
+    for (int i = 0; i < aliases.length(); i += 2) {
+      decodeTable[aliases.charAt(i)] = decodeTable[aliases.charAt(i + 1)];
+    }
+    for (int i = 0; i < skipped.length(); i++) {
+      decodeTable[skipped.charAt(i)] = SKIP;
+    }
+
+    // the other case of a letter decodes like the letter, unless it is part
+    // of the character set itself
+    if (ignoreCase) {
+      for (char c = 'A'; c <= 'Z'; c++) {
+        char lower = Character.toLowerCase(c);
+        if (decodeTable[c] >= 0 && decodeTable[lower] == INVALID) {
+          decodeTable[lower] = decodeTable[c];
+        } else if (decodeTable[lower] >= 0 && decodeTable[c] == INVALID) {
+          decodeTable[c] = decodeTable[lower];
+        }
+      }
+    }
+
+    if (size == 64 || size == 32 || size == 16) {
+      int bits = Integer.numberOfTrailingZeros(size);
+      this.encodePairTable = new short[size * size];
+      for (int i = 0; i < encodePairTable.length; i++) {
+        encodePairTable[i] = (short) ((encodeTable[i >>> bits] << 8) | encodeTable[i & (size - 1)]);
+      }
+    } else {
+      this.encodePairTable = null;
+    }
+  }
+
+  /**
+   * returns the alphabet for the supplied character set. Alphabets are cached,
+   * so subsequent calls with the same character set return the same instance
+   *
+   * @param characterSet
+   *          the character set to use
+   * @return the alphabet
+   * @throws IllegalArgumentException
+   *           if the character set is empty, too large, contains duplicates
+   *           or non ascii characters
+   */
+  public static Alphabet of(String characterSet) {
+    Alphabet alphabet = CACHE.get(characterSet);
+    if (alphabet == null) {
+      // no lambda, so the codec constants bootstrap no call site
+      alphabet = create(characterSet, false);
+      Alphabet existing = CACHE.putIfAbsent(characterSet, alphabet);
+      if (existing != null) {
+        alphabet = existing;
+      }
+    }
+
+    return alphabet;
+  }
+
+  /**
+   * returns the case insensitive alphabet for the supplied character set.
+   * Encoding uses the characters as supplied, decoding accepts upper and lower
+   * case letters alike
+   *
+   * @param characterSet
+   *          the character set to use
+   * @return the alphabet
+   * @throws IllegalArgumentException
+   *           if the character set is empty, too large, contains duplicates
+   *           or non ascii characters
+   */
+  public static Alphabet ofIgnoreCase(String characterSet) {
+    Alphabet alphabet = IGNORE_CASE_CACHE.get(characterSet);
+    if (alphabet == null) {
+      alphabet = create(characterSet, true);
+      Alphabet existing = IGNORE_CASE_CACHE.putIfAbsent(characterSet, alphabet);
+      if (existing != null) {
+        alphabet = existing;
+      }
+    }
+
+    return alphabet;
+  }
+
+  /**
+   * creates the alphabet for a character set, applying the decoding rules of
+   * the character sets that define their own
+   */
+  private static Alphabet create(String characterSet, boolean ignoreCase) {
+    if (Base32Util.CROCKFORD_CHARSET.equals(characterSet)) {
+      return new Alphabet(characterSet, true, "I1L1O0", "-");
+    }
+    if (Base32Util.ZBASE32_CHARSET.equals(characterSet)) {
+      return new Alphabet(characterSet, true, "", "");
+    }
+
+    return new Alphabet(characterSet, ignoreCase, "", "");
+  }
+
+  private static String nameOf(String characterSet) {
+    switch (characterSet) {
+    case Base64Util.CHARACTERSET:
+      return "base64";
+    case Base64UrlUtil.CHARACTERSET:
+      return "base64url";
+    case Base32Util.BASE32_CHARSET:
+      return "base32";
+    case Base32Util.BASE32_HEX_CHARSET:
+      return "base32hex";
+    case Base32Util.CROCKFORD_CHARSET:
+      return "crockford32";
+    case Base32Util.ZBASE32_CHARSET:
+      return "z-base-32";
+    case Base16Util.BASE16_CHARSET:
+    case Base16Util.BASE16_LOWER_CHARSET:
+      return "base16";
+    case Base85Util.ASCII85_CHARSET:
+      return "ascii85";
+    case Base85Util.Z85_CHARSET:
+      return "z85";
+    default:
+      return "base" + characterSet.length() + "-custom";
+    }
+  }
+
+  /**
+   * returns the character for the supplied index
+   *
+   * @param index
+   *          the index to look up
+   * @return the character as byte
+   */
+  public byte encode(int index) {
+    return encodeTable[index];
+  }
+
+  /**
+   * returns the index of the supplied character, {@link #PADDING} for the
+   * padding character, {@link #SKIP} for a character decoding ignores or
+   * {@link #INVALID} if the character is not part of the alphabet
+   *
+   * @param b
+   *          the character to look up
+   * @return the index of the character
+   */
+  public byte decode(byte b) {
+    return decodeTable[b & 0xFF];
+  }
+
+  /**
+   * @return the character set this alphabet was built from
+   */
+  public String getCharacterSet() {
+    return characterSet;
+  }
+
+  /**
+   * @return whether decoding accepts both cases of a letter
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
+  /**
+   * @return whether decoding skips characters besides whitespace
+   */
+  boolean hasSkippedCharacters() {
+    for (byte b : decodeTable) {
+      if (b == SKIP) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @return the amount of characters in this alphabet
+   */
+  public int size() {
+    return encodeTable.length;
+  }
+
+  @Override
+  public String toString() {
+    return characterSet;
+  }
+}
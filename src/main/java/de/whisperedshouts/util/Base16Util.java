@@ -0,0 +1,726 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * RFC 4648 beschreibt Base16 als die hexadezimale Darstellung beliebiger
+ * Binärdaten: Jedes Byte wird in zwei 4-Bit-Gruppen zerlegt, jede dieser
+ * Gruppen entspricht einer Zahl zwischen 0 und 15 und wird als eines der
+ * Zeichen 0–9 und A–F ausgegeben. Da jedes Byte genau zwei Zeichen ergibt, wird
+ * kein Padding benötigt.
+ *
+ * Beim Dekodieren werden Groß- und Kleinbuchstaben gleichermaßen akzeptiert.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base16Util extends AbstractBitUtil {
+  /**
+   * the base16 characterset defined in RFC4648
+   */
+  public static final String     BASE16_CHARSET       = "0123456789ABCDEF";
+  /**
+   * the lower case base16 characterset, i.E. used for hash digests
+   */
+  public static final String     BASE16_LOWER_CHARSET = "0123456789abcdef";
+
+  private static final VarHandle LONG_BIG_ENDIAN      = MethodHandles.byteArrayViewVarHandle(long[].class,
+      ByteOrder.BIG_ENDIAN);
+
+  /**
+   * decodes a base16 encoded byte array
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decode(byte[] byteArray) {
+
+    return decode(byteArray, Base16Util.BASE16_CHARSET);
+  }
+
+  /**
+   * decodes a base16 encoded byte array with the characterset supplied. Upper
+   * and lower case letters are accepted alike
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @param base16Charset
+   *          the character set to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(byte[] byteArray, String base16Charset) {
+
+    return decode(byteArray, Alphabet.ofIgnoreCase(base16Charset));
+  }
+
+  /**
+   * decodes a base16 encoded byte array with the alphabet supplied
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(byteArray, 0, byteArray.length, alphabet, 4)];
+    int written = decodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * returns the amount of base16 characters the encoding of length bytes takes
+   *
+   * @param length
+   *          the amount of bytes to encode
+   * @return the amount of base16 characters
+   */
+  public static int encodedLength(int length) {
+
+    return encodedLength(length, 4);
+  }
+
+  /**
+   * returns the exact amount of bytes a range of base16 characters decodes to.
+   * Whitespace is not counted
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return the amount of decoded bytes
+   */
+  public static int decodedLength(byte[] source, int offset, int length) {
+    checkRange(source, offset, length);
+
+    return decodedLength(source, offset, length, Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET), 4);
+  }
+
+  /**
+   * decodes a range of base16 characters into the supplied array. Upper and
+   * lower case letters are accepted alike, whitespace is skipped. Nothing is
+   * allocated
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return decode(source, sourceOffset, length, destination, destinationOffset,
+        Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET));
+  }
+
+  /**
+   * decodes a range of base16 characters into the supplied array using the
+   * supplied alphabet. Whitespace is skipped
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkDecodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, 4);
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * decodes the base16 characters remaining in the source buffer into the
+   * destination buffer. The source is treated as the end of the input
+   *
+   * @param source
+   *          the buffer to read the base16 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination) {
+
+    return decode(source, destination, Base16Util.BASE16_CHARSET, true);
+  }
+
+  /**
+   * decodes the base16 characters remaining in the source buffer into the
+   * destination buffer using the supplied character set. Unless endOfInput is
+   * set, a single character at the end of the source is not consumed
+   *
+   * @param source
+   *          the buffer to read the base16 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param base16Charset
+   *          the character set to use
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination, String base16Charset,
+      boolean endOfInput) {
+
+    return decode(source, destination, Alphabet.ofIgnoreCase(base16Charset), 4, endOfInput);
+  }
+
+  /**
+   * decodes a range of base16 characters into the destination array.
+   * Whitespace is skipped, a single character at the end of the range
+   * carries no complete byte and is dropped
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, false);
+  }
+
+  /**
+   * decodes a range of base16 characters into the destination array in one
+   * pass. Whitespace is skipped. In strict mode invalid characters, misplaced
+   * padding and an incomplete last quantum are rejected, otherwise invalid
+   * characters decode to garbage
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @param strict
+   *          whether to reject invalid input
+   * @return the amount of bytes written
+   * @throws IllegalArgumentException
+   *           if strict and the input is invalid, naming the offset of the
+   *           first bad character
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet, boolean strict) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int end = sourceOffset + length;
+    int resultPosition = destinationOffset;
+    int number = 0;
+    int characters = 0;
+    int paddingCharacters = 0;
+    for (int position = sourceOffset; position < end; position++) {
+      if (characters == 0) {
+        // 16 characters are decoded to a word at once, until whitespace,
+        // padding or an invalid character shows up
+        while (position <= end - 16) {
+          long word = 0;
+          int resolved = 0;
+          for (int i = 0; i < 16; i++) {
+            int nibble = decodeTable[source[position + i] & 0xFF];
+            resolved |= nibble;
+            word = (word << 4) | (nibble & 0x0F);
+          }
+          if (resolved < 0) {
+            break;
+          }
+          LONG_BIG_ENDIAN.set(destination, resultPosition, word);
+          position += 16;
+          resultPosition += 8;
+        }
+
+        // the remaining characters pair by pair
+        while (position <= end - 2) {
+          int high = decodeTable[source[position] & 0xFF];
+          int low = decodeTable[source[position + 1] & 0xFF];
+          if ((high | low) < 0) {
+            break;
+          }
+          destination[resultPosition++] = (byte) ((high << 4) | low);
+          position += 2;
+        }
+        if (position == end) {
+          break;
+        }
+      }
+
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved < 0) {
+        if (resolved == Alphabet.PADDING) {
+          if (strict && paddingCharacters == 0) {
+            checkPadding(indexOfInvalidPadding(source, position, end, decodeTable, characters, 4));
+          }
+          paddingCharacters++;
+          resolved = 0;
+        } else if (resolved == Alphabet.SKIP || isWhitespace(b)) {
+          continue;
+        } else if (strict) {
+          throw invalidCharacter(position);
+        }
+      }
+      // only the first 4 bits are of interest
+      number = (number << 4) | (resolved & 0x0F);
+
+      if (++characters == 2) {
+        if (paddingCharacters == 0) {
+          destination[resultPosition++] = (byte) number;
+        }
+        number = 0;
+        characters = 0;
+        paddingCharacters = 0;
+      }
+    }
+    if (strict) {
+      checkRemainder(characters, end, 4);
+    }
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * decodes a base16 encoded string
+   *
+   * @param base16Encoded
+   *          the string to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decode(String base16Encoded) {
+
+    return decode((CharSequence) base16Encoded, Base16Util.BASE16_CHARSET);
+  }
+
+  /**
+   * decodes base16 characters. The characters are read directly, without
+   * converting them to bytes first
+   *
+   * @param base16Encoded
+   *          the base16 characters to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base16Encoded) {
+
+    return decode(base16Encoded, Base16Util.BASE16_CHARSET);
+  }
+
+  /**
+   * decodes base16 characters using the supplied character set. The
+   * characters are read directly, without converting them to bytes first.
+   * Upper and lower case letters are accepted alike, whitespace is skipped
+   *
+   * @param base16Encoded
+   *          the base16 characters to decode
+   * @param base16Charset
+   *          the character set to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base16Encoded, String base16Charset) {
+    Alphabet alphabet = Alphabet.ofIgnoreCase(base16Charset);
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(base16Encoded, alphabet, 4)];
+    int written = decodeCharacters(base16Encoded, result, alphabet, 4);
+    CodecMetrics.end(event, alphabet, base16Encoded.length(), written);
+
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes a base16 encoded byte array, rejecting invalid input in the same
+   * pass instead of decoding it to garbage. Upper and lower case letters are
+   * accepted alike
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or an odd amount of
+   *           characters, naming the offset of the first bad character
+   */
+  public static byte[] decodeStrict(byte[] byteArray) {
+    Alphabet alphabet = Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET);
+    byte[] result = new byte[decodedLength(byteArray, 0, byteArray.length, alphabet, 4)];
+    decodeRange(byteArray, 0, byteArray.length, result, 0, alphabet, true);
+
+    return result;
+  }
+
+  /**
+   * decodes base16 characters, rejecting invalid input in the same pass. See
+   * {@link #decodeStrict(byte[])}
+   *
+   * @param base16Encoded
+   *          the base16 characters to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input is invalid, naming the offset of the first bad
+   *           character
+   */
+  public static byte[] decodeStrict(CharSequence base16Encoded) {
+    Alphabet alphabet = Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET);
+    byte[] result = new byte[decodedLength(base16Encoded, alphabet, 4)];
+    decodeCharacters(base16Encoded, result, alphabet, 4, true);
+
+    return result;
+  }
+
+  /**
+   * returns whether a range of base16 characters is valid, without decoding
+   * it. Alphabet membership and an even amount of characters are checked 8
+   * characters at a time. Nothing is allocated
+   *
+   * @param source
+   *          the array holding the base16 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return true if {@link #decodeStrict(byte[])} would accept the range
+   * @throws IndexOutOfBoundsException
+   *           if the range does not lie within the array
+   */
+  public static boolean isValid(byte[] source, int offset, int length) {
+    checkRange(source, offset, length);
+
+    return indexOfInvalid(source, offset, length, Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET), 4) < 0;
+  }
+
+  /**
+   * returns whether a sequence of base16 characters is valid, without
+   * decoding it. Nothing is allocated
+   *
+   * @param base16Encoded
+   *          the base16 characters to check
+   * @return true if {@link #decodeStrict(CharSequence)} would accept the
+   *         sequence
+   */
+  public static boolean isValid(CharSequence base16Encoded) {
+
+    return indexOfInvalid(base16Encoded, Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET), 4) < 0;
+  }
+
+  /**
+   * decode a base16 encoded string to its original representation
+   *
+   * @param base16Encoded
+   *          the base16 encoded string
+   * @return the decoded string
+   */
+  public static String decodeToString(String base16Encoded) {
+
+    return new String(decode(base16Encoded));
+  }
+
+  /**
+   * encodes a byte array to its base16 representation
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray) {
+
+    return encode(byteArray, Base16Util.BASE16_CHARSET);
+  }
+
+  /**
+   * encodes a byte array to its base16 representation with the characterset
+   * supplied, i.E. {@link #BASE16_LOWER_CHARSET}
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param base16Charset
+   *          the characterset to use
+   * @return the base16 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, String base16Charset) {
+
+    return encode(byteArray, Alphabet.ofIgnoreCase(base16Charset));
+  }
+
+  /**
+   * encodes a byte array to its base16 representation with the alphabet
+   * supplied
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the base16 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = new byte[encodedLength(byteArray.length, 4)];
+    encodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * encodes a range of bytes to base16 into the supplied array. Nothing is
+   * allocated
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base16 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return encode(source, sourceOffset, length, destination, destinationOffset,
+        Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET));
+  }
+
+  /**
+   * encodes a range of bytes to base16 into the supplied array using the
+   * supplied alphabet
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base16 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, encodedLength(length, 4));
+
+    return encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffer into the destination
+   * buffer
+   *
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base16 characters to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer source, ByteBuffer destination) {
+
+    return encode(source, destination, Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET), 4,
+        true);
+  }
+
+  /**
+   * encodes a range of bytes into the destination array
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base16 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   */
+  static int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    short[] encodePairTable = alphabet.encodePairTable;
+    int end = sourceOffset + length;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+
+    // read 8 bytes at once, every byte is resolved to its two characters
+    // without branching on the nibbles
+    while (position <= end - 8) {
+      long word = (long) LONG_BIG_ENDIAN.get(source, position);
+      LONG_BIG_ENDIAN.set(destination, resultPosition, encodeWord((int) (word >>> 32), encodePairTable));
+      LONG_BIG_ENDIAN.set(destination, resultPosition + 8, encodeWord((int) word, encodePairTable));
+      position += 8;
+      resultPosition += 16;
+    }
+
+    while (position < end) {
+      short characters = encodePairTable[source[position++] & 0xFF];
+      destination[resultPosition++] = (byte) (characters >>> 8);
+      destination[resultPosition++] = (byte) characters;
+    }
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * converts 4 bytes to their 8 characters
+   */
+  private static long encodeWord(int fourBytes, short[] encodePairTable) {
+    return ((long) encodePairTable[fourBytes >>> 24] << 48)
+        | ((long) encodePairTable[(fourBytes >>> 16) & 0xFF] << 32)
+        | ((long) encodePairTable[(fourBytes >>> 8) & 0xFF] << 16)
+        | encodePairTable[fourBytes & 0xFF];
+  }
+
+  /**
+   * encodes a byte array to base16 and appends the characters to the supplied
+   * appendable, i.E. a {@link StringBuilder}
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the appendable to append the base16 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Appendable out) throws IOException {
+    encodeTo(byteArray, Base16Util.BASE16_CHARSET, out);
+  }
+
+  /**
+   * encodes a byte array to base16 using the supplied character set and
+   * appends the characters to the supplied appendable
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param base16Charset
+   *          the character set to use
+   * @param out
+   *          the appendable to append the base16 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, String base16Charset, Appendable out) throws IOException {
+    Alphabet alphabet = Alphabet.ofIgnoreCase(base16Charset);
+
+    encodeTo(byteArray, out, 4, (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+
+  /**
+   * encodes a byte array to base16 and writes the characters to the supplied
+   * writer
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the writer to write the base16 characters to
+   * @throws IOException
+   *           if the writer could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Writer out) throws IOException {
+    encodeTo(byteArray, Base16Util.BASE16_CHARSET, (Appendable) out);
+  }
+
+  /**
+   * encodes a byte array to a base16 encoded string
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded String
+   */
+  public static String encodeToString(byte[] byteArray) {
+
+    return new String(encode(byteArray), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * encodes a byte array to base16 using the supplied character set
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param base16Charset
+   *          the character set to use, i.E. {@link #BASE16_LOWER_CHARSET}
+   * @return the base16 encoded string
+   */
+  public static String encodeToString(byte[] byteArray, String base16Charset) {
+
+    return new String(encode(byteArray, base16Charset), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * encodes a string to base16
+   *
+   * @param toEncode
+   *          the string to encode
+   * @return the base16 encoded string
+   */
+  public static String encodeToString(String toEncode) {
+
+    return encodeToString(toEncode.getBytes());
+  }
+}
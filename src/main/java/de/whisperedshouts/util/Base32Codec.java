@@ -0,0 +1,98 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An immutable, thread safe base32 codec. The alphabet is fixed when the codec
+ * is created, padding and line wrapping can be changed by deriving a new
+ * codec, i.E. <code>Base32Codec.RFC4648.withPadding(false)</code> for TOTP
+ * secrets.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class Base32Codec extends AbstractBitCodec {
+  /**
+   * the base32 codec defined in RFC4648, padded and without line separators
+   */
+  public static final Base32Codec RFC4648   = new Base32Codec(Alphabet.of(Base32Util.BASE32_CHARSET), true, 0,
+      NO_LINE_SEPARATOR);
+  /**
+   * the base32hex codec defined in RFC4648, padded and without line separators
+   */
+  public static final Base32Codec HEX       = new Base32Codec(Alphabet.of(Base32Util.BASE32_HEX_CHARSET), true, 0,
+      NO_LINE_SEPARATOR);
+  /**
+   * Crockford's base32 codec, without padding. Decoding ignores case and
+   * hyphens and reads I and L as 1 and O as 0
+   */
+  public static final Base32Codec CROCKFORD = new Base32Codec(Alphabet.of(Base32Util.CROCKFORD_CHARSET), false, 0,
+      NO_LINE_SEPARATOR);
+  /**
+   * the z-base-32 codec, without padding. Decoding ignores case
+   */
+  public static final Base32Codec ZBASE32   = new Base32Codec(Alphabet.of(Base32Util.ZBASE32_CHARSET), false, 0,
+      NO_LINE_SEPARATOR);
+
+  private Base32Codec(Alphabet alphabet, boolean padding, int lineLength, byte[] lineSeparator) {
+    super(alphabet, 5, padding, lineLength, lineSeparator);
+  }
+
+  /**
+   * creates a padded codec without line separators for the supplied character
+   * set
+   *
+   * @param base32Charset
+   *          the 32 characters of the alphabet
+   * @return the codec
+   * @throws IllegalArgumentException
+   *           if the character set does not contain 32 distinct characters
+   */
+  public static Base32Codec of(String base32Charset) {
+
+    return new Base32Codec(Alphabet.of(base32Charset), true, 0, NO_LINE_SEPARATOR);
+  }
+
+  /**
+   * returns a codec that differs from this one in its padding only
+   *
+   * @param padding
+   *          whether the last quantum gets padded when encoding
+   * @return the codec
+   */
+  public Base32Codec withPadding(boolean padding) {
+
+    return new Base32Codec(alphabet, padding, lineLength, lineSeparator);
+  }
+
+  /**
+   * returns a codec that differs from this one in its line wrapping only
+   *
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          8. No line separators are included if it is less than 8
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return the codec
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  public Base32Codec withLineLength(int lineLength, String lineSeparator) {
+
+    return new Base32Codec(alphabet, padding, lineLength, AbstractBitUtil.getLineSeparatorBytes(lineSeparator));
+  }
+
+  @Override
+  int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base32Util.encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  @Override
+  int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      boolean strict) {
+
+    return Base32Util.decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, strict);
+  }
+}
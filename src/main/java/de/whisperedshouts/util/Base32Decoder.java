@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental base32 decoder. Complete quanta are decoded on every update,
+ * the characters of an incomplete quantum are kept until the next update or
+ * the final call. Whitespace is skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32Decoder extends AbstractBitDecoder {
+
+  /**
+   * creates a base32 decoder using the characterset defined in RFC3548
+   */
+  public Base32Decoder() {
+    this(Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * creates a base32 decoder using the supplied character set
+   *
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32Decoder(String base32Charset) {
+    super(Alphabet.of(base32Charset), 5);
+  }
+}
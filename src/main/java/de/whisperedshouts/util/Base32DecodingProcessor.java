@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that decodes base32 encoded chunks. Line separators are
+ * skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32DecodingProcessor extends AbstractBitDecodingProcessor {
+
+  /**
+   * creates a base32 decoding processor. The characterset defined in RFC3548
+   * is used
+   */
+  public Base32DecodingProcessor() {
+    this(Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * creates a base32 decoding processor using the supplied character set
+   *
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32DecodingProcessor(String base32Charset) {
+    super(Alphabet.of(base32Charset), 5);
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental base32 encoder. Complete quanta are encoded on every update,
+ * the bytes of an incomplete quantum are kept until the next update or the
+ * final call, which pads the last quantum.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32Encoder extends AbstractBitEncoder {
+
+  /**
+   * creates a base32 encoder using the characterset defined in RFC3548
+   */
+  public Base32Encoder() {
+    this(Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * creates a base32 encoder using the supplied character set
+   *
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32Encoder(String base32Charset) {
+    this(Alphabet.of(base32Charset));
+  }
+
+  private Base32Encoder(Alphabet alphabet) {
+    super(5, (source, sourceOffset, length, destination, destinationOffset) -> Base32Util.encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that base32 encodes the published chunks. Incomplete quanta are
+ * kept between chunks, the final quantum is padded when the upstream
+ * publisher completes.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32EncodingProcessor extends AbstractBitEncodingProcessor {
+
+  /**
+   * creates a base32 encoding processor. The characterset defined in RFC3548
+   * is used
+   */
+  public Base32EncodingProcessor() {
+    this(Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * creates a base32 encoding processor using the supplied character set
+   *
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32EncodingProcessor(String base32Charset) {
+    this(Alphabet.of(base32Charset));
+  }
+
+  private Base32EncodingProcessor(Alphabet alphabet) {
+    super(5, (source, sourceOffset, length, destination, destinationOffset) -> Base32Util.encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.InputStream;
+
+/**
+ * An input stream that decodes the base32 encoded data read from the
+ * underlying stream. Line separators are skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32InputStream extends AbstractBitInputStream {
+
+  /**
+   * creates a base32 decoding input stream. The characterset defined in
+   * RFC3548 is used
+   *
+   * @param in
+   *          the underlying input stream
+   */
+  public Base32InputStream(InputStream in) {
+    this(in, Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * creates a base32 decoding input stream using the supplied character set
+   *
+   * @param in
+   *          the underlying input stream
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32InputStream(InputStream in, String base32Charset) {
+    super(in, Alphabet.of(base32Charset), 5);
+  }
+}
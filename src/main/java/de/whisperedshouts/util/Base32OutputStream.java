@@ -0,0 +1,56 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that base32 encodes all data written to it. Incomplete
+ * quanta are kept between write calls, the final quantum is padded when the
+ * stream is closed.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base32OutputStream extends AbstractBitOutputStream {
+
+  /**
+   * creates a base32 encoding output stream. The characterset defined in
+   * RFC3548 is used
+   *
+   * @param out
+   *          the underlying output stream
+   */
+  public Base32OutputStream(OutputStream out) {
+    this(out, Base32Util.BASE32_CHARSET, false);
+  }
+
+  /**
+   * creates a base32 encoding output stream using the supplied character set
+   *
+   * @param out
+   *          the underlying output stream
+   * @param base32Charset
+   *          the character set to use
+   */
+  public Base32OutputStream(OutputStream out, String base32Charset) {
+    this(out, base32Charset, false);
+  }
+
+  /**
+   * creates a base32 encoding output stream using the supplied character set.
+   * Optionally includes a CRLF after every 72 characters, the whole quanta
+   * that fit into a MIME line of 76 characters
+   *
+   * @param out
+   *          the underlying output stream
+   * @param base32Charset
+   *          the character set to use
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 72 characters
+   */
+  public Base32OutputStream(OutputStream out, String base32Charset, boolean includeLinebreaks) {
+    super(out, Alphabet.of(base32Charset), 5, includeLinebreaks);
+  }
+}
@@ -3,7 +3,19 @@
  */
 package de.whisperedshouts.util;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * RFC 3548 beschreibt die Kodierung beliebiger Binärdaten wie folgt: 
@@ -27,6 +39,31 @@ public class Base32Util extends AbstractBitUtil {
    * the alternate base32HEX characterset that i.E. is used in DNSSEC
    */
   public static final String BASE32_HEX_CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUV";
+  /**
+   * the characterset of Douglas Crockford's base32, i.E. used for readable
+   * identifiers. Decoding ignores case and hyphens, I and L are read as 1 and
+   * O as 0
+   */
+  public static final String CROCKFORD_CHARSET  = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+  /**
+   * the characterset of z-base-32, i.E. used by Tahoe-LAFS. Decoding ignores
+   * case
+   */
+  public static final String ZBASE32_CHARSET    = "ybndrfg8ejkmcpqxot1uwisza345h769";
+  /**
+   * the five additional check symbols of Crockford's base32 for the values 32
+   * to 36
+   */
+  private static final String CROCKFORD_CHECK_SYMBOLS = "*~$=U";
+
+  private static final VarHandle LONG_BIG_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class,
+      ByteOrder.BIG_ENDIAN);
+  private static final VarHandle INT_BIG_ENDIAN  = MethodHandles.byteArrayViewVarHandle(int[].class,
+      ByteOrder.BIG_ENDIAN);
+  /**
+   * eight padding characters
+   */
+  private static final long      PADDING_WORD    = 0x3D3D3D3D3D3D3D3DL;
 
   /**
    * decodes a base32 encoded byte array. The characterset defined in RFC3548 is
@@ -37,7 +74,7 @@ public class Base32Util extends AbstractBitUtil {
    * @return the decoded byte array
    */
   public static byte[] decode(byte[] byteArray) {
-    return decode(byteArray, Base32Util.BASE32_CHARSET);
+    return Base32Codec.RFC4648.decode(byteArray);
   }
   
   /**
@@ -50,72 +87,421 @@ public class Base32Util extends AbstractBitUtil {
    * @return the decoded byte array
    */
   public static byte[] decode(byte[] byteArray, String base32Charset) {
-    byte[] tempArray = sanitizeArray(byteArray, 8);
-    byte[] result = new byte[tempArray.length];
-    int tempArrayPosition = 0;
-    int resultArrayPosition = 0;
-
-    while (tempArrayPosition < tempArray.length) {
-      long number = 0;
-      int[] resolvedBase32Chars = new int[8];
-      int paddingCharacters = 0;
-      for (int i = 0; i < 8; i++) {
-        byte b = tempArray[tempArrayPosition++];
-        resolvedBase32Chars[i] = base32Charset.indexOf(b);
-        if ((char) b == '=') {
+    
+    return decode(byteArray, Alphabet.of(base32Charset));
+  }
+
+  /**
+   * decodes a base32 encoded byte array with the alphabet supplied
+   * 
+   * @param byteArray
+   *          the byte array to decode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(byteArray, 0, byteArray.length, alphabet, 5)];
+    int written = decodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * returns the amount of base32 characters the encoding of length bytes
+   * takes, including padding
+   * 
+   * @param length
+   *          the amount of bytes to encode
+   * @return the amount of base32 characters
+   */
+  public static int encodedLength(int length) {
+
+    return encodedLength(length, 5);
+  }
+
+  /**
+   * returns the exact amount of bytes a range of base32 characters decodes to.
+   * Whitespace is not counted and a missing padding is tolerated
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return the amount of decoded bytes
+   */
+  public static int decodedLength(byte[] source, int offset, int length) {
+
+    return Base32Codec.RFC4648.decodedLength(source, offset, length);
+  }
+
+  /**
+   * decodes a range of base32 characters into the supplied array using the
+   * character set defined in RFC3548. Whitespace is skipped, a missing
+   * padding is tolerated. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base32Codec.RFC4648.decode(source, sourceOffset, length, destination, destinationOffset);
+  }
+
+  /**
+   * decodes a range of base32 characters into the supplied array using the
+   * supplied alphabet. Whitespace is skipped, a missing padding is tolerated
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkDecodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, 5);
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * decodes the base32 characters remaining in the source buffer into the
+   * destination buffer. The characterset defined in RFC3548 is used, the
+   * source is treated as the end of the input
+   * 
+   * @param source
+   *          the buffer to read the base32 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination) {
+
+    return decode(source, destination, Base32Util.BASE32_CHARSET, true);
+  }
+
+  /**
+   * decodes the base32 characters remaining in the source buffer into the
+   * destination buffer using the supplied character set. Unless endOfInput is
+   * set, an incomplete quantum at the end of the source is not consumed
+   * 
+   * @param source
+   *          the buffer to read the base32 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param base32Charset
+   *          the character set to use
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination, String base32Charset,
+      boolean endOfInput) {
+
+    return decode(source, destination, Alphabet.of(base32Charset), 5, endOfInput);
+  }
+
+  /**
+   * decodes the base32 characters remaining in the source buffers into the
+   * destination buffer using the supplied character set. Quanta may span
+   * several source buffers
+   * 
+   * @param sources
+   *          the buffers to read the base32 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param base32Charset
+   *          the character set to use
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer[] sources, ByteBuffer destination, String base32Charset,
+      boolean endOfInput) {
+
+    return decode(sources, destination, Alphabet.of(base32Charset), 5, endOfInput);
+  }
+
+  /**
+   * decodes a base32 encoded byte array in parallel. The characterset defined
+   * in RFC3548 is used. Chunks of {@link #DEFAULT_PARALLEL_THRESHOLD} bytes
+   * are decoded on the common {@link ForkJoinPool}
+   * 
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decodeParallel(byte[] byteArray) {
+
+    return decodeParallel(byteArray, Base32Util.BASE32_CHARSET, DEFAULT_PARALLEL_THRESHOLD,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * decodes a base32 encoded byte array in parallel. The input is split on
+   * line boundaries into chunks of about threshold bytes
+   * 
+   * @param byteArray
+   *          the byte array to decode
+   * @param base32Charset
+   *          the character set to use
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to decode the chunks on
+   * @return the decoded byte array
+   */
+  public static byte[] decodeParallel(byte[] byteArray, String base32Charset, int threshold, ForkJoinPool pool) {
+    Alphabet alphabet = Alphabet.of(base32Charset);
+    if (alphabet.hasSkippedCharacters()) {
+      // the chunks are sized by counting whitespace only
+      return decode(byteArray, alphabet);
+    }
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = ParallelCodec.decode(byteArray, 5, threshold, pool,
+        (source, sourceOffset, length, destination, destinationOffset) -> decodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * decodes a batch of base32 encoded items using the characterset defined in
+   * RFC3548. The items are decoded on virtual threads if available, see
+   * {@link #decodeAll(List, String, Executor)}
+   * 
+   * @param encoded
+   *          the base32 items to decode
+   * @return the decoded byte arrays in input order
+   */
+  public static BatchResult<byte[]> decodeAll(List<? extends CharSequence> encoded) {
+
+    return decodeAll(encoded, Base32Util.BASE32_CHARSET, BatchCodec.defaultExecutor());
+  }
+
+  /**
+   * decodes a batch of base32 encoded items. The alphabet is resolved once for
+   * the whole batch, tasks of 512 items run on the supplied executor, smaller
+   * batches are decoded on the calling thread. Whitespace is skipped and a
+   * missing padding is tolerated, an item containing invalid characters fails
+   * with an {@link IllegalArgumentException} without affecting the other items
+   * 
+   * @param encoded
+   *          the base32 items to decode
+   * @param base32Charset
+   *          the character set to use
+   * @param executor
+   *          the executor to decode the items on
+   * @return the decoded byte arrays in input order
+   */
+  public static BatchResult<byte[]> decodeAll(List<? extends CharSequence> encoded, String base32Charset,
+      Executor executor) {
+
+    return BatchCodec.decode(encoded, Alphabet.of(base32Charset), 5, executor);
+  }
+
+  /**
+   * decodes a range of base32 characters into the destination array.
+   * Whitespace is skipped, a missing padding at the end of the range is
+   * tolerated
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, false);
+  }
+
+  /**
+   * decodes a range of base32 characters into the destination array in one
+   * pass. Whitespace is skipped. In strict mode invalid characters, misplaced
+   * padding and an incomplete last quantum are rejected, otherwise invalid
+   * characters decode to garbage
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @param strict
+   *          whether to reject invalid input
+   * @return the amount of bytes written
+   * @throws IllegalArgumentException
+   *           if strict and the input is invalid, naming the offset of the
+   *           first bad character
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet, boolean strict) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int end = sourceOffset + length;
+    int resultPosition = destinationOffset;
+    long number = 0;
+    int characters = 0;
+    int paddingCharacters = 0;
+    for (int position = sourceOffset; position < end; position++) {
+      if (characters == 0) {
+        // complete quanta of alphabet characters are decoded 8 characters at
+        // once, until whitespace, padding or an invalid character shows up
+        while (position <= end - 8) {
+          int c0 = decodeTable[source[position] & 0xFF];
+          int c1 = decodeTable[source[position + 1] & 0xFF];
+          int c2 = decodeTable[source[position + 2] & 0xFF];
+          int c3 = decodeTable[source[position + 3] & 0xFF];
+          int c4 = decodeTable[source[position + 4] & 0xFF];
+          int c5 = decodeTable[source[position + 5] & 0xFF];
+          int c6 = decodeTable[source[position + 6] & 0xFF];
+          int c7 = decodeTable[source[position + 7] & 0xFF];
+          if ((c0 | c1 | c2 | c3 | c4 | c5 | c6 | c7) < 0) {
+            break;
+          }
+          long fourtyBits = ((long) c0 << 35) | ((long) c1 << 30) | ((long) c2 << 25) | ((long) c3 << 20)
+              | (c4 << 15) | (c5 << 10) | (c6 << 5) | c7;
+          INT_BIG_ENDIAN.set(destination, resultPosition, (int) (fourtyBits >>> 8));
+          destination[resultPosition + 4] = (byte) fourtyBits;
+          position += 8;
+          resultPosition += 5;
+        }
+        if (position == end) {
+          break;
+        }
+      }
+
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved < 0) {
+        if (resolved == Alphabet.PADDING) {
+          if (strict && paddingCharacters == 0) {
+            checkPadding(indexOfInvalidPadding(source, position, end, decodeTable, characters, 5));
+          }
           paddingCharacters++;
+          resolved = 0;
+        } else if (resolved == Alphabet.SKIP || isWhitespace(b)) {
+          continue;
+        } else if (strict) {
+          throw invalidCharacter(position);
         }
+      }
+      // only the first 5 bits are of interest
+      number = (number << 5) | (resolved & 0x1F);
 
-        // only the first 5 bits are of interest
-        number += resolvedBase32Chars[i] & 0x1F;
-        // if we are not the last byte of the queue, shift the number 5 bits to
-        // the left
-        if (i != 7) {
-          number <<= 5;
+      if (++characters == 8) {
+        // create the original bytes out of the 40bit number
+        int payloadBytes = (8 - paddingCharacters) * 5 / 8;
+        for (int i = 0; i < payloadBytes; i++) {
+          destination[resultPosition++] = (byte) (number >> (32 - i * 8));
         }
+        number = 0;
+        characters = 0;
+        paddingCharacters = 0;
       }
+    }
 
-      // create the 8 original bytes out of the 40bit number
-      long b1 = (long) (number >> 32) & 0xFF;
-      long b2 = (long) (number >> 24) & 0xFF;
-      long b3 = (long) (number >> 16) & 0xFF;
-      long b4 = (long) (number >>  8) & 0xFF;
-      long b5 = (long) (number >>  0) & 0xFF;
-
-      switch (paddingCharacters) {
-        case 0:
-          result[resultArrayPosition++] = (byte) b1;
-          result[resultArrayPosition++] = (byte) b2;
-          result[resultArrayPosition++] = (byte) b3;
-          result[resultArrayPosition++] = (byte) b4;
-          result[resultArrayPosition++] = (byte) b5;
-          break;
-        case 1:
-          result[resultArrayPosition++] = (byte) b1;
-          result[resultArrayPosition++] = (byte) b2;
-          result[resultArrayPosition++] = (byte) b3;
-          result[resultArrayPosition++] = (byte) b4;
-          break;
-        case 3:
-          result[resultArrayPosition++] = (byte) b1;
-          result[resultArrayPosition++] = (byte) b2;
-          result[resultArrayPosition++] = (byte) b3;
-          break;
-        case 4:
-          result[resultArrayPosition++] = (byte) b1;
-          result[resultArrayPosition++] = (byte) b2;
-          break;
-        case 6:
-          result[resultArrayPosition++] = (byte) b1;
-          break;
+    // a missing padding at the end of the range is treated like padding
+    if (characters > 0) {
+      if (strict) {
+        checkRemainder(characters, end, 5);
+      }
+      number <<= (8 - characters) * 5;
+      int payloadBytes = (characters - paddingCharacters) * 5 / 8;
+      for (int i = 0; i < payloadBytes; i++) {
+        destination[resultPosition++] = (byte) (number >> (32 - i * 8));
       }
     }
 
-    result = Arrays.copyOf(result, resultArrayPosition);
+    return resultPosition - destinationOffset;
+  }
 
-    return result;
+  /**
+   * decodes a base32 encoded file. The characterset defined in RFC3548 is
+   * used. The input is memory mapped window by window, line separators are
+   * skipped
+   * 
+   * @param in
+   *          the file to decode
+   * @param out
+   *          the file to write the decoded bytes to
+   * @throws IOException
+   *           if a file could not be read or written or the input contains
+   *           invalid characters
+   */
+  public static void decodeFile(Path in, Path out) throws IOException {
+    decodeFile(in, out, Base32Util.BASE32_CHARSET);
+  }
+
+  /**
+   * decodes a base32 encoded file using the supplied character set. The input
+   * is memory mapped window by window, line separators are skipped
+   * 
+   * @param in
+   *          the file to decode
+   * @param out
+   *          the file to write the decoded bytes to
+   * @param base32Charset
+   *          the character set to use
+   * @throws IOException
+   *           if a file could not be read or written or the input contains
+   *           invalid characters
+   */
+  public static void decodeFile(Path in, Path out, String base32Charset) throws IOException {
+    MappedFileCodec.decode(in, out, Base32Codec.of(base32Charset));
   }
-  
 
   /**
    * decodes a base32 encoded string. The characterset defined in RFC3548 is
@@ -126,7 +512,7 @@ public class Base32Util extends AbstractBitUtil {
    * @return the decoded byte array
    */
   public static byte[] decode(String base32Encoded) {
-    return decode(base32Encoded.getBytes(), Base32Util.BASE32_CHARSET);
+    return Base32Codec.RFC4648.decode(base32Encoded);
   }
 
   /**
@@ -136,7 +522,111 @@ public class Base32Util extends AbstractBitUtil {
    * @return the decoded byte array
    */
   public static byte[] decode(String base32Encoded, String characterSet) {
-    return decode(base32Encoded.getBytes(), characterSet);
+    return decode((CharSequence) base32Encoded, characterSet);
+  }
+
+  /**
+   * decodes base32 characters. The characterset defined in RFC3548 is used.
+   * The characters are read directly, without converting them to bytes first
+   * 
+   * @param base32Encoded
+   *          the base32 characters to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base32Encoded) {
+
+    return Base32Codec.RFC4648.decode(base32Encoded);
+  }
+
+  /**
+   * decodes base32 characters using the supplied character set. The
+   * characters are read directly, without converting them to bytes first.
+   * Whitespace is skipped, a missing padding is tolerated
+   * 
+   * @param base32Encoded
+   *          the base32 characters to decode
+   * @param base32Charset
+   *          the character set to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base32Encoded, String base32Charset) {
+    Alphabet alphabet = Alphabet.of(base32Charset);
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(base32Encoded, alphabet, 5)];
+    int written = decodeCharacters(base32Encoded, result, alphabet, 5);
+    CodecMetrics.end(event, alphabet, base32Encoded.length(), written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes a base32 encoded byte array using the characterset defined in
+   * RFC3548, rejecting invalid input in the same pass instead of decoding it to
+   * garbage
+   * 
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character, misplaced padding
+   *           or an incomplete last quantum, naming the offset of the first
+   *           bad character
+   */
+  public static byte[] decodeStrict(byte[] byteArray) {
+
+    return Base32Codec.RFC4648.decodeStrict(byteArray);
+  }
+
+  /**
+   * decodes base32 characters using the characterset defined in RFC3548,
+   * rejecting invalid input in the same pass. See {@link #decodeStrict(byte[])}
+   * 
+   * @param base32Encoded
+   *          the base32 characters to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input is invalid, naming the offset of the first bad
+   *           character
+   */
+  public static byte[] decodeStrict(CharSequence base32Encoded) {
+
+    return Base32Codec.RFC4648.decodeStrict(base32Encoded);
+  }
+
+  /**
+   * returns whether a range of base32 characters is valid using the
+   * characterset defined in RFC3548, without decoding it. Alphabet membership,
+   * the position of the padding and the length of the last quantum are checked
+   * 8 characters at a time. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the base32 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return true if {@link #decodeStrict(byte[])} would accept the range
+   * @throws IndexOutOfBoundsException
+   *           if the range does not lie within the array
+   */
+  public static boolean isValid(byte[] source, int offset, int length) {
+
+    return Base32Codec.RFC4648.isValid(source, offset, length);
+  }
+
+  /**
+   * returns whether a sequence of base32 characters is valid using the
+   * characterset defined in RFC3548, without decoding it. Nothing is allocated
+   * 
+   * @param base32Encoded
+   *          the base32 characters to check
+   * @return true if {@link #decodeStrict(CharSequence)} would accept the
+   *         sequence
+   */
+  public static boolean isValid(CharSequence base32Encoded) {
+
+    return Base32Codec.RFC4648.isValid(base32Encoded);
   }
 
   /**
@@ -148,7 +638,7 @@ public class Base32Util extends AbstractBitUtil {
    * @return the encoded byte array
    */
   public static byte[] encode(byte[] byteArray) {
-    return encode(byteArray, Base32Util.BASE32_CHARSET);
+    return Base32Codec.RFC4648.encode(byteArray);
   }
 
   /**
@@ -162,87 +652,452 @@ public class Base32Util extends AbstractBitUtil {
    * @return the base32 encoded byte array
    */
   public static byte[] encode(byte[] byteArray, String base32Charset) {
-    int paddedSize = byteArray.length % 5;
-
-    byte[] resultArray = null;
-    byte[] tempArray = null;
-    if (paddedSize != 0) {
-      tempArray = Arrays.copyOf(byteArray, byteArray.length + (5 - paddedSize));
-    } else {
-      tempArray = Arrays.copyOf(byteArray, byteArray.length);
-    }
 
-    resultArray = new byte[(tempArray.length / 5) * 8];
-    int tempArrayPosition = 0;
-    int resultArrayPosition = 0;
-
-    while (tempArrayPosition < tempArray.length) {
-      // generate a 40bit representation of the first 5 byte
-      // take first byte
-      long fourtyBytes = tempArray[tempArrayPosition++] & 0xFF;
-      // shift 8 bits to the left
-      fourtyBytes <<= 8;
-      // take second byte
-      fourtyBytes += tempArray[tempArrayPosition++] & 0xFF;
-      // shift 8 bits to the left
-      fourtyBytes <<= 8;
-      // take third byte
-      fourtyBytes += tempArray[tempArrayPosition++] & 0xFF;
-      // shift 8 bits to the left
-      fourtyBytes <<= 8;
-      // take forth byte
-      fourtyBytes += tempArray[tempArrayPosition++] & 0xFF;
-      // shift 8 bits to the left
-      fourtyBytes <<= 8;
-      // take fifth byte
-      fourtyBytes += tempArray[tempArrayPosition++] & 0xFF;
-
-      // convert to 8 base32 characters
-      for (int i = 0; i < 8; i++) {
-        // how much to shift
-        int shift = 35 - (i * 5);
-
-        int n1 = (int) (fourtyBytes >> shift) & 0x1F;
-        resultArray[resultArrayPosition++] = (byte) base32Charset.charAt(n1);
+    return encode(byteArray, Alphabet.of(base32Charset));
+  }
 
-      }
+  /**
+   * encodes a byte array to its base32 representation with the alphabet
+   * supplied
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the base32 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = new byte[encodedLength(byteArray.length, 5)];
+    encodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  
+  /**
+   * encodes a file to base32. The characterset defined in RFC3548 is used.
+   * The input is memory mapped window by window
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base32 characters to
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  public static void encodeFile(Path in, Path out) throws IOException {
+    encodeFile(in, out, Base32Util.BASE32_CHARSET, false);
+  }
+
+  /**
+   * encodes a file to base32 using the supplied character set. The input is
+   * memory mapped window by window. Optionally includes a CRLF after every 72
+   * characters, the whole quanta that fit into a MIME line of 76 characters
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base32 characters to
+   * @param base32Charset
+   *          the character set to use
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 72 characters
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  public static void encodeFile(Path in, Path out, String base32Charset, boolean includeLinebreaks)
+      throws IOException {
+    encodeFile(in, out, base32Charset, includeLinebreaks ? MIME_LINE_LENGTH : 0, MIME_LINE_SEPARATOR);
+  }
+
+  /**
+   * encodes a file to base32 using the supplied character set, wrapping the
+   * lines after lineLength characters. The input is memory mapped window by
+   * window
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base32 characters to
+   * @param base32Charset
+   *          the character set to use
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          8. No line separators are included if it is less than 8
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @throws IOException
+   *           if a file could not be read or written
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  public static void encodeFile(Path in, Path out, String base32Charset, int lineLength, String lineSeparator)
+      throws IOException {
+    MappedFileCodec.encode(in, out, Base32Codec.of(base32Charset).withLineLength(lineLength, lineSeparator));
+  }
+
+  /**
+   * encodes a byte array to base32 in parallel. The characterset defined in
+   * RFC3548 is used. Chunks of {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are
+   * encoded on the common {@link ForkJoinPool}
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded byte array
+   */
+  public static byte[] encodeParallel(byte[] byteArray) {
+
+    return encodeParallel(byteArray, Base32Util.BASE32_CHARSET, DEFAULT_PARALLEL_THRESHOLD,
+        ForkJoinPool.commonPool());
+  }
+
+  /**
+   * encodes a byte array to base32 in parallel. The input is split at 5 byte
+   * boundaries into chunks of about threshold bytes, each chunk is encoded
+   * straight into its region of the result
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param base32Charset
+   *          the character set to use
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to encode the chunks on
+   * @return the base32 encoded byte array
+   */
+  public static byte[] encodeParallel(byte[] byteArray, String base32Charset, int threshold, ForkJoinPool pool) {
+    Alphabet alphabet = Alphabet.of(base32Charset);
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = ParallelCodec.encode(byteArray, 5, threshold, pool,
+        (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * encodes a batch of byte arrays to base32 strings using the characterset
+   * defined in RFC3548. The items are encoded on virtual threads if available,
+   * see {@link #encodeAll(List, String, Executor)}
+   * 
+   * @param byteArrays
+   *          the byte arrays to encode
+   * @return the base32 strings in input order
+   */
+  public static BatchResult<String> encodeAll(List<byte[]> byteArrays) {
+
+    return encodeAll(byteArrays, Base32Util.BASE32_CHARSET, BatchCodec.defaultExecutor());
+  }
+
+  /**
+   * encodes a batch of byte arrays to base32 strings. The alphabet is resolved
+   * once for the whole batch and every task encodes through a single scratch
+   * array, tasks of 512 items run on the supplied executor, smaller batches
+   * are encoded on the calling thread. A failing item (i.E. null) does not
+   * affect the other items
+   * 
+   * @param byteArrays
+   *          the byte arrays to encode
+   * @param base32Charset
+   *          the character set to use
+   * @param executor
+   *          the executor to encode the items on
+   * @return the base32 strings in input order
+   */
+  public static BatchResult<String> encodeAll(List<byte[]> byteArrays, String base32Charset, Executor executor) {
+    Alphabet alphabet = Alphabet.of(base32Charset);
+
+    return BatchCodec.encode(byteArrays, 5, executor,
+        (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+  }
+
+  /**
+   * encodes a range of bytes into the destination array. If the length is not
+   * a multiple of 5, the last quantum gets padded
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base32 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   */
+  static int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    short[] encodePairTable = alphabet.encodePairTable;
+    int end = sourceOffset + length;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+
+    if (VectorCodec.AVAILABLE && length >= Base64Util.VECTOR_THRESHOLD) {
+      int encoded = VectorCodec.encodeBase32(source, position, length - length % 5, destination, resultPosition,
+          alphabet);
+      position += encoded;
+      resultPosition += encoded / 5 * 8;
     }
 
-    // properly pad the last bytes
-    switch (paddedSize) {
-      case 1:
-        for (int i = 1; i <= 6; i++) {
-          resultArray[resultArray.length - i] = (byte) '=';
-        }
-        break;
-      case 2:
-        for (int i = 1; i <= 4; i++) {
-          resultArray[resultArray.length - i] = (byte) '=';
-        }
-        break;
-      case 3:
-        for (int i = 1; i <= 3; i++) {
-          resultArray[resultArray.length - i] = (byte) '=';
-        }
-        break;
-      case 4:
-        for (int i = 1; i <= 1; i++) {
-          resultArray[resultArray.length - i] = (byte) '=';
-        }
-        break;
-      default:
-        break;
+    // read 8 bytes at once, of which the upper 5 bytes become 8 characters
+    int wordEnd = end - 8;
+    while (position <= wordEnd) {
+      long fourtyBits = (long) LONG_BIG_ENDIAN.get(source, position) >>> 24;
+      LONG_BIG_ENDIAN.set(destination, resultPosition, encodeQuantum(fourtyBits, encodePairTable));
+      position += 5;
+      resultPosition += 8;
+    }
+
+    // the last complete quanta, that can not be read as a word
+    while (end - position >= 5) {
+      long fourtyBits = ((long) (source[position] & 0xFF) << 32)
+          | ((int) INT_BIG_ENDIAN.get(source, position + 1) & 0xFFFFFFFFL);
+      LONG_BIG_ENDIAN.set(destination, resultPosition, encodeQuantum(fourtyBits, encodePairTable));
+      position += 5;
+      resultPosition += 8;
     }
-    if (paddedSize > 0) {
-      int padWidth = 5 - paddedSize;
-      for (int i = 1; i <= padWidth; i++) {
-        resultArray[resultArray.length - i] = (byte) '=';
+
+    // the incomplete last quantum, missing bytes are zero
+    int remaining = end - position;
+    if (remaining > 0) {
+      long fourtyBits = 0;
+      for (int i = 0; i < remaining; i++) {
+        fourtyBits |= (long) (source[position + i] & 0xFF) << (32 - i * 8);
       }
+
+      // characters without payload bits are replaced by padding, without
+      // branching on the amount of padding
+      long characters = encodeQuantum(fourtyBits, encodePairTable);
+      long paddingMask = -1L >>> ((remaining * 8 + 4) / 5 * 8);
+      characters = (characters & ~paddingMask) | (PADDING_WORD & paddingMask);
+      LONG_BIG_ENDIAN.set(destination, resultPosition, characters);
+      resultPosition += 8;
     }
 
-    return resultArray;
+    return resultPosition - destinationOffset;
   }
-  
+
+  /**
+   * converts a 40 bit quantum to its 8 characters, every 10 bit are resolved
+   * to two characters at once
+   */
+  private static long encodeQuantum(long fourtyBits, short[] encodePairTable) {
+    return ((long) encodePairTable[(int) (fourtyBits >>> 30)] << 48)
+        | ((long) encodePairTable[(int) (fourtyBits >>> 20) & 0x3FF] << 32)
+        | ((long) encodePairTable[(int) (fourtyBits >>> 10) & 0x3FF] << 16)
+        | encodePairTable[(int) fourtyBits & 0x3FF];
+  }
+
+  /**
+   * encodes a range of bytes to base32 into the supplied array using the
+   * character set defined in RFC3548. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base32 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base32Codec.RFC4648.encode(source, sourceOffset, length, destination, destinationOffset);
+  }
+
+  /**
+   * encodes a range of bytes to base32 into the supplied array using the
+   * supplied alphabet
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base32 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, encodedLength(length, 5));
+
+    return encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * encodes a byte array to base32 and appends the characters to the
+   * supplied appendable, i.E. a {@link StringBuilder}. The characterset
+   * defined in RFC3548 is used. The input is encoded chunk by chunk, so
+   * neither the complete encoded array nor a string is built
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the appendable to append the base32 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Appendable out) throws IOException {
+    encodeTo(byteArray, Base32Util.BASE32_CHARSET, out);
+  }
+
+  /**
+   * encodes a byte array to base32 using the supplied character set and
+   * appends the characters to the supplied appendable
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param base32Charset
+   *          the character set to use
+   * @param out
+   *          the appendable to append the base32 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, String base32Charset, Appendable out) throws IOException {
+    Alphabet alphabet = Alphabet.of(base32Charset);
+
+    encodeTo(byteArray, out, 5, (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+
+  /**
+   * encodes a byte array to base32 and writes the characters to the supplied
+   * writer. The characterset defined in RFC3548 is used
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the writer to write the base32 characters to
+   * @throws IOException
+   *           if the writer could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Writer out) throws IOException {
+    encodeTo(byteArray, Base32Util.BASE32_CHARSET, (Appendable) out);
+  }
+
+  /**
+   * encodes a byte array to base32 using the supplied character set and
+   * writes the characters to the supplied writer
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param base32Charset
+   *          the character set to use
+   * @param out
+   *          the writer to write the base32 characters to
+   * @throws IOException
+   *           if the writer could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, String base32Charset, Writer out) throws IOException {
+    encodeTo(byteArray, base32Charset, (Appendable) out);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffer into the destination
+   * buffer. The characterset defined in RFC3548 is used, the source is
+   * treated as the end of the input, so the last quantum gets padded
+   * 
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base32 characters to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer source, ByteBuffer destination) {
+
+    return encode(source, destination, Base32Util.BASE32_CHARSET, true);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffer into the destination
+   * buffer using the supplied character set. Unless endOfInput is set, an
+   * incomplete quantum at the end of the source is not consumed
+   * 
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base32 characters to
+   * @param base32Charset
+   *          the character set to use
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer source, ByteBuffer destination, String base32Charset,
+      boolean endOfInput) {
+
+    return encode(source, destination, Alphabet.of(base32Charset), 5, endOfInput);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffers into the destination
+   * buffer. The characterset defined in RFC3548 is used, the buffers are
+   * encoded as one consecutive input and the last quantum gets padded
+   * 
+   * @param sources
+   *          the buffers to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base32 characters to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination) {
+
+    return encode(sources, destination, Base32Util.BASE32_CHARSET, true);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffers into the destination
+   * buffer using the supplied character set. The buffers are encoded as one
+   * consecutive input, quanta may span several source buffers
+   * 
+   * @param sources
+   *          the buffers to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base32 characters to
+   * @param base32Charset
+   *          the character set to use
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination, String base32Charset,
+      boolean endOfInput) {
+
+    return encode(sources, destination, Alphabet.of(base32Charset), 5, endOfInput);
+  }
+
   /**
    * encodes a byte array to a base32 encoded string
    * @param byteArray the byte array to encode
@@ -250,7 +1105,7 @@ public class Base32Util extends AbstractBitUtil {
    */
   public static String encodeToString(byte[] byteArray) {
     
-    return new String(encode(byteArray));
+    return Base32Codec.RFC4648.encodeToString(byteArray);
   }
   
   /**
@@ -261,7 +1116,7 @@ public class Base32Util extends AbstractBitUtil {
    */
   public static String encodeToString(byte[] byteArray, String characterSet) {
     
-    return new String(encode(byteArray, characterSet));
+    return new String(encode(byteArray, characterSet), StandardCharsets.ISO_8859_1);
   }
   
   /**
@@ -271,7 +1126,7 @@ public class Base32Util extends AbstractBitUtil {
    */
   public static String encodeToString(String toEncode) {
     
-    return new String(encode(toEncode.getBytes()));
+    return encodeToString(toEncode.getBytes());
   }
 
   /**
@@ -282,6 +1137,103 @@ public class Base32Util extends AbstractBitUtil {
    */
   public static String encodeToString(String toEncode, String characterSet) {
     
-    return new String(encode(toEncode.getBytes(), characterSet));
+    return encodeToString(toEncode.getBytes(), characterSet);
+  }
+
+  /**
+   * encodes a byte array to Crockford's base32 without padding, optionally
+   * followed by the check symbol. The check symbol is the value of the encoded
+   * characters, read as one base32 number, modulo 37
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param withCheckSymbol
+   *          whether to append the check symbol
+   * @return the encoded string
+   */
+  public static String encodeCrockford(byte[] byteArray, boolean withCheckSymbol) {
+    String encoded = Base32Codec.CROCKFORD.encodeToString(byteArray);
+    if (!withCheckSymbol) {
+      return encoded;
+    }
+
+    byte[] decodeTable = Base32Codec.CROCKFORD.alphabet.decodeTable;
+    int checkValue = 0;
+    for (int i = 0; i < encoded.length(); i++) {
+      checkValue = (checkValue * 32 + decodeTable[encoded.charAt(i)]) % 37;
+    }
+
+    return encoded + getCrockfordSymbol(checkValue);
+  }
+
+  /**
+   * decodes Crockford's base32. Case, hyphens and whitespace are ignored, I
+   * and L are read as 1 and O as 0
+   * 
+   * @param encoded
+   *          the encoded characters
+   * @param withCheckSymbol
+   *          whether the last character is a check symbol that has to match
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or the check symbol
+   *           does not match
+   */
+  public static byte[] decodeCrockford(CharSequence encoded, boolean withCheckSymbol) {
+    byte[] decodeTable = Base32Codec.CROCKFORD.alphabet.decodeTable;
+    int end = encoded.length();
+    if (withCheckSymbol) {
+      while (end > 0 && isSkipped(encoded.charAt(end - 1), decodeTable)) {
+        end--;
+      }
+      if (end == 0) {
+        throw new IllegalArgumentException("missing check symbol");
+      }
+      end--;
+    }
+
+    // the lenient decoder would skip unmapped characters
+    int checkValue = 0;
+    for (int i = 0; i < end; i++) {
+      char c = encoded.charAt(i);
+      if (isSkipped(c, decodeTable)) {
+        continue;
+      }
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved < 0) {
+        throw new IllegalArgumentException("invalid character at offset " + i);
+      }
+      checkValue = (checkValue * 32 + resolved) % 37;
+    }
+    if (!withCheckSymbol) {
+      return Base32Codec.CROCKFORD.decode(encoded);
+    }
+    if (checkValue != getCrockfordValue(encoded.charAt(end), decodeTable)) {
+      throw new IllegalArgumentException("check symbol does not match");
+    }
+
+    return Base32Codec.CROCKFORD.decode(encoded.subSequence(0, end));
+  }
+
+  private static boolean isSkipped(char c, byte[] decodeTable) {
+
+    return c < 256 && (decodeTable[c] == Alphabet.SKIP || isWhitespace((byte) c));
+  }
+
+  private static char getCrockfordSymbol(int value) {
+
+    return value < 32 ? CROCKFORD_CHARSET.charAt(value) : CROCKFORD_CHECK_SYMBOLS.charAt(value - 32);
+  }
+
+  private static int getCrockfordValue(char symbol, byte[] decodeTable) {
+    if (symbol < 256 && decodeTable[symbol] >= 0) {
+      return decodeTable[symbol];
+    }
+    int index = CROCKFORD_CHECK_SYMBOLS.indexOf(Character.toUpperCase(symbol));
+    if (index < 0) {
+      throw new IllegalArgumentException("invalid check symbol " + symbol);
+    }
+
+    return 32 + index;
   }
 }
@@ -0,0 +1,101 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An immutable, thread safe base64 codec. Unlike the static character sets of
+ * {@link Base64Util} and {@link Base64UrlUtil}, the alphabet of a codec can
+ * not be changed after it was created, i.E.
+ * <code>Base64Codec.URL_SAFE.withPadding(false).encodeToString(data)</code>
+ * always encodes base64url.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class Base64Codec extends AbstractBitCodec {
+  /**
+   * the standard base64 codec, padded and without line separators
+   */
+  public static final Base64Codec STANDARD = new Base64Codec(Alphabet.of(Base64Util.CHARACTERSET), true, 0,
+      NO_LINE_SEPARATOR);
+  /**
+   * the base64url codec, padded and without line separators
+   */
+  public static final Base64Codec URL_SAFE = new Base64Codec(Alphabet.of(Base64UrlUtil.CHARACTERSET), true, 0,
+      NO_LINE_SEPARATOR);
+  /**
+   * the MIME codec, padded with a CRLF after every
+   * {@link AbstractBitUtil#MIME_LINE_LENGTH} characters
+   */
+  public static final Base64Codec MIME     = new Base64Codec(Alphabet.of(Base64Util.CHARACTERSET), true,
+      AbstractBitUtil.MIME_LINE_LENGTH, CRLF);
+
+  private Base64Codec(Alphabet alphabet, boolean padding, int lineLength, byte[] lineSeparator) {
+    super(alphabet, 6, padding, lineLength, lineSeparator);
+  }
+
+  /**
+   * creates a padded codec without line separators for the supplied character
+   * set
+   *
+   * @param characterSet
+   *          the 64 characters of the alphabet
+   * @return the codec
+   * @throws IllegalArgumentException
+   *           if the character set does not contain 64 distinct characters
+   */
+  public static Base64Codec of(String characterSet) {
+
+    return new Base64Codec(Alphabet.of(characterSet), true, 0, NO_LINE_SEPARATOR);
+  }
+
+  /**
+   * returns a codec that differs from this one in its padding only
+   *
+   * @param padding
+   *          whether the last quantum gets padded when encoding
+   * @return the codec
+   */
+  public Base64Codec withPadding(boolean padding) {
+
+    return new Base64Codec(alphabet, padding, lineLength, lineSeparator);
+  }
+
+  /**
+   * returns a codec that differs from this one in its line wrapping only
+   *
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return the codec
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  public Base64Codec withLineLength(int lineLength, String lineSeparator) {
+
+    return new Base64Codec(alphabet, padding, lineLength, AbstractBitUtil.getLineSeparatorBytes(lineSeparator));
+  }
+
+  @Override
+  int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base64Util.encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  @Override
+  int encodeLines(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base64Util.encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, lineLength,
+        lineSeparator);
+  }
+
+  @Override
+  int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      boolean strict) {
+
+    return Base64Util.decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, strict);
+  }
+}
@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental base64 decoder. Complete quanta are decoded on every update,
+ * the characters of an incomplete quantum are kept until the next update or
+ * the final call. Whitespace is skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64Decoder extends AbstractBitDecoder {
+
+  /**
+   * creates a base64 decoder using the standard base64 character set
+   */
+  public Base64Decoder() {
+    this(Base64Util.CHARACTERSET);
+  }
+
+  /**
+   * creates a base64 decoder using the supplied character set
+   *
+   * @param characterSet
+   *          the character set to use
+   */
+  public Base64Decoder(String characterSet) {
+    super(Alphabet.of(characterSet), 6);
+  }
+}
@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that decodes base64 encoded chunks. Line separators are
+ * skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64DecodingProcessor extends AbstractBitDecodingProcessor {
+
+  /**
+   * creates a base64 decoding processor using the standard base64 character
+   * set
+   */
+  public Base64DecodingProcessor() {
+    this(Base64Util.CHARACTERSET);
+  }
+
+  /**
+   * creates a base64 decoding processor using the supplied character set
+   *
+   * @param characterSet
+   *          the character set to use
+   */
+  public Base64DecodingProcessor(String characterSet) {
+    super(Alphabet.of(characterSet), 6);
+  }
+}
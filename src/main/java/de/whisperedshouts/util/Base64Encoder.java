@@ -0,0 +1,37 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * An incremental base64 encoder. Complete quanta are encoded on every update,
+ * the bytes of an incomplete quantum are kept until the next update or the
+ * final call, which pads the last quantum.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64Encoder extends AbstractBitEncoder {
+
+  /**
+   * creates a base64 encoder using the standard base64 character set
+   */
+  public Base64Encoder() {
+    this(Base64Util.CHARACTERSET);
+  }
+
+  /**
+   * creates a base64 encoder using the supplied character set
+   *
+   * @param characterSet
+   *          the character set to use
+   */
+  public Base64Encoder(String characterSet) {
+    this(Alphabet.of(characterSet));
+  }
+
+  private Base64Encoder(Alphabet alphabet) {
+    super(6, (source, sourceOffset, length, destination, destinationOffset) -> Base64Util.encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+}
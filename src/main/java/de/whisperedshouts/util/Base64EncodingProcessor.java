@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that base64 encodes the published chunks. Incomplete quanta are
+ * kept between chunks, the final quantum is padded when the upstream
+ * publisher completes.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64EncodingProcessor extends AbstractBitEncodingProcessor {
+
+  /**
+   * creates a base64 encoding processor using the standard base64 character
+   * set
+   */
+  public Base64EncodingProcessor() {
+    this(Base64Util.CHARACTERSET);
+  }
+
+  /**
+   * creates a base64 encoding processor using the supplied character set
+   *
+   * @param characterSet
+   *          the character set to use
+   */
+  public Base64EncodingProcessor(String characterSet) {
+    this(Alphabet.of(characterSet));
+  }
+
+  private Base64EncodingProcessor(Alphabet alphabet) {
+    super(6, (source, sourceOffset, length, destination, destinationOffset) -> Base64Util.encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.InputStream;
+
+/**
+ * An input stream that decodes the base64 encoded data read from the
+ * underlying stream. Line separators are skipped.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64InputStream extends AbstractBitInputStream {
+
+  /**
+   * creates a base64 decoding input stream using the standard base64
+   * character set
+   *
+   * @param in
+   *          the underlying input stream
+   */
+  public Base64InputStream(InputStream in) {
+    this(in, Base64Util.CHARACTERSET);
+  }
+
+  /**
+   * creates a base64 decoding input stream using the supplied character set
+   *
+   * @param in
+   *          the underlying input stream
+   * @param characterSet
+   *          the character set to use
+   */
+  public Base64InputStream(InputStream in, String characterSet) {
+    super(in, Alphabet.of(characterSet), 6);
+  }
+}
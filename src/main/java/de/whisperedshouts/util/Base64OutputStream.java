@@ -0,0 +1,56 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that base64 encodes all data written to it. Incomplete
+ * quanta are kept between write calls, the final quantum is padded when the
+ * stream is closed.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64OutputStream extends AbstractBitOutputStream {
+
+  /**
+   * creates a base64 encoding output stream using the standard base64
+   * character set
+   *
+   * @param out
+   *          the underlying output stream
+   */
+  public Base64OutputStream(OutputStream out) {
+    this(out, Base64Util.CHARACTERSET, false);
+  }
+
+  /**
+   * creates a base64 encoding output stream using the standard base64
+   * character set. Optionally includes newlines according to MIME spec
+   *
+   * @param out
+   *          the underlying output stream
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 76 characters
+   */
+  public Base64OutputStream(OutputStream out, boolean includeLinebreaks) {
+    this(out, Base64Util.CHARACTERSET, includeLinebreaks);
+  }
+
+  /**
+   * creates a base64 encoding output stream using the supplied character set.
+   * Optionally includes newlines according to MIME spec
+   *
+   * @param out
+   *          the underlying output stream
+   * @param characterSet
+   *          the character set to use
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 76 characters
+   */
+  public Base64OutputStream(OutputStream out, String characterSet, boolean includeLinebreaks) {
+    super(out, Alphabet.of(characterSet), 6, includeLinebreaks);
+  }
+}
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that decodes base64url encoded chunks.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64UrlDecodingProcessor extends Base64DecodingProcessor {
+
+  /**
+   * creates a base64url decoding processor
+   */
+  public Base64UrlDecodingProcessor() {
+    super(Base64UrlUtil.CHARACTERSET);
+  }
+}
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * A processor that base64url encodes the published chunks.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64UrlEncodingProcessor extends Base64EncodingProcessor {
+
+  /**
+   * creates a base64url encoding processor
+   */
+  public Base64UrlEncodingProcessor() {
+    super(Base64UrlUtil.CHARACTERSET);
+  }
+}
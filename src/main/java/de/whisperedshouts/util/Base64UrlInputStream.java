@@ -0,0 +1,26 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.InputStream;
+
+/**
+ * An input stream that decodes the base64url encoded data read from the
+ * underlying stream.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64UrlInputStream extends Base64InputStream {
+
+  /**
+   * creates a base64url decoding input stream
+   *
+   * @param in
+   *          the underlying input stream
+   */
+  public Base64UrlInputStream(InputStream in) {
+    super(in, Base64UrlUtil.CHARACTERSET);
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that base64url encodes all data written to it.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base64UrlOutputStream extends Base64OutputStream {
+
+  /**
+   * creates a base64url encoding output stream
+   *
+   * @param out
+   *          the underlying output stream
+   */
+  public Base64UrlOutputStream(OutputStream out) {
+    super(out, Base64UrlUtil.CHARACTERSET, false);
+  }
+
+  /**
+   * creates a base64url encoding output stream. Optionally includes newlines
+   * according to MIME spec
+   *
+   * @param out
+   *          the underlying output stream
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 76 characters
+   */
+  public Base64UrlOutputStream(OutputStream out, boolean includeLinebreaks) {
+    super(out, Base64UrlUtil.CHARACTERSET, includeLinebreaks);
+  }
+}
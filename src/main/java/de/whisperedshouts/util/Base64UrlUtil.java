@@ -3,6 +3,13 @@
  */
 package de.whisperedshouts.util;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Dies ist eine Alternativ Implementierung des base64 Standards. Prinzipiell ist sie
@@ -16,7 +23,11 @@ package de.whisperedshouts.util;
  *
  */
 public class Base64UrlUtil extends Base64Util {
-    public static String CHARACTERSET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ" 
+    /**
+     * the base64url characterset, use {@link Base64Codec#URL_SAFE} to derive
+     * unpadded or wrapped codecs
+     */
+    public static final String CHARACTERSET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ" 
                                       + "abcdefghijklmnopqrstuvwxyz"
                                       + "0123456789-_";
     
@@ -30,9 +41,96 @@ public class Base64UrlUtil extends Base64Util {
      */
     public static byte[] decode(byte[] byteArray) {
       
-      return decode(byteArray, Base64UrlUtil.CHARACTERSET);
+      return Base64Codec.URL_SAFE.decode(byteArray);
     }
     
+    /**
+     * decodes the base64url characters remaining in the source buffer into the
+     * destination buffer. The source is treated as the end of the input
+     * 
+     * @param source
+     *          the buffer to read the base64url characters from
+     * @param destination
+     *          the buffer to write the decoded bytes to
+     * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+     *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+     *         a malformed result if the input contains an invalid character
+     */
+    public static CoderResult decode(ByteBuffer source, ByteBuffer destination) {
+
+      return decode(source, destination, Base64UrlUtil.CHARACTERSET, true);
+    }
+
+    /**
+     * decodes a range of base64url characters into the supplied array.
+     * Whitespace is skipped, a missing padding is tolerated. Nothing is
+     * allocated
+     * 
+     * @param source
+     *          the array holding the base64url characters
+     * @param sourceOffset
+     *          the offset of the first character
+     * @param length
+     *          the amount of characters to decode
+     * @param destination
+     *          the array to write the decoded bytes to, must have room for
+     *          {@link #decodedLength(byte[], int, int)} bytes
+     * @param destinationOffset
+     *          where to start writing in the destination array
+     * @return the amount of bytes written
+     * @throws IndexOutOfBoundsException
+     *           if a range does not lie within its array
+     */
+    public static int decode(byte[] source, int sourceOffset, int length, byte[] destination,
+        int destinationOffset) {
+
+      return Base64Codec.URL_SAFE.decode(source, sourceOffset, length, destination, destinationOffset);
+    }
+
+    /**
+     * decodes a base64url encoded byte array in parallel. Chunks of
+     * {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are decoded on the common
+     * {@link ForkJoinPool}
+     * 
+     * @param byteArray
+     *          the base64url array to decode
+     * @return a base64url decoded byte array
+     */
+    public static byte[] decodeParallel(byte[] byteArray) {
+
+      return decodeParallel(byteArray, Base64UrlUtil.CHARACTERSET, DEFAULT_PARALLEL_THRESHOLD,
+          ForkJoinPool.commonPool());
+    }
+
+    /**
+     * decodes a batch of base64url encoded items. The items are decoded on
+     * virtual threads if available
+     * 
+     * @param encoded
+     *          the base64url items to decode
+     * @return the decoded byte arrays in input order
+     */
+    public static BatchResult<byte[]> decodeAll(List<? extends CharSequence> encoded) {
+
+      return decodeAll(encoded, Base64UrlUtil.CHARACTERSET, BatchCodec.defaultExecutor());
+    }
+
+    /**
+     * decodes a base64url encoded file. The input is memory mapped window by
+     * window, line separators are skipped
+     * 
+     * @param in
+     *          the file to decode
+     * @param out
+     *          the file to write the decoded bytes to
+     * @throws IOException
+     *           if a file could not be read or written or the input contains
+     *           invalid characters
+     */
+    public static void decodeFile(Path in, Path out) throws IOException {
+      decodeFile(in, out, Base64UrlUtil.CHARACTERSET);
+    }
+
     /**
      * decodes a string from base 64 using the standard base64url character set
      * @param base64urlEncoded the base64url encoded string
@@ -40,7 +138,108 @@ public class Base64UrlUtil extends Base64Util {
      */
     public static byte[] decode(String base64urlEncoded) {
       
-      return decode(base64urlEncoded.getBytes(), Base64UrlUtil.CHARACTERSET);
+      return Base64Codec.URL_SAFE.decode(base64urlEncoded);
+    }
+
+    /**
+     * decodes base64url characters. The characters are read directly, without
+     * converting them to bytes first
+     * 
+     * @param base64urlEncoded
+     *          the base64url characters to decode
+     * @return the decoded byte array
+     */
+    public static byte[] decode(CharSequence base64urlEncoded) {
+
+      return Base64Codec.URL_SAFE.decode(base64urlEncoded);
+    }
+
+    /**
+     * decodes a base64url encoded byte array, rejecting invalid input in the
+     * same pass instead of decoding it to garbage
+     * 
+     * @param byteArray
+     *          the byte array to decode
+     * @return the decoded byte array
+     * @throws IllegalArgumentException
+     *           if the input is invalid, naming the offset of the first bad
+     *           character
+     */
+    public static byte[] decodeStrict(byte[] byteArray) {
+
+      return Base64Codec.URL_SAFE.decodeStrict(byteArray);
+    }
+
+    /**
+     * decodes base64url characters, rejecting invalid input in the same pass
+     * 
+     * @param base64urlEncoded
+     *          the base64url characters to decode
+     * @return the decoded byte array
+     * @throws IllegalArgumentException
+     *           if the input is invalid, naming the offset of the first bad
+     *           character
+     */
+    public static byte[] decodeStrict(CharSequence base64urlEncoded) {
+
+      return Base64Codec.URL_SAFE.decodeStrict(base64urlEncoded);
+    }
+
+    /**
+     * returns whether a range of base64url characters is valid, without
+     * decoding it. Nothing is allocated
+     * 
+     * @param source
+     *          the array holding the base64url characters
+     * @param offset
+     *          the offset of the first character
+     * @param length
+     *          the amount of characters
+     * @return true if {@link #decodeStrict(byte[])} would accept the range
+     * @throws IndexOutOfBoundsException
+     *           if the range does not lie within the array
+     */
+    public static boolean isValid(byte[] source, int offset, int length) {
+
+      return Base64Codec.URL_SAFE.isValid(source, offset, length);
+    }
+
+    /**
+     * returns whether a sequence of base64url characters is valid, without
+     * decoding it. Nothing is allocated
+     * 
+     * @param base64urlEncoded
+     *          the base64url characters to check
+     * @return true if {@link #decodeStrict(CharSequence)} would accept the
+     *         sequence
+     */
+    public static boolean isValid(CharSequence base64urlEncoded) {
+
+      return Base64Codec.URL_SAFE.isValid(base64urlEncoded);
+    }
+
+    /**
+     * decode a base64url encoded byte array to its String representation
+     * 
+     * @param byteArray
+     *          the base64url encoded byte array
+     * @return the decoded string
+     */
+    public static String decodeToString(byte[] byteArray) {
+
+      return new String(decode(byteArray));
+    }
+
+    /**
+     * decode a base64url encoded string to its original representation
+     * 
+     * @param base64urlEncoded
+     *          the base64url encoded string
+     * @return the decoded string
+     */
+    public static String decodeToString(String base64urlEncoded) {
+
+      return new String(decode(base64urlEncoded));
     }
     
     /**
@@ -52,9 +251,145 @@ public class Base64UrlUtil extends Base64Util {
      */
     public static byte[] encode(byte[] byteArray) {
 
-      return encode(byteArray, Base64UrlUtil.CHARACTERSET);
+      return Base64Codec.URL_SAFE.encode(byteArray);
+    }
+
+    /**
+     * encodes a byte array to base64url. A line separator is included after
+     * every lineLength characters
+     * 
+     * @param byteArray
+     *          the array to encode
+     * @param lineLength
+     *          the amount of characters per line, rounded down to a multiple
+     *          of 4. No line separators are included if it is less than 4
+     * @param lineSeparator
+     *          the line separator, i.E. CRLF or LF
+     * @return a base64url encoded byte array
+     */
+    public static byte[] encode(byte[] byteArray, int lineLength, String lineSeparator) {
+
+      return encode(byteArray, Base64Codec.URL_SAFE.getAlphabet(), lineLength, lineSeparator);
     }
     
+    /**
+     * encodes a range of bytes to base64url into the supplied array. Nothing
+     * is allocated
+     * 
+     * @param source
+     *          the array holding the bytes to encode
+     * @param sourceOffset
+     *          the offset of the first byte
+     * @param length
+     *          the amount of bytes to encode
+     * @param destination
+     *          the array to write the base64url characters to, must have room
+     *          for {@link #encodedLength(int)} characters
+     * @param destinationOffset
+     *          where to start writing in the destination array
+     * @return the amount of characters written
+     * @throws IndexOutOfBoundsException
+     *           if a range does not lie within its array
+     */
+    public static int encode(byte[] source, int sourceOffset, int length, byte[] destination,
+        int destinationOffset) {
+
+      return Base64Codec.URL_SAFE.encode(source, sourceOffset, length, destination, destinationOffset);
+    }
+
+    /**
+     * encodes a file to base64url. The input is memory mapped window by window
+     * 
+     * @param in
+     *          the file to encode
+     * @param out
+     *          the file to write the base64url characters to
+     * @throws IOException
+     *           if a file could not be read or written
+     */
+    public static void encodeFile(Path in, Path out) throws IOException {
+      encodeFile(in, out, Base64UrlUtil.CHARACTERSET, false);
+    }
+
+    /**
+     * encodes a file to base64url. Optionally includes a CRLF every 76th
+     * character according to MIME spec
+     * 
+     * @param in
+     *          the file to encode
+     * @param out
+     *          the file to write the base64url characters to
+     * @param includeLinebreaks
+     *          whether to include a CRLF every 76th character
+     * @throws IOException
+     *           if a file could not be read or written
+     */
+    public static void encodeFile(Path in, Path out, boolean includeLinebreaks) throws IOException {
+      encodeFile(in, out, Base64UrlUtil.CHARACTERSET, includeLinebreaks);
+    }
+
+    /**
+     * encodes a byte array to base64url in parallel. Chunks of
+     * {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are encoded on the common
+     * {@link ForkJoinPool}
+     * 
+     * @param byteArray
+     *          the byte array to encode
+     * @return the base64url encoded array
+     */
+    public static byte[] encodeParallel(byte[] byteArray) {
+
+      return encodeParallel(byteArray, Base64UrlUtil.CHARACTERSET, DEFAULT_PARALLEL_THRESHOLD,
+          ForkJoinPool.commonPool());
+    }
+
+    /**
+     * encodes a batch of byte arrays to base64url strings. The items are
+     * encoded on virtual threads if available
+     * 
+     * @param byteArrays
+     *          the byte arrays to encode
+     * @return the base64url strings in input order
+     */
+    public static BatchResult<String> encodeAll(List<byte[]> byteArrays) {
+
+      return encodeAll(byteArrays, Base64UrlUtil.CHARACTERSET, BatchCodec.defaultExecutor());
+    }
+
+    /**
+     * encodes the bytes remaining in the source buffer into the destination
+     * buffer. The source is treated as the end of the input, so the last
+     * quantum gets padded
+     * 
+     * @param source
+     *          the buffer to read the bytes to encode from
+     * @param destination
+     *          the buffer to write the base64url characters to
+     * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+     *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+     */
+    public static CoderResult encode(ByteBuffer source, ByteBuffer destination) {
+
+      return encode(source, destination, Base64UrlUtil.CHARACTERSET, true);
+    }
+
+    /**
+     * encodes the bytes remaining in the source buffers into the destination
+     * buffer. The buffers are encoded as one consecutive input, the last
+     * quantum gets padded
+     * 
+     * @param sources
+     *          the buffers to read the bytes to encode from
+     * @param destination
+     *          the buffer to write the base64url characters to
+     * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+     *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+     */
+    public static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination) {
+
+      return encode(sources, destination, Base64UrlUtil.CHARACTERSET, true);
+    }
+
     /**
      * base64url encode a byte array and return the base64url string
      * 
@@ -62,7 +397,7 @@ public class Base64UrlUtil extends Base64Util {
      * @return the base64url string
      */
     public static String encodeToString(byte[] byteArray) {
-      return encodeToString(byteArray, Base64UrlUtil.CHARACTERSET, false);
+      return Base64Codec.URL_SAFE.encodeToString(byteArray);
     }
     
     /**
@@ -72,7 +407,7 @@ public class Base64UrlUtil extends Base64Util {
      * @param byteArray
      *          the byte array to encode
      * @param includeLinebreaks
-     *          whether to include newlines every 76th character
+     *          whether to include a CRLF after every 76 characters
      * @return the base64url string
      */
     public static String encodeToString(byte[] byteArray, boolean includeLinebreaks) {
@@ -80,6 +415,36 @@ public class Base64UrlUtil extends Base64Util {
       return encodeToString(byteArray, Base64UrlUtil.CHARACTERSET, includeLinebreaks);
     }
     
+    /**
+     * encodes a byte array to base64url and appends the characters to the
+     * supplied appendable, i.E. a {@link StringBuilder}
+     * 
+     * @param byteArray
+     *          the byte array to encode
+     * @param out
+     *          the appendable to append the base64url characters to
+     * @throws IOException
+     *           if the appendable could not be written to
+     */
+    public static void encodeTo(byte[] byteArray, Appendable out) throws IOException {
+      encodeTo(byteArray, Base64UrlUtil.CHARACTERSET, out);
+    }
+
+    /**
+     * encodes a byte array to base64url and writes the characters to the
+     * supplied writer
+     * 
+     * @param byteArray
+     *          the byte array to encode
+     * @param out
+     *          the writer to write the base64url characters to
+     * @throws IOException
+     *           if the writer could not be written to
+     */
+    public static void encodeTo(byte[] byteArray, Writer out) throws IOException {
+      encodeTo(byteArray, Base64UrlUtil.CHARACTERSET, out);
+    }
+
     /**
      * base64url encodes a string
      * 
@@ -98,7 +463,7 @@ public class Base64UrlUtil extends Base64Util {
      * @param toEncode
      *          the string to encode
      * @param includeLinebreaks
-     *          whether to include newlines every 76th character
+     *          whether to include a CRLF after every 76 characters
      * @return the base64url encoded string
      */
     public static String encodeToString(String toEncode, boolean includeLinebreaks) {
@@ -3,7 +3,19 @@
  */
 package de.whisperedshouts.util;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Zur Kodierung werden die Zeichen A–Z, a–z, 0–9, + und / verwendet sowie = am
@@ -29,12 +41,54 @@ import java.util.Arrays;
  */
 public class Base64Util extends AbstractBitUtil {
   /**
-   * the base64 characterset that is used to encode and decode base64
+   * the base64 characterset that is used to encode and decode base64. Use
+   * {@link Base64Codec#of(String)} for other character sets
    */
-  public static String CHARACTERSET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ" 
+  public static final String CHARACTERSET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ" 
                                     + "abcdefghijklmnopqrstuvwxyz"
                                     + "0123456789+/";
 
+  /**
+   * whether encoding uses the word at a time kernel, that encodes 6 bytes per
+   * iteration. See {@link #setWordAtATime(boolean)}
+   */
+  private static volatile boolean wordAtATime     = !Boolean
+      .getBoolean("de.whisperedshouts.util.Base64Util.scalar");
+  /**
+   * the amount of bytes from which on the vectorized kernels are used, if
+   * available
+   */
+  static final int               VECTOR_THRESHOLD = 64;
+  /**
+   * the amount of bytes per block of lines that is encoded at once when
+   * including line separators with the vectorized kernels
+   */
+  private static final int       WRAP_BLOCK_SIZE  = 4096;
+  private static final VarHandle LONG_BIG_ENDIAN  = MethodHandles.byteArrayViewVarHandle(long[].class,
+      ByteOrder.BIG_ENDIAN);
+
+  /**
+   * @return whether encoding uses the word at a time kernel
+   */
+  public static boolean isWordAtATime() {
+    return wordAtATime;
+  }
+
+  /**
+   * selects the encode kernel of all base64 and base64url encoders. The word
+   * at a time kernel reads 8 bytes at once and resolves 12 bit to two
+   * characters with a single table lookup, the scalar kernel encodes one
+   * quantum per iteration. The word at a time kernel is used by default,
+   * unless the system property "de.whisperedshouts.util.Base64Util.scalar"
+   * is set to true
+   *
+   * @param wordAtATime
+   *          true for the word at a time kernel, false for the scalar kernel
+   */
+  public static void setWordAtATime(boolean wordAtATime) {
+    Base64Util.wordAtATime = wordAtATime;
+  }
+
   /**
    * decodes a base64 encoded byte array
    * 
@@ -44,7 +98,7 @@ public class Base64Util extends AbstractBitUtil {
    */
   public static byte[] decode(byte[] byteArray) {
     
-    return decode(byteArray, Base64Util.CHARACTERSET);
+    return Base64Codec.STANDARD.decode(byteArray);
   }
   
   /**
@@ -54,61 +108,433 @@ public class Base64Util extends AbstractBitUtil {
    * @return the decoded byte array
    */
   public static byte[] decode(byte[] byteArray, String characterSet) {
-    int originalLength = byteArray.length;
-    byte[] sanitizedArray = sanitizeArray(byteArray, 4);
-    byte[] tempArray = new byte[originalLength];
-    int position = 0;
-    int resolvedPosition = 0;
-    while (position < sanitizedArray.length) {
-
-      int[] resolvedBase64Chars = new int[4];
-      int paddingCharacters = 0;
-      for (int i = 0; i < 4; i++) {
-        byte b = sanitizedArray[position++];
-        resolvedBase64Chars[i] = characterSet.indexOf(b);
-        if ((char) b == '=') {
+    
+    return decode(byteArray, Alphabet.of(characterSet));
+  }
+
+  /**
+   * decodes a base64 encoded byte array by the supplied alphabet
+   * @param byteArray the byte array to decode
+   * @param alphabet the alphabet to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(byteArray, 0, byteArray.length, alphabet, 6)];
+    int written = decodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * returns the amount of base64 characters the encoding of length bytes
+   * takes, including padding
+   * 
+   * @param length
+   *          the amount of bytes to encode
+   * @return the amount of base64 characters
+   */
+  public static int encodedLength(int length) {
+
+    return encodedLength(length, 6);
+  }
+
+  /**
+   * returns the amount of characters the encoding of length bytes takes, if
+   * a line separator is included after every lineLength characters
+   * 
+   * @param length
+   *          the amount of bytes to encode
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return the amount of characters including line separators
+   */
+  public static int encodedLength(int length, int lineLength, String lineSeparator) {
+
+    return encodedLength(length, lineLength / 4 * 4, lineSeparator.length());
+  }
+
+  private static int encodedLength(int length, int lineLength, int separatorLength) {
+    int characters = encodedLength(length, 6);
+    if (lineLength <= 0 || characters == 0) {
+      return characters;
+    }
+
+    // no line separator after the last line
+    long encodedLength = characters + (long) (characters - 1) / lineLength * separatorLength;
+    if (encodedLength > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("input too large to be encoded into a single array");
+    }
+
+    return (int) encodedLength;
+  }
+
+  /**
+   * returns the exact amount of bytes a range of base64 characters decodes to.
+   * Whitespace is not counted and a missing padding is tolerated
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return the amount of decoded bytes
+   */
+  public static int decodedLength(byte[] source, int offset, int length) {
+
+    return Base64Codec.STANDARD.decodedLength(source, offset, length);
+  }
+
+  /**
+   * decodes a range of base64 characters into the supplied array using the
+   * standard base64 character set. Whitespace is skipped, a missing padding is
+   * tolerated. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base64Codec.STANDARD.decode(source, sourceOffset, length, destination, destinationOffset);
+  }
+
+  /**
+   * decodes a range of base64 characters into the supplied array using the
+   * supplied alphabet. Whitespace is skipped, a missing padding is tolerated
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkDecodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, 6);
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * decodes the base64 characters remaining in the source buffer into the
+   * destination buffer using the standard base64 character set. The source
+   * is treated as the end of the input
+   * 
+   * @param source
+   *          the buffer to read the base64 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination) {
+
+    return decode(source, destination, Base64Util.CHARACTERSET, true);
+  }
+
+  /**
+   * decodes the base64 characters remaining in the source buffer into the
+   * destination buffer using the supplied character set. Unless endOfInput is
+   * set, an incomplete quantum at the end of the source is not consumed
+   * 
+   * @param source
+   *          the buffer to read the base64 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param characterSet
+   *          the character set to use
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer source, ByteBuffer destination, String characterSet,
+      boolean endOfInput) {
+
+    return decode(source, destination, Alphabet.of(characterSet), 6, endOfInput);
+  }
+
+  /**
+   * decodes the base64 characters remaining in the source buffers into the
+   * destination buffer using the supplied character set. Quanta may span
+   * several source buffers
+   * 
+   * @param sources
+   *          the buffers to read the base64 characters from
+   * @param destination
+   *          the buffer to write the decoded bytes to
+   * @param characterSet
+   *          the character set to use
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed,
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full or
+   *         a malformed result if the input contains an invalid character
+   */
+  public static CoderResult decode(ByteBuffer[] sources, ByteBuffer destination, String characterSet,
+      boolean endOfInput) {
+
+    return decode(sources, destination, Alphabet.of(characterSet), 6, endOfInput);
+  }
+
+  /**
+   * decodes a base64 encoded byte array in parallel using the standard base64
+   * character set. Chunks of {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are
+   * decoded on the common {@link ForkJoinPool}
+   * 
+   * @param byteArray
+   *          the base64 array to decode
+   * @return a base64 decoded byte array
+   */
+  public static byte[] decodeParallel(byte[] byteArray) {
+
+    return decodeParallel(byteArray, Base64Util.CHARACTERSET, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * decodes a base64 encoded byte array in parallel. The input is split on
+   * line boundaries into chunks of about threshold bytes
+   * 
+   * @param byteArray
+   *          the base64 array to decode
+   * @param characterSet
+   *          the character set to use
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to decode the chunks on
+   * @return a base64 decoded byte array
+   */
+  public static byte[] decodeParallel(byte[] byteArray, String characterSet, int threshold, ForkJoinPool pool) {
+    Alphabet alphabet = Alphabet.of(characterSet);
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = ParallelCodec.decode(byteArray, 6, threshold, pool,
+        (source, sourceOffset, length, destination, destinationOffset) -> decodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * decodes a batch of base64 encoded items using the standard base64
+   * character set. The items are decoded on virtual threads if available, see
+   * {@link #decodeAll(List, String, Executor)}
+   * 
+   * @param encoded
+   *          the base64 items to decode
+   * @return the decoded byte arrays in input order
+   */
+  public static BatchResult<byte[]> decodeAll(List<? extends CharSequence> encoded) {
+
+    return decodeAll(encoded, Base64Util.CHARACTERSET, BatchCodec.defaultExecutor());
+  }
+
+  /**
+   * decodes a batch of base64 encoded items. The alphabet is resolved once for
+   * the whole batch, tasks of 512 items run on the supplied executor, smaller
+   * batches are decoded on the calling thread. Whitespace is skipped and a
+   * missing padding is tolerated, an item containing invalid characters fails
+   * with an {@link IllegalArgumentException} without affecting the other items
+   * 
+   * @param encoded
+   *          the base64 items to decode
+   * @param characterSet
+   *          the character set to use
+   * @param executor
+   *          the executor to decode the items on
+   * @return the decoded byte arrays in input order
+   */
+  public static BatchResult<byte[]> decodeAll(List<? extends CharSequence> encoded, String characterSet,
+      Executor executor) {
+
+    return BatchCodec.decode(encoded, Alphabet.of(characterSet), 6, executor);
+  }
+
+  /**
+   * decodes a range of base64 characters into the destination array.
+   * Whitespace is skipped, a missing padding at the end of the range is
+   * tolerated
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet, false);
+  }
+
+  /**
+   * decodes a range of base64 characters into the destination array in one
+   * pass. Whitespace is skipped. In strict mode invalid characters, misplaced
+   * padding and an incomplete last quantum are rejected, otherwise invalid
+   * characters decode to garbage
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @param strict
+   *          whether to reject invalid input
+   * @return the amount of bytes written
+   * @throws IllegalArgumentException
+   *           if strict and the input is invalid, naming the offset of the
+   *           first bad character
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet, boolean strict) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int end = sourceOffset + length;
+    int resultPosition = destinationOffset;
+    int number = 0;
+    int characters = 0;
+    int paddingCharacters = 0;
+    boolean vectorize = VectorCodec.AVAILABLE && length >= VECTOR_THRESHOLD;
+    for (int position = sourceOffset; position < end; position++) {
+      // at the start and after every line the vectorized kernel takes over
+      // until it hits whitespace, padding or an invalid character
+      if (vectorize && characters == 0 && end - position >= VECTOR_THRESHOLD) {
+        int decoded = VectorCodec.decodeBase64(source, position, end - position, destination, resultPosition,
+            alphabet);
+        position += decoded;
+        resultPosition += decoded / 4 * 3;
+        vectorize = false;
+        if (position == end) {
+          break;
+        }
+      }
+
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved < 0) {
+        if (resolved == Alphabet.PADDING) {
+          if (strict && paddingCharacters == 0) {
+            checkPadding(indexOfInvalidPadding(source, position, end, decodeTable, characters, 6));
+          }
           paddingCharacters++;
+          resolved = 0;
+        } else if (resolved == Alphabet.SKIP || isWhitespace(b)) {
+          vectorize = VectorCodec.AVAILABLE;
+          continue;
+        } else if (strict) {
+          throw invalidCharacter(position);
         }
       }
+      number = (number << 6) | (resolved & 0x3F);
 
-      // make a 24bit number out of the 4 characters
-      long number = 0;
-      // take the first character, shift 18 bit to the left
-      number = ((resolvedBase64Chars[0] & 0xFF) << 18);
-      // shift the first 2 bit, as those are not our payload
-      // add the payload, shift 10 bits to the left
-      number += ((resolvedBase64Chars[1] << 2 & 0xFF) << 10);
-      // shift the first 2 bit, as those are not our payload
-      // add the payload, shift 4 bits to the left
-      number += ((resolvedBase64Chars[2] << 2 & 0xFF) << 4);
-      // add the last 6 bits of the last character as payload
-      number += ((resolvedBase64Chars[3] & 0x3F));
-
-      // create the 8 original bytes out of the 24bit number
-      long b1 = (long) (number >> 16) & 0xFF;
-      long b2 = (long) (number >> 8) & 0xFF;
-      long b3 = (long) (number >> 0) & 0xFF;
-
-      switch (paddingCharacters) {
-        case 0:
-          tempArray[resolvedPosition++] = (byte) b1;
-          tempArray[resolvedPosition++] = (byte) b2;
-          tempArray[resolvedPosition++] = (byte) b3;
-          break;
-        case 1:
-          tempArray[resolvedPosition++] = (byte) b1;
-          tempArray[resolvedPosition++] = (byte) b2;
-          break;
-        case 2:
-          tempArray[resolvedPosition++] = (byte) b1;
-          break;
+      if (++characters == 4) {
+        // create the original bytes out of the 24bit number
+        int payloadBytes = (4 - paddingCharacters) * 6 / 8;
+        for (int i = 0; i < payloadBytes; i++) {
+          destination[resultPosition++] = (byte) (number >> (16 - i * 8));
+        }
+        number = 0;
+        characters = 0;
+        paddingCharacters = 0;
       }
     }
 
-    sanitizedArray = Arrays.copyOf(tempArray, resolvedPosition);
+    // a missing padding at the end of the range is treated like padding
+    if (characters > 0) {
+      if (strict) {
+        checkRemainder(characters, end, 6);
+      }
+      number <<= (4 - characters) * 6;
+      int payloadBytes = (characters - paddingCharacters) * 6 / 8;
+      for (int i = 0; i < payloadBytes; i++) {
+        destination[resultPosition++] = (byte) (number >> (16 - i * 8));
+      }
+    }
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * decodes a base64 encoded file using the standard base64 character set.
+   * The input is memory mapped window by window, line separators are skipped
+   * 
+   * @param in
+   *          the file to decode
+   * @param out
+   *          the file to write the decoded bytes to
+   * @throws IOException
+   *           if a file could not be read or written or the input contains
+   *           invalid characters
+   */
+  public static void decodeFile(Path in, Path out) throws IOException {
+    decodeFile(in, out, Base64Util.CHARACTERSET);
+  }
 
-    return sanitizedArray;
+  /**
+   * decodes a base64 encoded file using the supplied character set. The
+   * input is memory mapped window by window, line separators are skipped
+   * 
+   * @param in
+   *          the file to decode
+   * @param out
+   *          the file to write the decoded bytes to
+   * @param characterSet
+   *          the character set to use
+   * @throws IOException
+   *           if a file could not be read or written or the input contains
+   *           invalid characters
+   */
+  public static void decodeFile(Path in, Path out, String characterSet) throws IOException {
+    MappedFileCodec.decode(in, out, Base64Codec.of(characterSet));
   }
+
   /**
    * decodes a string from base 64 using the standard base64 character set
    * @param base64Encoded the base64 encoded string
@@ -116,7 +542,7 @@ public class Base64Util extends AbstractBitUtil {
    */
   public static byte[] decode(String base64Encoded) {
     
-    return decode(base64Encoded.getBytes(), Base64Util.CHARACTERSET);
+    return Base64Codec.STANDARD.decode(base64Encoded);
   }
   
   /**
@@ -127,7 +553,111 @@ public class Base64Util extends AbstractBitUtil {
    */
   public static byte[] decode(String base64Encoded, String characterSet) {
     
-    return decode(base64Encoded.getBytes(), characterSet);
+    return decode((CharSequence) base64Encoded, characterSet);
+  }
+
+  /**
+   * decodes base64 characters using the standard base64 character set. The
+   * characters are read directly, without converting them to bytes first
+   * 
+   * @param base64Encoded
+   *          the base64 characters to decode
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base64Encoded) {
+
+    return Base64Codec.STANDARD.decode(base64Encoded);
+  }
+
+  /**
+   * decodes base64 characters using the supplied character set. The
+   * characters are read directly, without converting them to bytes first.
+   * Whitespace is skipped, a missing padding is tolerated
+   * 
+   * @param base64Encoded
+   *          the base64 characters to decode
+   * @param characterSet
+   *          the character set to use
+   * @return the decoded byte array
+   */
+  public static byte[] decode(CharSequence base64Encoded, String characterSet) {
+    Alphabet alphabet = Alphabet.of(characterSet);
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(base64Encoded, alphabet, 6)];
+    int written = decodeCharacters(base64Encoded, result, alphabet, 6);
+    CodecMetrics.end(event, alphabet, base64Encoded.length(), written);
+
+    // padding within the input ends a quantum early
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes a base64 encoded byte array using the standard base64 character
+   * set, rejecting invalid input in the same pass instead of decoding it to
+   * garbage
+   * 
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character, misplaced padding
+   *           or an incomplete last quantum, naming the offset of the first
+   *           bad character
+   */
+  public static byte[] decodeStrict(byte[] byteArray) {
+
+    return Base64Codec.STANDARD.decodeStrict(byteArray);
+  }
+
+  /**
+   * decodes base64 characters using the standard base64 character set,
+   * rejecting invalid input in the same pass. See {@link #decodeStrict(byte[])}
+   * 
+   * @param base64Encoded
+   *          the base64 characters to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input is invalid, naming the offset of the first bad
+   *           character
+   */
+  public static byte[] decodeStrict(CharSequence base64Encoded) {
+
+    return Base64Codec.STANDARD.decodeStrict(base64Encoded);
+  }
+
+  /**
+   * returns whether a range of base64 characters is valid using the standard
+   * base64 character set, without decoding it. Alphabet membership, the
+   * position of the padding and the length of the last quantum are checked 8
+   * characters at a time. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the base64 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return true if {@link #decodeStrict(byte[])} would accept the range
+   * @throws IndexOutOfBoundsException
+   *           if the range does not lie within the array
+   */
+  public static boolean isValid(byte[] source, int offset, int length) {
+
+    return Base64Codec.STANDARD.isValid(source, offset, length);
+  }
+
+  /**
+   * returns whether a sequence of base64 characters is valid using the standard
+   * base64 character set, without decoding it. Nothing is allocated
+   * 
+   * @param base64Encoded
+   *          the base64 characters to check
+   * @return true if {@link #decodeStrict(CharSequence)} would accept the
+   *         sequence
+   */
+  public static boolean isValid(CharSequence base64Encoded) {
+
+    return Base64Codec.STANDARD.isValid(base64Encoded);
   }
 
   /**
@@ -151,7 +681,9 @@ public class Base64Util extends AbstractBitUtil {
    * @return the decoded string
    */
   public static String decodeToString(String base64Encoded) {
-    return decodeToString(base64Encoded.getBytes());
+    byte[] decoded = decode(base64Encoded);
+
+    return new String(decoded);
   }
 
   /**
@@ -163,7 +695,7 @@ public class Base64Util extends AbstractBitUtil {
    */
   public static byte[] encode(byte[] byteArray) {
 
-    return encode(byteArray, Base64Util.CHARACTERSET);
+    return Base64Codec.STANDARD.encode(byteArray);
   }
 
   /**
@@ -176,46 +708,528 @@ public class Base64Util extends AbstractBitUtil {
    * @return a base64 encoded byte array
    */
   public static byte[] encode(byte[] byteArray, String characterSet) {
-    // how much do we overflow
-    int overflow = byteArray.length % 3;
-    // create proper padded input array
-    byte[] paddedInput = Arrays.copyOf(byteArray, byteArray.length + (3 - overflow));
+
+    return encode(byteArray, Alphabet.of(characterSet));
+  }
+
+  /**
+   * encodes a byte array to base64
+   * 
+   * @param byteArray
+   *          the array to encode
+   * @param alphabet
+   *          the alphabet to use
+   * @return a base64 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
     // calculate size of destination byte array
-    int resultSize = (4 * (paddedInput.length / 3));
-    byte[] result = new byte[resultSize];
+    byte[] result = new byte[encodedLength(byteArray.length, 6)];
+    encodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
 
-    // this is the current position of the resulting byte array
-    int resultPosition = 0;
-    for (int position = 0; position < paddedInput.length; position += 3) {
+    return result;
+  }
 
-      // these three 8-bit (ASCII) characters become one 24-bit number
-      long n = ((paddedInput[position + 0] & 0xFF) << 16) + ((paddedInput[position + 1] & 0xFF) << 8)
-          + ((paddedInput[position + 2] & 0xFF) << 0);
+  /**
+   * encodes a byte array to base64 using the standard base64 character set.
+   * A line separator is included after every lineLength characters, i.E.
+   * {@link #MIME_LINE_LENGTH} and CRLF for MIME or {@link #PEM_LINE_LENGTH}
+   * and LF for PEM
+   * 
+   * @param byteArray
+   *          the array to encode
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return a base64 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, int lineLength, String lineSeparator) {
 
-      // this 24-bit number gets separated into four 6-bit numbers
-      int n1 = (int) (n >> 18) & 0x3F;
-      int n2 = (int) (n >> 12) & 0x3F;
-      int n3 = (int) (n >> 6) & 0x3F;
-      int n4 = (int) (n >> 0) & 0x3F;
-      // get the proper base64 representation
-      result[resultPosition++] = (byte) characterSet.charAt(n1);
-      result[resultPosition++] = (byte) characterSet.charAt(n2);
-      result[resultPosition++] = (byte) characterSet.charAt(n3);
-      result[resultPosition++] = (byte) characterSet.charAt(n4);
+    return encode(byteArray, Base64Codec.STANDARD.getAlphabet(), lineLength, lineSeparator);
+  }
+
+  /**
+   * encodes a byte array to base64. A line separator is included after every
+   * lineLength characters. The line separators are written while encoding, so
+   * the result is the only allocation
+   * 
+   * @param byteArray
+   *          the array to encode
+   * @param alphabet
+   *          the alphabet to use
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return a base64 encoded byte array
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  public static byte[] encode(byte[] byteArray, Alphabet alphabet, int lineLength, String lineSeparator) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] separator = getLineSeparatorBytes(lineSeparator);
+    lineLength = lineLength / 4 * 4;
+    byte[] result = new byte[encodedLength(byteArray.length, lineLength, separator.length)];
+    encodeRange(byteArray, 0, byteArray.length, result, 0, alphabet, lineLength, separator);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * encodes a range of bytes to base64 into the supplied array using the
+   * standard base64 character set. Nothing is allocated
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base64 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return Base64Codec.STANDARD.encode(source, sourceOffset, length, destination, destinationOffset);
+  }
+
+  /**
+   * encodes a range of bytes to base64 into the supplied array using the
+   * supplied alphabet
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base64 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, encodedLength(length, 6));
+
+    return encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffer into the destination
+   * buffer using the standard base64 character set. The source is treated as
+   * the end of the input, so the last quantum gets padded
+   * 
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base64 characters to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer source, ByteBuffer destination) {
+
+    return encode(source, destination, Base64Util.CHARACTERSET, true);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffer into the destination
+   * buffer using the supplied character set. Unless endOfInput is set, an
+   * incomplete quantum at the end of the source is not consumed
+   * 
+   * @param source
+   *          the buffer to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base64 characters to
+   * @param characterSet
+   *          the character set to use
+   * @param endOfInput
+   *          whether the source contains the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer source, ByteBuffer destination, String characterSet,
+      boolean endOfInput) {
+
+    return encode(source, destination, Alphabet.of(characterSet), 6, endOfInput);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffers into the destination
+   * buffer using the standard base64 character set. The buffers are encoded
+   * as one consecutive input, the last quantum gets padded
+   * 
+   * @param sources
+   *          the buffers to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base64 characters to
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination) {
+
+    return encode(sources, destination, Base64Util.CHARACTERSET, true);
+  }
+
+  /**
+   * encodes the bytes remaining in the source buffers into the destination
+   * buffer using the supplied character set. The buffers are encoded as one
+   * consecutive input, quanta may span several source buffers
+   * 
+   * @param sources
+   *          the buffers to read the bytes to encode from
+   * @param destination
+   *          the buffer to write the base64 characters to
+   * @param characterSet
+   *          the character set to use
+   * @param endOfInput
+   *          whether the sources contain the end of the input
+   * @return {@link CoderResult#UNDERFLOW} if all input was consumed or
+   *         {@link CoderResult#OVERFLOW} if the destination buffer is full
+   */
+  public static CoderResult encode(ByteBuffer[] sources, ByteBuffer destination, String characterSet,
+      boolean endOfInput) {
+
+    return encode(sources, destination, Alphabet.of(characterSet), 6, endOfInput);
+  }
+
+  /**
+   * encodes a file to base64 using the standard base64 character set. The
+   * input is memory mapped window by window
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base64 characters to
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  public static void encodeFile(Path in, Path out) throws IOException {
+    encodeFile(in, out, Base64Util.CHARACTERSET, false);
+  }
+
+  /**
+   * encodes a file to base64 using the standard base64 character set.
+   * Optionally includes a CRLF every 76th character according to MIME spec
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base64 characters to
+   * @param includeLinebreaks
+   *          whether to include a CRLF after every 76 characters
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  public static void encodeFile(Path in, Path out, boolean includeLinebreaks) throws IOException {
+    encodeFile(in, out, Base64Util.CHARACTERSET, includeLinebreaks);
+  }
+
+  /**
+   * encodes a file to base64 using the supplied character set. The input is
+   * memory mapped window by window. Optionally includes a CRLF every 76th
+   * character according to MIME spec
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base64 characters to
+   * @param characterSet
+   *          the character set to use
+   * @param includeLinebreaks
+   *          whether to include a CRLF every 76th character
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  public static void encodeFile(Path in, Path out, String characterSet, boolean includeLinebreaks)
+      throws IOException {
+    encodeFile(in, out, characterSet, includeLinebreaks ? MIME_LINE_LENGTH : 0, MIME_LINE_SEPARATOR);
+  }
+
+  /**
+   * encodes a file to base64 using the supplied character set, wrapping the
+   * lines after lineLength characters. The input is memory mapped window by
+   * window
+   * 
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the base64 characters to
+   * @param characterSet
+   *          the character set to use
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @throws IOException
+   *           if a file could not be read or written
+   * @throws IllegalArgumentException
+   *           if the line separator contains anything but whitespace
+   */
+  public static void encodeFile(Path in, Path out, String characterSet, int lineLength, String lineSeparator)
+      throws IOException {
+    MappedFileCodec.encode(in, out, Base64Codec.of(characterSet).withLineLength(lineLength, lineSeparator));
+  }
+
+  /**
+   * encodes a byte array to base64 in parallel using the standard base64
+   * character set. Chunks of {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are
+   * encoded on the common {@link ForkJoinPool}
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @return the base64 encoded array
+   */
+  public static byte[] encodeParallel(byte[] byteArray) {
+
+    return encodeParallel(byteArray, Base64Util.CHARACTERSET, DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * encodes a byte array to base64 in parallel. The input is split at 3 byte
+   * boundaries into chunks of about threshold bytes, each chunk is encoded
+   * straight into its region of the result
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param characterSet
+   *          the character set to use
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to encode the chunks on
+   * @return the base64 encoded array
+   */
+  public static byte[] encodeParallel(byte[] byteArray, String characterSet, int threshold, ForkJoinPool pool) {
+    Alphabet alphabet = Alphabet.of(characterSet);
+
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = ParallelCodec.encode(byteArray, 6, threshold, pool,
+        (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * encodes a batch of byte arrays to base64 strings using the standard base64
+   * character set. The items are encoded on virtual threads if available, see
+   * {@link #encodeAll(List, String, Executor)}
+   * 
+   * @param byteArrays
+   *          the byte arrays to encode
+   * @return the base64 strings in input order
+   */
+  public static BatchResult<String> encodeAll(List<byte[]> byteArrays) {
+
+    return encodeAll(byteArrays, Base64Util.CHARACTERSET, BatchCodec.defaultExecutor());
+  }
+
+  /**
+   * encodes a batch of byte arrays to base64 strings. The alphabet is resolved
+   * once for the whole batch and every task encodes through a single scratch
+   * array, tasks of 512 items run on the supplied executor, smaller batches
+   * are encoded on the calling thread. A failing item (i.E. null) does not
+   * affect the other items
+   * 
+   * @param byteArrays
+   *          the byte arrays to encode
+   * @param characterSet
+   *          the character set to use
+   * @param executor
+   *          the executor to encode the items on
+   * @return the base64 strings in input order
+   */
+  public static BatchResult<String> encodeAll(List<byte[]> byteArrays, String characterSet, Executor executor) {
+    Alphabet alphabet = Alphabet.of(characterSet);
+
+    return BatchCodec.encode(byteArrays, 6, executor,
+        (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source, sourceOffset, length,
+            destination, destinationOffset, alphabet));
+  }
+
+  /**
+   * encodes a range of bytes into the destination array. If the length is not
+   * a multiple of 3, the last quantum gets padded
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base64 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   */
+  static int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    byte[] encodeTable = alphabet.encodeTable;
+    int overflow = length % 3;
+    int end = sourceOffset + length - overflow;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+
+    if (VectorCodec.AVAILABLE && length >= VECTOR_THRESHOLD) {
+      int encoded = VectorCodec.encodeBase64(source, position, end - position, destination, resultPosition,
+          alphabet);
+      position += encoded;
+      resultPosition += encoded / 3 * 4;
     }
 
+    encodeQuanta(source, position, end, sourceOffset + length, destination, resultPosition, alphabet);
+    resultPosition += (end - position) / 3 * 4;
+    position = end;
+
     // properly pad the last bytes
     if (overflow > 0) {
-      int padWidth = 3 - overflow;
-      for (int i = 1; i <= padWidth; i++) {
-        result[result.length - i] = (byte) '=';
+      int n = (source[position] & 0xFF) << 16;
+      if (overflow == 2) {
+        n |= (source[position + 1] & 0xFF) << 8;
       }
-    } else {
-      // get rid of the last 4 bytes
-      result = Arrays.copyOf(result, result.length - 4);
+      destination[resultPosition++] = encodeTable[(n >>> 18) & 0x3F];
+      destination[resultPosition++] = encodeTable[(n >>> 12) & 0x3F];
+      destination[resultPosition++] = overflow == 2 ? encodeTable[(n >>> 6) & 0x3F] : (byte) '=';
+      destination[resultPosition++] = (byte) '=';
     }
 
-    return result;
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * encodes the complete quanta from position to end with the word at a time
+   * and the scalar loop. The word loop may read, but does not encode, the
+   * bytes up to readEnd
+   */
+  private static void encodeQuanta(byte[] source, int position, int end, int readEnd, byte[] destination,
+      int resultPosition, Alphabet alphabet) {
+    byte[] encodeTable = alphabet.encodeTable;
+    short[] encodePairTable = alphabet.encodePairTable;
+    if (wordAtATime && encodePairTable != null && encodePairTable.length == 4096) {
+      // read 8 bytes at once, of which the upper 6 bytes become 8 characters.
+      // every 12 bit of those are resolved to two characters at once
+      int wordEnd = Math.min(readEnd - 8, end - 6);
+      while (position <= wordEnd) {
+        long word = (long) LONG_BIG_ENDIAN.get(source, position);
+        long characters = ((long) encodePairTable[(int) (word >>> 52)] << 48)
+            | ((long) encodePairTable[(int) (word >>> 40) & 0xFFF] << 32)
+            | ((long) encodePairTable[(int) (word >>> 28) & 0xFFF] << 16)
+            | encodePairTable[(int) (word >>> 16) & 0xFFF];
+        LONG_BIG_ENDIAN.set(destination, resultPosition, characters);
+        position += 6;
+        resultPosition += 8;
+      }
+    }
+
+    // the scalar loop handles everything the word loop could not read at once
+    while (position < end) {
+      // these three 8-bit (ASCII) characters become one 24-bit number
+      int n = ((source[position++] & 0xFF) << 16) | ((source[position++] & 0xFF) << 8) | (source[position++] & 0xFF);
+
+      // this 24-bit number gets separated into four 6-bit numbers
+      destination[resultPosition++] = encodeTable[(n >>> 18) & 0x3F];
+      destination[resultPosition++] = encodeTable[(n >>> 12) & 0x3F];
+      destination[resultPosition++] = encodeTable[(n >>> 6) & 0x3F];
+      destination[resultPosition++] = encodeTable[n & 0x3F];
+    }
+  }
+
+  /**
+   * encodes a range of bytes into the destination array and includes the line
+   * separator after every lineLength characters, but not after the last line
+   * 
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base64 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @param lineLength
+   *          the amount of characters per line, a multiple of 4. No line
+   *          separators are included if it is 0
+   * @param lineSeparator
+   *          the line separator
+   * @return the amount of characters written
+   */
+  static int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet, int lineLength, byte[] lineSeparator) {
+    int bytesPerLine = lineLength / 4 * 3;
+    if (bytesPerLine <= 0) {
+      return encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+    }
+
+    int end = sourceOffset + length;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+    int lineStep = lineLength + lineSeparator.length;
+
+    if (VectorCodec.AVAILABLE) {
+      // the vectorized kernel works on more bytes than a line holds, so a
+      // block of lines is encoded at once and spread out to its lines while
+      // it is still in the cache
+      int linesPerBlock = Math.max(WRAP_BLOCK_SIZE / bytesPerLine, 1);
+      int bytesPerBlock = linesPerBlock * bytesPerLine;
+      while (end - position > bytesPerBlock) {
+        encodeRange(source, position, bytesPerBlock, destination, resultPosition, alphabet);
+        for (int line = linesPerBlock - 1; line >= 0; line--) {
+          int linePosition = resultPosition + line * lineStep;
+          if (line > 0) {
+            System.arraycopy(destination, resultPosition + line * lineLength, destination, linePosition, lineLength);
+          }
+          for (int i = 0; i < lineSeparator.length; i++) {
+            destination[linePosition + lineLength + i] = lineSeparator[i];
+          }
+        }
+        position += bytesPerBlock;
+        resultPosition += linesPerBlock * lineStep;
+      }
+    }
+
+    // every line is a run of complete quanta, so the separators are written
+    // between the lines without any copying
+    while (end - position > bytesPerLine) {
+      int lineEnd = position + bytesPerLine;
+      encodeQuanta(source, position, lineEnd, end, destination, resultPosition, alphabet);
+      position = lineEnd;
+      resultPosition += lineLength;
+
+      for (byte b : lineSeparator) {
+        destination[resultPosition++] = b;
+      }
+    }
+    resultPosition += encodeRange(source, position, end - position, destination, resultPosition, alphabet);
+
+    return resultPosition - destinationOffset;
   }
 
   /**
@@ -225,7 +1239,7 @@ public class Base64Util extends AbstractBitUtil {
    * @return the base64 string
    */
   public static String encodeToString(byte[] byteArray) {
-    return encodeToString(byteArray, Base64Util.CHARACTERSET, false);
+    return Base64Codec.STANDARD.encodeToString(byteArray);
   }
 
   /**
@@ -235,7 +1249,7 @@ public class Base64Util extends AbstractBitUtil {
    * @param byteArray
    *          the byte array to encode
    * @param includeLinebreaks
-   *          whether to include newlines every 76th character
+   *          whether to include a CRLF after every 76 characters
    * @return the base64 string
    */
   public static String encodeToString(byte[] byteArray, boolean includeLinebreaks) {
@@ -252,33 +1266,108 @@ public class Base64Util extends AbstractBitUtil {
    * @param characterSet
    *          the character set to use
    * @param includeLinebreaks
-   *          whether to include newlines every 76th character
+   *          whether to include a CRLF after every 76 characters
    * @return the base64 string
    */
   public static String encodeToString(byte[] byteArray, String characterSet, boolean includeLinebreaks) {
-    byte[] encodedResult = null;
-    byte[] encodedArray = encode(byteArray, characterSet);
-
     // include newlines according to mime spec?
     if (includeLinebreaks) {
-      // how many newlines to include
-      int neededLinebreaks = encodedArray.length / 76;
-      encodedResult = new byte[encodedArray.length + neededLinebreaks];
-
-      int encodedResultPosition = 0;
-      for (int i = 0; i < encodedArray.length; i++) {
-        // if we hit the 76th character of this line, include a line separator
-        if (i > 0 && i % 76 == 0) {
-          encodedResult[encodedResultPosition++] = System.lineSeparator().getBytes()[0];
-        }
-
-        encodedResult[encodedResultPosition++] = encodedArray[i];
-      }
-    } else {
-      encodedResult = encode(byteArray);
+      return encodeToString(byteArray, characterSet, MIME_LINE_LENGTH, MIME_LINE_SEPARATOR);
     }
 
-    return new String(encodedResult);
+    return new String(encode(byteArray, characterSet), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * returns the base64 encoded representation of a byte array, according to
+   * the supplied character set. A line separator is included after every
+   * lineLength characters
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param characterSet
+   *          the character set to use
+   * @param lineLength
+   *          the amount of characters per line, rounded down to a multiple of
+   *          4. No line separators are included if it is less than 4
+   * @param lineSeparator
+   *          the line separator, i.E. CRLF or LF
+   * @return the base64 string
+   */
+  public static String encodeToString(byte[] byteArray, String characterSet, int lineLength, String lineSeparator) {
+
+    return new String(encode(byteArray, Alphabet.of(characterSet), lineLength, lineSeparator),
+        StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * encodes a byte array to base64 using the standard base64 character set
+   * and appends the characters to the supplied appendable, i.E. a
+   * {@link StringBuilder}. The input is encoded chunk by chunk, so neither
+   * the complete encoded array nor a string is built
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the appendable to append the base64 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Appendable out) throws IOException {
+    encodeTo(byteArray, Base64Util.CHARACTERSET, out);
+  }
+
+  /**
+   * encodes a byte array to base64 and appends the characters to the
+   * supplied appendable. The input is encoded chunk by chunk, so neither the
+   * complete encoded array nor a string is built
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param characterSet
+   *          the character set to use
+   * @param out
+   *          the appendable to append the base64 characters to
+   * @throws IOException
+   *           if the appendable could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, String characterSet, Appendable out) throws IOException {
+    Alphabet alphabet = Alphabet.of(characterSet);
+
+    encodeTo(byteArray, out, 6, (source, sourceOffset, length, destination, destinationOffset) -> encodeRange(source,
+        sourceOffset, length, destination, destinationOffset, alphabet));
+  }
+
+  /**
+   * encodes a byte array to base64 using the standard base64 character set
+   * and writes the characters to the supplied writer
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param out
+   *          the writer to write the base64 characters to
+   * @throws IOException
+   *           if the writer could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, Writer out) throws IOException {
+    encodeTo(byteArray, Base64Util.CHARACTERSET, (Appendable) out);
+  }
+
+  /**
+   * encodes a byte array to base64 and writes the characters to the supplied
+   * writer
+   * 
+   * @param byteArray
+   *          the byte array to encode
+   * @param characterSet
+   *          the character set to use
+   * @param out
+   *          the writer to write the base64 characters to
+   * @throws IOException
+   *           if the writer could not be written to
+   */
+  public static void encodeTo(byte[] byteArray, String characterSet, Writer out) throws IOException {
+    encodeTo(byteArray, characterSet, (Appendable) out);
   }
 
   /**
@@ -299,7 +1388,7 @@ public class Base64Util extends AbstractBitUtil {
    * @param toEncode
    *          the string to encode
    * @param includeLinebreaks
-   *          whether to include newlines every 76th character
+   *          whether to include a CRLF after every 76 characters
    * @return the base64 encoded string
    */
   public static String encodeToString(String toEncode, boolean includeLinebreaks) {
@@ -315,7 +1404,7 @@ public class Base64Util extends AbstractBitUtil {
    * @param characterSet
    *          the character set to use
    * @param includeLinebreaks
-   *          whether to include newlines every 76th character
+   *          whether to include a CRLF after every 76 characters
    * @return the base64 encoded string
    */
   public static String encodeToString(String toEncode, String characterSet, boolean includeLinebreaks) {
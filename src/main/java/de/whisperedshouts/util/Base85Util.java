@@ -0,0 +1,635 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Base85 fasst jeweils vier Bytes (32 Bit) zu einer Zahl zwischen 0 und
+ * 85^4 - 1 zusammen und gibt sie als fünf Ziffern zur Basis 85 aus, der
+ * Overhead beträgt damit nur 25% gegenüber 33% bei base64. Eine unvollständige
+ * letzte Gruppe von n Bytes wird mit Nullbytes aufgefüllt und nur mit den
+ * ersten n + 1 Zeichen ausgegeben, ein Padding-Zeichen gibt es nicht.
+ *
+ * Unterstützt werden Ascii85 (die Zeichen ! bis u, eine Gruppe aus vier
+ * Nullbytes wird als z abgekürzt) und Z85 von ZeroMQ. Die Begrenzer &lt;~ und
+ * ~&gt; von Adobe werden weder geschrieben noch erwartet.
+ *
+ * Encoding divides by 85 through a multiplication with its reciprocal,
+ * decoding resolves the characters by the decode table of the alphabet. Since
+ * an invalid base85 character can not be masked into a meaningful value, the
+ * decoders throw an {@link IllegalArgumentException} holding its offset.
+ *
+ * @author mario.ragucci
+ *
+ */
+public class Base85Util extends AbstractBitUtil {
+  /**
+   * the Ascii85 characterset, the characters from ! to u
+   */
+  public static final String     ASCII85_CHARSET = "!\"#$%&'()*+,-./0123456789:;<=>?@"
+                                                 + "ABCDEFGHIJKLMNOPQRSTUVWXYZ[\\]^_`"
+                                                 + "abcdefghijklmnopqrstu";
+  /**
+   * the Z85 characterset defined by ZeroMQ, safe to use in source code and
+   * XML
+   */
+  public static final String     Z85_CHARSET     = "0123456789abcdefghijklmnopqrstuvwxyz"
+                                                 + "ABCDEFGHIJKLMNOPQRSTUVWXYZ.-:+=^!/*?&<>()[]{}@%$#";
+
+  /**
+   * the only alphabet abbreviating a group of four zero bytes
+   */
+  private static final Alphabet  ASCII85         = Alphabet.of(ASCII85_CHARSET);
+  private static final byte      ZERO_GROUP      = 'z';
+  /**
+   * 2^38 / 85 rounded up. (value * RECIPROCAL) &gt;&gt;&gt; 38 equals value /
+   * 85 for every unsigned 32 bit value
+   */
+  private static final long      RECIPROCAL      = 0xC0C0C0C1L;
+  private static final VarHandle INT_BIG_ENDIAN  = MethodHandles.byteArrayViewVarHandle(int[].class,
+      ByteOrder.BIG_ENDIAN);
+
+  /**
+   * decodes an Ascii85 encoded byte array
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(byte[] byteArray) {
+
+    return decode(byteArray, ASCII85);
+  }
+
+  /**
+   * decodes a base85 encoded byte array with the characterset supplied, i.E.
+   * {@link #Z85_CHARSET}
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @param base85Charset
+   *          the character set to use
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(byte[] byteArray, String base85Charset) {
+
+    return decode(byteArray, Alphabet.of(base85Charset));
+  }
+
+  /**
+   * decodes a base85 encoded byte array with the alphabet supplied
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    byte[] result = new byte[decodedLength(byteArray, 0, byteArray.length, alphabet)];
+    decodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, result.length);
+
+    return result;
+  }
+
+  /**
+   * returns the amount of base85 characters the encoding of length bytes
+   * takes at most. Ascii85 output is shorter if it contains groups of four
+   * zero bytes
+   *
+   * @param length
+   *          the amount of bytes to encode
+   * @return the amount of base85 characters
+   * @throws IllegalArgumentException
+   *           if the result would not fit into a single array
+   */
+  public static int encodedLength(int length) {
+    int overflow = length % 4;
+    long encodedLength = (long) (length / 4) * 5 + (overflow > 0 ? overflow + 1 : 0);
+    if (encodedLength > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("input too large to be encoded into a single array");
+    }
+
+    return (int) encodedLength;
+  }
+
+  /**
+   * returns the exact amount of bytes a range of Ascii85 characters decodes
+   * to. Whitespace is not counted
+   *
+   * @param source
+   *          the array holding the Ascii85 characters
+   * @param offset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters
+   * @return the amount of decoded bytes
+   */
+  public static int decodedLength(byte[] source, int offset, int length) {
+    checkRange(source, offset, length);
+
+    return decodedLength(source, offset, length, ASCII85);
+  }
+
+  private static int decodedLength(byte[] source, int offset, int length, Alphabet alphabet) {
+    boolean zeroGroups = alphabet == ASCII85;
+    long characters = 0;
+    long zeroBytes = 0;
+    for (int position = offset; position < offset + length; position++) {
+      byte b = source[position];
+      if (zeroGroups && b == ZERO_GROUP) {
+        zeroBytes += 4;
+      } else if (!isWhitespace(b)) {
+        characters++;
+      }
+    }
+
+    // an incomplete last group of n + 1 characters holds n bytes
+    long decodedLength = zeroBytes + characters / 5 * 4 + Math.max(characters % 5 - 1, 0);
+    if (decodedLength > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("input too large to be decoded into a single array");
+    }
+
+    return (int) decodedLength;
+  }
+
+  /**
+   * decodes a range of Ascii85 characters into the supplied array. Whitespace
+   * is skipped. Nothing is allocated
+   *
+   * @param source
+   *          the array holding the Ascii85 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to, must have room for
+   *          {@link #decodedLength(byte[], int, int)} bytes
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return decode(source, sourceOffset, length, destination, destinationOffset, ASCII85);
+  }
+
+  /**
+   * decodes a range of base85 characters into the supplied array using the
+   * supplied alphabet. Whitespace is skipped
+   *
+   * @param source
+   *          the array holding the base85 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static int decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, 0);
+    // a zero group decodes 1 character to 4 bytes
+    long upperBound = alphabet == ASCII85 ? (long) length * 4 : (long) length * 4 / 5;
+    if (upperBound > destination.length - destinationOffset) {
+      checkRange(destination, destinationOffset, decodedLength(source, sourceOffset, length, alphabet));
+    }
+
+    return decodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * decodes a range of base85 characters into the destination array.
+   * Whitespace is skipped, an incomplete last group of n + 1 characters is
+   * decoded to n bytes
+   *
+   * @param source
+   *          the array holding the base85 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters to decode
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes written
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  static int decodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    byte[] decodeTable = alphabet.decodeTable;
+    boolean zeroGroups = alphabet == ASCII85;
+    int end = sourceOffset + length;
+    int resultPosition = destinationOffset;
+    long number = 0;
+    int characters = 0;
+    for (int position = sourceOffset; position < end; position++) {
+      if (characters == 0) {
+        // complete groups are decoded 5 characters at once, until
+        // whitespace, a zero group or an invalid character shows up
+        while (position <= end - 5) {
+          int c0 = decodeTable[source[position] & 0xFF];
+          int c1 = decodeTable[source[position + 1] & 0xFF];
+          int c2 = decodeTable[source[position + 2] & 0xFF];
+          int c3 = decodeTable[source[position + 3] & 0xFF];
+          int c4 = decodeTable[source[position + 4] & 0xFF];
+          if ((c0 | c1 | c2 | c3 | c4) < 0) {
+            break;
+          }
+          long group = c0 * 52200625L + c1 * 614125 + c2 * 7225 + c3 * 85 + c4;
+          if (group > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("group exceeds 32 bit at offset " + (position - sourceOffset));
+          }
+          INT_BIG_ENDIAN.set(destination, resultPosition, (int) group);
+          position += 5;
+          resultPosition += 4;
+        }
+        if (position == end) {
+          break;
+        }
+      }
+
+      byte b = source[position];
+      int resolved = decodeTable[b & 0xFF];
+      if (resolved < 0) {
+        if (zeroGroups && b == ZERO_GROUP && characters == 0) {
+          INT_BIG_ENDIAN.set(destination, resultPosition, 0);
+          resultPosition += 4;
+          continue;
+        } else if (isWhitespace(b)) {
+          continue;
+        }
+        throw new IllegalArgumentException("invalid character at offset " + (position - sourceOffset));
+      }
+      number = number * 85 + resolved;
+
+      if (++characters == 5) {
+        if (number > 0xFFFFFFFFL) {
+          throw new IllegalArgumentException("group exceeds 32 bit at offset " + (position - sourceOffset));
+        }
+        INT_BIG_ENDIAN.set(destination, resultPosition, (int) number);
+        resultPosition += 4;
+        number = 0;
+        characters = 0;
+      }
+    }
+
+    // the missing characters of an incomplete last group are the highest
+    // digit, so the group rounds up to its bytes
+    if (characters > 0) {
+      if (characters == 1) {
+        throw new IllegalArgumentException("incomplete group of a single character at the end of the input");
+      }
+      for (int i = characters; i < 5; i++) {
+        number = number * 85 + 84;
+      }
+      if (number > 0xFFFFFFFFL) {
+        throw new IllegalArgumentException("group exceeds 32 bit at the end of the input");
+      }
+      for (int i = 0; i < characters - 1; i++) {
+        destination[resultPosition++] = (byte) (number >>> (24 - i * 8));
+      }
+    }
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * decodes an Ascii85 encoded string
+   *
+   * @param base85Encoded
+   *          the string to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(String base85Encoded) {
+
+    return decode((CharSequence) base85Encoded, ASCII85_CHARSET);
+  }
+
+  /**
+   * decodes a base85 encoded string using the supplied character set
+   *
+   * @param base85Encoded
+   *          the string to decode
+   * @param base85Charset
+   *          the character set to use
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(String base85Encoded, String base85Charset) {
+
+    return decode((CharSequence) base85Encoded, base85Charset);
+  }
+
+  /**
+   * decodes Ascii85 characters
+   *
+   * @param base85Encoded
+   *          the Ascii85 characters to decode
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(CharSequence base85Encoded) {
+
+    return decode(base85Encoded, ASCII85_CHARSET);
+  }
+
+  /**
+   * decodes base85 characters using the supplied character set. Characters
+   * outside of ISO-8859-1 are reported as invalid
+   *
+   * @param base85Encoded
+   *          the base85 characters to decode
+   * @param base85Charset
+   *          the character set to use
+   * @return the decoded byte array
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static byte[] decode(CharSequence base85Encoded, String base85Charset) {
+    Alphabet alphabet = Alphabet.of(base85Charset);
+    CodecMetrics.CodecEvent event = CodecMetrics.beginDecode();
+    int length = base85Encoded.length();
+    byte[] characters = BufferPool.acquireBytes(length);
+    try {
+      // base85 has no whitespace or control characters, so 0 is never decoded
+      for (int i = 0; i < length; i++) {
+        char c = base85Encoded.charAt(i);
+        characters[i] = c < 256 ? (byte) c : 0;
+      }
+      byte[] result = new byte[decodedLength(characters, 0, length, alphabet)];
+      decodeRange(characters, 0, length, result, 0, alphabet);
+      CodecMetrics.end(event, alphabet, length, result.length);
+
+      return result;
+    } finally {
+      BufferPool.release(characters);
+    }
+  }
+
+  /**
+   * decode an Ascii85 encoded string to its original representation
+   *
+   * @param base85Encoded
+   *          the Ascii85 encoded string
+   * @return the decoded string
+   * @throws IllegalArgumentException
+   *           if the input contains an invalid character or group
+   */
+  public static String decodeToString(String base85Encoded) {
+
+    return new String(decode(base85Encoded));
+  }
+
+  /**
+   * encodes a byte array to Ascii85
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the Ascii85 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray) {
+
+    return encode(byteArray, ASCII85);
+  }
+
+  /**
+   * encodes a byte array to base85 with the characterset supplied, i.E.
+   * {@link #Z85_CHARSET}
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param base85Charset
+   *          the characterset to use
+   * @return the base85 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, String base85Charset) {
+
+    return encode(byteArray, Alphabet.of(base85Charset));
+  }
+
+  /**
+   * encodes a byte array to base85 with the alphabet supplied
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param alphabet
+   *          the alphabet to use
+   * @return the base85 encoded byte array
+   */
+  public static byte[] encode(byte[] byteArray, Alphabet alphabet) {
+    CodecMetrics.CodecEvent event = CodecMetrics.beginEncode();
+    byte[] result = new byte[encodedLength(byteArray.length)];
+    int written = encodeRange(byteArray, 0, byteArray.length, result, 0, alphabet);
+    CodecMetrics.end(event, alphabet, byteArray.length, written);
+
+    // zero groups shorten Ascii85 output
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * encodes a range of bytes to Ascii85 into the supplied array. Nothing is
+   * allocated
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the Ascii85 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset) {
+
+    return encode(source, sourceOffset, length, destination, destinationOffset, ASCII85);
+  }
+
+  /**
+   * encodes a range of bytes to base85 into the supplied array using the
+   * supplied alphabet
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base85 characters to, must have room for
+   *          {@link #encodedLength(int)} characters
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   * @throws IndexOutOfBoundsException
+   *           if a range does not lie within its array
+   */
+  public static int encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    checkRange(source, sourceOffset, length);
+    checkRange(destination, destinationOffset, encodedLength(length));
+
+    return encodeRange(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * encodes a range of bytes into the destination array. An incomplete last
+   * group of n bytes is encoded to n + 1 characters
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes to encode
+   * @param destination
+   *          the array to write the base85 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters written
+   */
+  static int encodeRange(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    byte[] encodeTable = alphabet.encodeTable;
+    boolean zeroGroups = alphabet == ASCII85;
+    int end = sourceOffset + length;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+
+    // every 4 bytes are read as one unsigned 32 bit word
+    while (position <= end - 4) {
+      long group = (int) INT_BIG_ENDIAN.get(source, position) & 0xFFFFFFFFL;
+      position += 4;
+      if (zeroGroups && group == 0) {
+        destination[resultPosition++] = ZERO_GROUP;
+        continue;
+      }
+      encodeGroup(group, destination, resultPosition, 5, encodeTable);
+      resultPosition += 5;
+    }
+
+    // the incomplete last group, missing bytes are zero
+    int remaining = end - position;
+    if (remaining > 0) {
+      long group = 0;
+      for (int i = 0; i < remaining; i++) {
+        group |= (long) (source[position + i] & 0xFF) << (24 - i * 8);
+      }
+      encodeGroup(group, destination, resultPosition, remaining + 1, encodeTable);
+      resultPosition += remaining + 1;
+    }
+
+    return resultPosition - destinationOffset;
+  }
+
+  /**
+   * writes the first characters of the five base85 digits of a 32 bit group.
+   * The digits are computed from the least significant one by multiplying
+   * with the reciprocal of 85 instead of dividing
+   */
+  private static void encodeGroup(long group, byte[] destination, int resultPosition, int characters,
+      byte[] encodeTable) {
+    long q1 = (group * RECIPROCAL) >>> 38;
+    long q2 = (q1 * RECIPROCAL) >>> 38;
+    long q3 = (q2 * RECIPROCAL) >>> 38;
+    long q4 = (q3 * RECIPROCAL) >>> 38;
+
+    destination[resultPosition] = encodeTable[(int) q4];
+    destination[resultPosition + 1] = encodeTable[(int) (q3 - q4 * 85)];
+    if (characters > 2) {
+      destination[resultPosition + 2] = encodeTable[(int) (q2 - q3 * 85)];
+    }
+    if (characters > 3) {
+      destination[resultPosition + 3] = encodeTable[(int) (q1 - q2 * 85)];
+    }
+    if (characters > 4) {
+      destination[resultPosition + 4] = encodeTable[(int) (group - q1 * 85)];
+    }
+  }
+
+  /**
+   * encodes a byte array to an Ascii85 encoded string
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @return the encoded String
+   */
+  public static String encodeToString(byte[] byteArray) {
+
+    return new String(encode(byteArray), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * encodes a byte array to base85 using the supplied character set
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param base85Charset
+   *          the character set to use
+   * @return the base85 encoded string
+   */
+  public static String encodeToString(byte[] byteArray, String base85Charset) {
+
+    return new String(encode(byteArray, base85Charset), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * encodes a string to Ascii85
+   *
+   * @param toEncode
+   *          the string to encode
+   * @return the Ascii85 encoded string
+   */
+  public static String encodeToString(String toEncode) {
+
+    return encodeToString(toEncode.getBytes());
+  }
+}
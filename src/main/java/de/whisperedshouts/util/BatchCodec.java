@@ -0,0 +1,192 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encodes or decodes many small items at once. The alphabet is resolved once
+ * per batch and every task encodes through a single scratch array, so the
+ * only allocation per item is its result.
+ *
+ * The items are split into tasks of {@link #ITEMS_PER_TASK} items that run on
+ * the supplied executor, smaller batches (or any batch on a single core) are
+ * processed on the calling thread. A failing item is recorded in the
+ * {@link BatchResult} and does not affect the other items.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class BatchCodec {
+  /**
+   * the amount of items processed by a single task
+   */
+  static final int ITEMS_PER_TASK = 512;
+
+  private BatchCodec() {
+  }
+
+  /**
+   * @return an executor starting a virtual thread per task if the runtime
+   *         supports them (java 21 and later, or 19 and 20 with preview
+   *         features enabled), the common {@link ForkJoinPool} otherwise
+   */
+  static Executor defaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  /**
+   * encodes every item of the batch to a string
+   *
+   * @param items
+   *          the byte arrays to encode
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param executor
+   *          the executor to run the tasks on
+   * @param encoder
+   *          the encoder for a single item
+   * @return the encoded strings in input order
+   */
+  static BatchResult<String> encode(List<byte[]> items, int bitsPerCharacter, Executor executor,
+      ParallelCodec.RangeCodec encoder) {
+    BatchResult<String> result = new BatchResult<>(items.size());
+    run(items.size(), executor, (from, to) -> {
+      byte[] scratch = BufferPool.acquireBytes(256);
+      for (int i = from; i < to; i++) {
+        try {
+          byte[] item = items.get(i);
+          int length = AbstractBitUtil.encodedLength(item.length, bitsPerCharacter);
+          if (scratch.length < length) {
+            BufferPool.release(scratch);
+            scratch = BufferPool.acquireBytes(Math.max(length, scratch.length * 2));
+          }
+          int written = encoder.apply(item, 0, item.length, scratch, 0);
+          result.set(i, new String(scratch, 0, written, StandardCharsets.ISO_8859_1));
+        } catch (RuntimeException e) {
+          result.fail(i, e);
+        }
+      }
+      BufferPool.release(scratch);
+    });
+
+    return result;
+  }
+
+  /**
+   * decodes every item of the batch. Whitespace is skipped and a missing
+   * padding is tolerated, but unlike the single item decoders invalid
+   * characters fail the item
+   *
+   * @param items
+   *          the encoded characters
+   * @param alphabet
+   *          the alphabet to use
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param executor
+   *          the executor to run the tasks on
+   * @return the decoded byte arrays in input order
+   */
+  static BatchResult<byte[]> decode(List<? extends CharSequence> items, Alphabet alphabet, int bitsPerCharacter,
+      Executor executor) {
+    BatchResult<byte[]> result = new BatchResult<>(items.size());
+    run(items.size(), executor, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        try {
+          result.set(i, decode(items.get(i), alphabet, bitsPerCharacter));
+        } catch (RuntimeException e) {
+          result.fail(i, e);
+        }
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * validates the characters and counts the decoded bytes in one pass, then
+   * decodes into an exactly sized array
+   */
+  private static byte[] decode(CharSequence source, Alphabet alphabet, int bitsPerCharacter) {
+    byte[] decodeTable = alphabet.decodeTable;
+    int length = source.length();
+    int characters = 0;
+    int paddingCharacters = 0;
+    for (int i = 0; i < length; i++) {
+      char c = source.charAt(i);
+      int resolved = c < 256 ? decodeTable[c] : Alphabet.INVALID;
+      if (resolved >= 0 && paddingCharacters == 0) {
+        characters++;
+      } else if (resolved == Alphabet.PADDING) {
+        paddingCharacters++;
+      } else if (resolved != Alphabet.SKIP && (c >= 256 || !AbstractBitUtil.isWhitespace((byte) c))) {
+        throw new IllegalArgumentException("invalid character at offset " + i);
+      }
+    }
+
+    byte[] result = new byte[(int) ((long) characters * bitsPerCharacter / 8)];
+    AbstractBitUtil.decodeCharacters(source, result, alphabet, bitsPerCharacter);
+
+    return result;
+  }
+
+  private static void run(int size, Executor executor, Task task) {
+    // a single core gains nothing from handing the items to other threads
+    int tasks = (size + ITEMS_PER_TASK - 1) / ITEMS_PER_TASK;
+    if (tasks <= 1 || Runtime.getRuntime().availableProcessors() == 1) {
+      task.run(0, size);
+      return;
+    }
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+    for (int i = 0; i < tasks; i++) {
+      int from = i * ITEMS_PER_TASK;
+      int to = Math.min(from + ITEMS_PER_TASK, size);
+      futures[i] = CompletableFuture.runAsync(() -> task.run(from, to), executor);
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  /**
+   * processes the items from (inclusive) to to (exclusive)
+   */
+  private interface Task {
+    void run(int from, int to);
+  }
+
+  /**
+   * looks up the virtual thread executor on first use, this class is compiled
+   * for java 11
+   */
+  private static final class DefaultExecutorHolder {
+    private static final Executor EXECUTOR = create();
+
+    private static Executor create() {
+      MethodHandle factory;
+      try {
+        factory = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+            MethodType.methodType(ExecutorService.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        return ForkJoinPool.commonPool();
+      }
+
+      try {
+        return (ExecutorService) factory.invokeExact();
+      } catch (Throwable e) {
+        // a preview api on java 19 and 20, which fails without --enable-preview
+        return ForkJoinPool.commonPool();
+      }
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The results of a batch encode or decode, in the order of the input. An item
+ * that could not be processed has no value but the exception that occurred,
+ * the other items of the batch are not affected.
+ *
+ * Values and errors are held in two arrays instead of a wrapper per item, the
+ * error array is only allocated if an item failed.
+ *
+ * @author mario.ragucci
+ *
+ * @param <T>
+ *          the type of the values
+ */
+public final class BatchResult<T> {
+  private final Object[]              values;
+  private volatile RuntimeException[] errors;
+
+  BatchResult(int size) {
+    this.values = new Object[size];
+  }
+
+  void set(int index, T value) {
+    values[index] = value;
+  }
+
+  void fail(int index, RuntimeException error) {
+    RuntimeException[] e = errors;
+    if (e == null) {
+      synchronized (this) {
+        e = errors;
+        if (e == null) {
+          errors = e = new RuntimeException[values.length];
+        }
+      }
+    }
+    e[index] = error;
+  }
+
+  /**
+   * @return the amount of items in the batch
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @return whether any item of the batch failed
+   */
+  public boolean hasErrors() {
+    return errors != null;
+  }
+
+  /**
+   * returns whether the item at the supplied index was processed
+   *
+   * @param index
+   *          the index of the item in the input
+   * @return true if the item has a value
+   */
+  public boolean isSuccess(int index) {
+    return getError(index) == null;
+  }
+
+  /**
+   * returns the value of the item at the supplied index
+   *
+   * @param index
+   *          the index of the item in the input
+   * @return the value
+   * @throws IllegalStateException
+   *           if the item failed, the cause is the exception that occurred
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    RuntimeException error = getError(index);
+    if (error != null) {
+      throw new IllegalStateException("item " + index + " failed", error);
+    }
+
+    return (T) values[index];
+  }
+
+  /**
+   * returns the exception that occurred while processing the item at the
+   * supplied index
+   *
+   * @param index
+   *          the index of the item in the input
+   * @return the exception or null if the item was processed
+   */
+  public RuntimeException getError(int index) {
+    RuntimeException[] e = errors;
+    Objects.checkIndex(index, values.length);
+
+    return e == null ? null : e[index];
+  }
+
+  /**
+   * returns the values of all items, failed items are null
+   *
+   * @return an unmodifiable list of the values in input order
+   */
+  @SuppressWarnings("unchecked")
+  public List<T> getValues() {
+    return Collections.unmodifiableList((List<T>) Arrays.asList(values));
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool for the scratch buffers the codecs need internally, i.E. the
+ * chunk buffers of encodeTo or the byte copy of a base85 character sequence.
+ * Results handed to the caller never come from the pool.
+ *
+ * Buffers are kept in size classes of powers of two from 256 bytes up to the
+ * maximum buffer size. The pool is striped by thread, every stripe holds at
+ * most one buffer per size class, so taking and returning a buffer is a single
+ * atomic swap and the pool never holds more than stripes times twice the
+ * maximum buffer size per buffer type. Larger requests are allocated and
+ * dropped as before.
+ *
+ * The maximum buffer size defaults to 64 KiB and can be set with the system
+ * property "de.whisperedshouts.util.BufferPool.maxBufferSize" or
+ * {@link #setMaximumBufferSize(int)}. It is rounded down to a size class, a
+ * maximum below 256 disables the pool.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class BufferPool {
+  /**
+   * the largest maximum buffer size that can be configured
+   */
+  public static final int                           LIMIT             = 1 << 20;
+
+  private static final int                          MIN_SHIFT         = 8;
+  private static final int                          SIZE_CLASSES      = 20 - MIN_SHIFT + 1;
+  private static final int                          STRIPES           = stripes();
+  private static final AtomicReferenceArray<byte[]> BYTES             = new AtomicReferenceArray<>(
+      STRIPES * SIZE_CLASSES);
+  private static final AtomicReferenceArray<char[]> CHARS             = new AtomicReferenceArray<>(
+      STRIPES * SIZE_CLASSES);
+  private static final LongAdder                    HITS              = new LongAdder();
+  private static final LongAdder                    MISSES            = new LongAdder();
+
+  private static volatile int                       maximumBufferSize = normalize(
+      Integer.getInteger("de.whisperedshouts.util.BufferPool.maxBufferSize", 64 * 1024));
+
+  private BufferPool() {
+  }
+
+  /**
+   * @return the size of the largest buffer that is pooled, 0 if the pool is
+   *         disabled
+   */
+  public static int getMaximumBufferSize() {
+    return maximumBufferSize;
+  }
+
+  /**
+   * sets the size of the largest buffer that is pooled and empties the pool
+   *
+   * @param maximumBufferSize
+   *          the size in bytes or characters, at most {@link #LIMIT}. It is
+   *          rounded down to a power of two, values below 256 disable the pool
+   * @throws IllegalArgumentException
+   *           if the size is negative or above {@link #LIMIT}
+   */
+  public static void setMaximumBufferSize(int maximumBufferSize) {
+    if (maximumBufferSize < 0 || maximumBufferSize > LIMIT) {
+      throw new IllegalArgumentException("maximum buffer size has to be between 0 and " + LIMIT);
+    }
+    BufferPool.maximumBufferSize = normalize(maximumBufferSize);
+    for (int i = 0; i < STRIPES * SIZE_CLASSES; i++) {
+      BYTES.set(i, null);
+      CHARS.set(i, null);
+    }
+  }
+
+  /**
+   * @return the amount of requests that were served with a pooled buffer
+   */
+  public static long getHits() {
+    return HITS.sum();
+  }
+
+  /**
+   * @return the amount of requests that had to allocate, including those
+   *         above the maximum buffer size
+   */
+  public static long getMisses() {
+    return MISSES.sum();
+  }
+
+  /**
+   * resets the hit and miss counters
+   */
+  public static void resetStatistics() {
+    HITS.reset();
+    MISSES.reset();
+  }
+
+  /**
+   * takes a byte buffer of at least the requested length from the pool or
+   * allocates one. The content of the buffer is undefined
+   *
+   * @param minimumLength
+   *          the amount of bytes needed
+   * @return the buffer, to be handed back with {@link #release(byte[])}
+   */
+  static byte[] acquireBytes(int minimumLength) {
+    if (minimumLength <= maximumBufferSize) {
+      int sizeClass = sizeClass(minimumLength);
+      byte[] buffer = BYTES.getAndSet(slot(sizeClass), null);
+      if (buffer != null) {
+        HITS.increment();
+        return buffer;
+      }
+      MISSES.increment();
+      return new byte[1 << (sizeClass + MIN_SHIFT)];
+    }
+    MISSES.increment();
+
+    return new byte[minimumLength];
+  }
+
+  /**
+   * takes a char buffer of at least the requested length from the pool or
+   * allocates one. The content of the buffer is undefined
+   *
+   * @param minimumLength
+   *          the amount of characters needed
+   * @return the buffer, to be handed back with {@link #release(char[])}
+   */
+  static char[] acquireChars(int minimumLength) {
+    if (minimumLength <= maximumBufferSize) {
+      int sizeClass = sizeClass(minimumLength);
+      char[] buffer = CHARS.getAndSet(slot(sizeClass), null);
+      if (buffer != null) {
+        HITS.increment();
+        return buffer;
+      }
+      MISSES.increment();
+      return new char[1 << (sizeClass + MIN_SHIFT)];
+    }
+    MISSES.increment();
+
+    return new char[minimumLength];
+  }
+
+  /**
+   * hands a byte buffer back to the pool. Buffers that do not match a size
+   * class or find their slot taken are dropped
+   *
+   * @param buffer
+   *          the buffer taken with {@link #acquireBytes(int)}
+   */
+  static void release(byte[] buffer) {
+    if (isPoolable(buffer.length)) {
+      BYTES.compareAndSet(slot(sizeClass(buffer.length)), null, buffer);
+    }
+  }
+
+  /**
+   * hands a char buffer back to the pool. Buffers that do not match a size
+   * class or find their slot taken are dropped
+   *
+   * @param buffer
+   *          the buffer taken with {@link #acquireChars(int)}
+   */
+  static void release(char[] buffer) {
+    if (isPoolable(buffer.length)) {
+      CHARS.compareAndSet(slot(sizeClass(buffer.length)), null, buffer);
+    }
+  }
+
+  private static int normalize(int maximumBufferSize) {
+    int size = Integer.highestOneBit(Math.max(0, Math.min(LIMIT, maximumBufferSize)));
+
+    return size < 1 << MIN_SHIFT ? 0 : size;
+  }
+
+  private static boolean isPoolable(int length) {
+
+    return length <= maximumBufferSize && length >= 1 << MIN_SHIFT && Integer.bitCount(length) == 1;
+  }
+
+  private static int sizeClass(int length) {
+
+    return length <= 1 << MIN_SHIFT ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1) - MIN_SHIFT;
+  }
+
+  private static int slot(int sizeClass) {
+
+    return (int) (Thread.currentThread().getId() & (STRIPES - 1)) * SIZE_CLASSES + sizeClass;
+  }
+
+  private static int stripes() {
+    int processors = Runtime.getRuntime().availableProcessors();
+
+    return Math.min(Integer.highestOneBit(processors * 2 - 1) << 1, 64);
+  }
+}
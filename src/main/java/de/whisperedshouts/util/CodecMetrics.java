@@ -0,0 +1,316 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Counters and flight recorder events for the encode and decode calls that
+ * return arrays, i.E. {@link Base64Util#encode(byte[])} or
+ * {@link AbstractBitCodec#decode(CharSequence)}. Streams, processors and the
+ * allocation free range methods of the util classes are not instrumented.
+ *
+ * Instrumentation is disabled by default, a disabled call costs a single
+ * volatile read. It can be enabled with the system property
+ * "de.whisperedshouts.util.CodecMetrics.enabled", which also registers the
+ * MXBean under {@link #OBJECT_NAME}, or at runtime through
+ * {@link #setEnabled(boolean)}. While enabled, calls are counted per codec
+ * and the events "de.whisperedshouts.util.CodecEncode" and
+ * "de.whisperedshouts.util.CodecDecode" are emitted to running flight
+ * recordings for calls that take longer than their threshold, 1 ms by
+ * default.
+ *
+ * The flight recorder events are linked lazily, so the codecs also run on a
+ * runtime image without the jdk.jfr module. Only the counters are kept there.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class CodecMetrics implements CodecMetricsMXBean {
+  /**
+   * the name the MXBean is registered under
+   */
+  public static final String                           OBJECT_NAME    = "de.whisperedshouts.util:type=CodecMetrics";
+
+  private static final CodecMetrics                    INSTANCE       = new CodecMetrics();
+  private static final ConcurrentMap<String, Counters> COUNTERS       = new ConcurrentHashMap<>();
+  /**
+   * bucket 0 for empty inputs, bucket i for inputs of 2^(i-1) up to 2^i - 1
+   */
+  private static final LongAdder[]                     HISTOGRAM      = new LongAdder[33];
+
+  private static volatile boolean                      enabled        = Boolean
+      .getBoolean("de.whisperedshouts.util.CodecMetrics.enabled");
+  /**
+   * cleared when the flight recorder events could not be linked
+   */
+  private static volatile boolean                      flightRecorder = true;
+
+  static {
+    for (int i = 0; i < HISTOGRAM.length; i++) {
+      HISTOGRAM[i] = new LongAdder();
+    }
+    if (enabled) {
+      register();
+    }
+  }
+
+  private CodecMetrics() {
+  }
+
+  /**
+   * @return the MXBean
+   */
+  public static CodecMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * registers the MXBean with the platform MBean server under
+   * {@link #OBJECT_NAME}, unless it is registered already
+   *
+   * @throws IllegalStateException
+   *           if the MXBean could not be registered
+   */
+  public static void register() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // registered by an earlier call
+    } catch (JMException e) {
+      throw new IllegalStateException("could not register " + OBJECT_NAME, e);
+    }
+  }
+
+  /**
+   * starts timing an encode call
+   *
+   * @return the event to hand to {@link #end(CodecEvent, Alphabet, int, int)}
+   *         or null if instrumentation is disabled
+   */
+  static CodecEvent beginEncode() {
+    if (!enabled) {
+      return null;
+    }
+
+    return new CodecEvent(true, beginFlightRecorderEvent(true));
+  }
+
+  /**
+   * starts timing a decode call
+   *
+   * @return the event to hand to {@link #end(CodecEvent, Alphabet, int, int)}
+   *         or null if instrumentation is disabled
+   */
+  static CodecEvent beginDecode() {
+    if (!enabled) {
+      return null;
+    }
+
+    return new CodecEvent(false, beginFlightRecorderEvent(false));
+  }
+
+  /**
+   * counts a call and commits its event if the call took longer than the
+   * threshold of the event
+   *
+   * @param event
+   *          the event returned when the call started, may be null
+   * @param alphabet
+   *          the alphabet of the codec
+   * @param inputSize
+   *          the amount of bytes or characters read
+   * @param outputSize
+   *          the amount of characters or bytes written
+   */
+  static void end(CodecEvent event, Alphabet alphabet, int inputSize, int outputSize) {
+    if (event == null) {
+      return;
+    }
+    Counters counters = COUNTERS.computeIfAbsent(alphabet.name, name -> new Counters());
+    if (event.encode) {
+      counters.encodeCalls.increment();
+      counters.encodedBytes.add(inputSize);
+    } else {
+      counters.decodeCalls.increment();
+      counters.decodedCharacters.add(inputSize);
+    }
+    HISTOGRAM[32 - Integer.numberOfLeadingZeros(inputSize)].increment();
+
+    if (event.flightRecorderEvent != null) {
+      FlightRecorderEvents.end(event.flightRecorderEvent, alphabet.name, inputSize, outputSize);
+    }
+  }
+
+  /**
+   * @return the started flight recorder event or null if the jdk.jfr module
+   *         is not available
+   */
+  private static Object beginFlightRecorderEvent(boolean encode) {
+    if (!flightRecorder) {
+      return null;
+    }
+    try {
+      return FlightRecorderEvents.begin(encode);
+    } catch (LinkageError e) {
+      // i.E. NoClassDefFoundError on a runtime image without jdk.jfr
+      flightRecorder = false;
+      return null;
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    CodecMetrics.enabled = enabled;
+  }
+
+  @Override
+  public Map<String, Long> getEncodeCalls() {
+    return snapshot(c -> c.encodeCalls);
+  }
+
+  @Override
+  public Map<String, Long> getEncodedBytes() {
+    return snapshot(c -> c.encodedBytes);
+  }
+
+  @Override
+  public Map<String, Long> getDecodeCalls() {
+    return snapshot(c -> c.decodeCalls);
+  }
+
+  @Override
+  public Map<String, Long> getDecodedCharacters() {
+    return snapshot(c -> c.decodedCharacters);
+  }
+
+  @Override
+  public long[] getInputSizeHistogram() {
+    long[] histogram = new long[HISTOGRAM.length];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = HISTOGRAM[i].sum();
+    }
+
+    return histogram;
+  }
+
+  @Override
+  public void reset() {
+    COUNTERS.clear();
+    for (LongAdder bucket : HISTOGRAM) {
+      bucket.reset();
+    }
+  }
+
+  private static Map<String, Long> snapshot(Function<Counters, LongAdder> counter) {
+    Map<String, Long> snapshot = new TreeMap<>();
+    for (Map.Entry<String, Counters> entry : COUNTERS.entrySet()) {
+      snapshot.put(entry.getKey(), counter.apply(entry.getValue()).sum());
+    }
+
+    return snapshot;
+  }
+
+  private static final class Counters {
+    final LongAdder encodeCalls       = new LongAdder();
+    final LongAdder encodedBytes      = new LongAdder();
+    final LongAdder decodeCalls       = new LongAdder();
+    final LongAdder decodedCharacters = new LongAdder();
+  }
+
+  /**
+   * a started call. The flight recorder event is typed as object, so neither
+   * this class nor the codecs refer to the jdk.jfr module
+   */
+  static final class CodecEvent {
+    final boolean encode;
+    final Object  flightRecorderEvent;
+
+    CodecEvent(boolean encode, Object flightRecorderEvent) {
+      this.encode = encode;
+      this.flightRecorderEvent = flightRecorderEvent;
+    }
+  }
+
+  /**
+   * the only class that links against the jdk.jfr module. It is loaded on
+   * the first instrumented call
+   */
+  private static final class FlightRecorderEvents {
+    private FlightRecorderEvents() {
+    }
+
+    static Object begin(boolean encode) {
+      FlightRecorderEvent event = encode ? new CodecEncodeEvent() : new CodecDecodeEvent();
+      event.begin();
+
+      return event;
+    }
+
+    static void end(Object started, String codec, int inputSize, int outputSize) {
+      FlightRecorderEvent event = (FlightRecorderEvent) started;
+      event.end();
+      if (event.shouldCommit()) {
+        event.codec = codec;
+        event.inputSize = inputSize;
+        event.outputSize = outputSize;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * the fields shared by the encode and decode events
+   */
+  @Category({ "whisperedshouts", "Codec" })
+  @Threshold("1 ms")
+  abstract static class FlightRecorderEvent extends Event {
+    @Label("Codec")
+    @Description("The alphabet of the codec, i.E. base64 or base32hex")
+    String codec;
+
+    @Label("Input Size")
+    @DataAmount
+    long   inputSize;
+
+    @Label("Output Size")
+    @DataAmount
+    long   outputSize;
+  }
+
+  @Name("de.whisperedshouts.util.CodecEncode")
+  @Label("Codec Encode")
+  @Description("An encode call that returned an array or string")
+  static final class CodecEncodeEvent extends FlightRecorderEvent {
+  }
+
+  @Name("de.whisperedshouts.util.CodecDecode")
+  @Label("Codec Decode")
+  @Description("A decode call that returned an array")
+  static final class CodecDecodeEvent extends FlightRecorderEvent {
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link CodecMetrics}. All maps are keyed by the
+ * codec name, i.E. base64, base64url or base32hex.
+ *
+ * @author mario.ragucci
+ *
+ */
+public interface CodecMetricsMXBean {
+
+  /**
+   * @return whether codec operations are counted and reported to flight
+   *         recordings
+   */
+  boolean isEnabled();
+
+  /**
+   * enables or disables counting and flight recorder events
+   *
+   * @param enabled
+   *          whether codec operations are counted
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * @return the amount of encode calls per codec
+   */
+  Map<String, Long> getEncodeCalls();
+
+  /**
+   * @return the amount of bytes encoded per codec
+   */
+  Map<String, Long> getEncodedBytes();
+
+  /**
+   * @return the amount of decode calls per codec
+   */
+  Map<String, Long> getDecodeCalls();
+
+  /**
+   * @return the amount of encoded characters decoded per codec
+   */
+  Map<String, Long> getDecodedCharacters();
+
+  /**
+   * returns the input sizes of all encode and decode calls. Bucket 0 counts
+   * empty inputs, bucket i counts inputs of 2^(i-1) up to 2^i - 1 bytes
+   *
+   * @return the amount of calls per size bucket
+   */
+  long[] getInputSizeHistogram();
+
+  /**
+   * resets all counters
+   */
+  void reset();
+}
@@ -0,0 +1,418 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A command line encoder and decoder, i.E.
+ * <code>java -jar encoding-utils.jar -w 0 file.bin &gt; file.b64</code>.
+ *
+ * <pre>
+ * usage: [-d] [-a ALPHABET] [-w COLUMNS] [-j THREADS] [FILE...]
+ *   -d, --decode          decode instead of encode
+ *   -a, --alphabet NAME   standard (default), url, base32 or base32hex
+ *   -w, --wrap COLUMNS    wrap encoded lines after COLUMNS characters,
+ *                         76 by default, 0 disables wrapping
+ *   -j, --threads N       threads for inputs of 1 MiB and more, all cores
+ *                         by default, 1 disables parallel coding
+ *   -h, --help            print this help
+ * </pre>
+ *
+ * The files are read in order and written to stdout, a missing file or "-"
+ * reads stdin. Line separators and whitespace are skipped when decoding, any
+ * other character outside of the alphabet is an error. Exits with 0 on
+ * success, 1 if an input could not be read or decoded and 2 on invalid
+ * options.
+ *
+ * Inputs are read and written chunk by chunk, so memory use does not depend
+ * on their size, and chunks of 1 MiB and more are coded in parallel.
+ *
+ * Startup matters more than throughput for small inputs, so the tool only
+ * uses the codec constants, whose tables are built once during class
+ * initialization, and neither reflection nor lambdas outside of the parallel
+ * path. Many files are best passed to a single invocation. The "appcds"
+ * build profile additionally dumps a class data sharing archive next to the
+ * jar after a training run, which is used with
+ * <code>java -XX:SharedArchiveFile=target/encoding-utils.jsa -jar target/encoding-utils-VERSION.jar</code>.
+ *
+ * @author mario.ragucci
+ *
+ */
+public final class CodecTool {
+  static final int            EXIT_OK             = 0;
+  static final int            EXIT_FAILURE        = 1;
+  static final int            EXIT_USAGE          = 2;
+
+  /**
+   * quanta encoded per chunk, i.E. 3 MiB of base64 input
+   */
+  private static final int    ENCODE_CHUNK_QUANTA = 1 << 20;
+  /**
+   * encoded bytes decoded per chunk
+   */
+  private static final int    DECODE_CHUNK_SIZE   = 4 << 20;
+
+  private static final String NAME                = "encoding-utils";
+  private static final String USAGE               = "usage: " + NAME + " [-d] [-a ALPHABET] [-w COLUMNS] [-j THREADS] [FILE...]\n"
+      + "  -d, --decode          decode instead of encode\n"
+      + "  -a, --alphabet NAME   standard (default), url, base32 or base32hex\n"
+      + "  -w, --wrap COLUMNS    wrap encoded lines after COLUMNS characters, 76 by default, 0 disables wrapping\n"
+      + "  -j, --threads N       threads for inputs of 1 MiB and more, all cores by default, 1 disables parallel coding\n"
+      + "  -h, --help            print this help\n"
+      + "FILE \"-\" or no FILE reads stdin, the result is written to stdout\n";
+
+  private CodecTool() {
+  }
+
+  /**
+   * runs the tool and exits with its exit code
+   *
+   * @param args
+   *          the command line arguments
+   */
+  public static void main(String[] args) {
+    OutputStream out = new FileOutputStream(FileDescriptor.out);
+
+    System.exit(run(args, System.in, out, System.err));
+  }
+
+  /**
+   * runs the tool
+   *
+   * @param args
+   *          the command line arguments
+   * @param in
+   *          the stream to read "-" from
+   * @param out
+   *          the stream to write the result to
+   * @param err
+   *          the stream to write messages to
+   * @return the exit code
+   */
+  static int run(String[] args, InputStream in, OutputStream out, PrintStream err) {
+    boolean decode = false;
+    AbstractBitCodec codec = Base64Codec.STANDARD;
+    int wrap = AbstractBitUtil.MIME_LINE_LENGTH;
+    int threads = 0;
+
+    int index = 0;
+    try {
+      for (; index < args.length; index++) {
+        String arg = args[index];
+        if ("--".equals(arg)) {
+          index++;
+          break;
+        }
+        if (!arg.startsWith("-") || "-".equals(arg)) {
+          break;
+        }
+
+        switch (arg) {
+        case "-d":
+        case "--decode":
+          decode = true;
+          break;
+        case "-a":
+        case "--alphabet":
+          codec = codec(value(args, ++index, arg));
+          break;
+        case "-w":
+        case "--wrap":
+          wrap = number(value(args, ++index, arg), 0, arg);
+          break;
+        case "-j":
+        case "--threads":
+          threads = number(value(args, ++index, arg), 1, arg);
+          break;
+        case "-h":
+        case "--help":
+          err.print(USAGE);
+          return EXIT_OK;
+        default:
+          throw new IllegalArgumentException("unknown option " + arg);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      err.println(NAME + ": " + e.getMessage());
+      err.print(USAGE);
+      return EXIT_USAGE;
+    }
+
+    ForkJoinPool pool = null;
+    try {
+      if (threads == 0) {
+        pool = ForkJoinPool.commonPool();
+      } else if (threads > 1) {
+        pool = new ForkJoinPool(threads);
+      }
+
+      OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+      if (index == args.length) {
+        process("-", in, buffered, decode, codec, wrap, pool);
+      }
+      for (; index < args.length; index++) {
+        process(args[index], in, buffered, decode, codec, wrap, pool);
+      }
+      buffered.flush();
+
+      return EXIT_OK;
+    } catch (IOException | IllegalArgumentException e) {
+      err.println(NAME + ": " + e.getMessage());
+      return EXIT_FAILURE;
+    } finally {
+      if (pool != null && pool != ForkJoinPool.commonPool()) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static void process(String file, InputStream in, OutputStream out, boolean decode, AbstractBitCodec codec,
+      int wrap, ForkJoinPool pool) throws IOException {
+    InputStream input = in;
+    if (!"-".equals(file)) {
+      try {
+        input = Files.newInputStream(Paths.get(file));
+      } catch (IOException e) {
+        throw couldNotRead(file, e);
+      }
+    }
+
+    try {
+      if (decode) {
+        decode(file, input, out, codec, pool);
+      } else {
+        encode(file, input, out, codec, wrap, pool);
+      }
+    } finally {
+      if (input != in) {
+        input.close();
+      }
+    }
+  }
+
+  /**
+   * encodes the input chunk by chunk. Every chunk but the last holds whole
+   * quanta, so only the last one is padded
+   */
+  private static void encode(String file, InputStream in, OutputStream out, AbstractBitCodec codec, int wrap,
+      ForkJoinPool pool) throws IOException {
+    byte[] chunk = new byte[ENCODE_CHUNK_QUANTA * codec.bytesPerQuantum];
+    byte[] encoded = new byte[ENCODE_CHUNK_QUANTA * codec.charactersPerQuantum];
+    ParallelCodec.RangeCodec encoder = pool == null ? null : codec::encodeRange;
+
+    int column = 0;
+    int length;
+    while ((length = read(file, in, chunk, 0)) > 0) {
+      int written;
+      if (encoder != null && length >= AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD) {
+        written = ParallelCodec.encode(chunk, length, encoded, codec.bitsPerCharacter,
+            AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD, pool, encoder);
+      } else {
+        written = codec.encodeRange(chunk, 0, length, encoded, 0);
+      }
+      column = write(out, encoded, written, wrap, column);
+    }
+    if (column > 0) {
+      out.write('\n');
+    }
+  }
+
+  /**
+   * decodes the input chunk by chunk. Each chunk is validated and decoded up
+   * to its last complete quantum, the characters of an incomplete quantum
+   * are carried over to the start of the next chunk along with their offsets
+   * in the input
+   */
+  private static void decode(String file, InputStream in, OutputStream out, AbstractBitCodec codec,
+      ForkJoinPool pool) throws IOException {
+    byte[] decodeTable = codec.alphabet.decodeTable;
+    int charactersPerQuantum = codec.charactersPerQuantum;
+    byte[] chunk = new byte[DECODE_CHUNK_SIZE];
+    byte[] decoded = new byte[(chunk.length / charactersPerQuantum + 1) * codec.bytesPerQuantum];
+    long[] carriedOffsets = new long[charactersPerQuantum];
+    ParallelCodec.RangeCodec decoder = pool == null ? null
+        : (source, sourceOffset, length, destination, destinationOffset) -> codec.decodeRange(source, sourceOffset,
+            length, destination, destinationOffset, false);
+
+    int carried = 0;
+    // the offset of the first character read into the chunk
+    long offset = 0;
+    boolean padded = false;
+    while (true) {
+      int length = read(file, in, chunk, carried);
+      int end = carried + length;
+      boolean endOfInput = end < chunk.length;
+
+      int cut = end;
+      if (!endOfInput) {
+        int characters = carried;
+        for (int position = carried; position < end; position++) {
+          if (isCharacter(decodeTable, chunk[position])) {
+            characters++;
+          }
+        }
+        for (int excess = characters % charactersPerQuantum; excess > 0;) {
+          if (isCharacter(decodeTable, chunk[--cut])) {
+            excess--;
+          }
+        }
+      }
+
+      // a padded quantum ends the input, only whitespace may follow it
+      int invalid = padded ? indexOfCharacter(decodeTable, chunk, end)
+          : AbstractBitUtil.indexOfInvalid(chunk, 0, cut, codec.alphabet, codec.bitsPerCharacter);
+      if (invalid >= 0) {
+        long position = invalid < carried ? carriedOffsets[invalid] : offset + invalid - carried;
+        throw new IllegalArgumentException(file + ": "
+            + (invalid == cut && !padded ? "incomplete quantum" : "invalid character") + " at offset " + position);
+      }
+      padded = padded || endsWithPadding(decodeTable, chunk, cut);
+
+      int written;
+      if (decoder != null && cut >= AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD) {
+        written = ParallelCodec.decode(chunk, cut, decoded, codec.bitsPerCharacter,
+            AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD, pool, decoder);
+      } else {
+        written = codec.decodeRange(chunk, 0, cut, decoded, 0, false);
+      }
+      out.write(decoded, 0, written);
+      if (endOfInput) {
+        return;
+      }
+
+      int next = 0;
+      for (int position = cut; position < end; position++) {
+        if (isCharacter(decodeTable, chunk[position])) {
+          carriedOffsets[next] = position < carried ? carriedOffsets[position] : offset + position - carried;
+          chunk[next++] = chunk[position];
+        }
+      }
+      carried = next;
+      offset += length;
+    }
+  }
+
+  /**
+   * fills the chunk from the offset up to its end, unless the end of the
+   * input is reached first
+   *
+   * @return the amount of bytes read
+   */
+  private static int read(String file, InputStream in, byte[] chunk, int offset) throws IOException {
+    try {
+      return in.readNBytes(chunk, offset, chunk.length - offset);
+    } catch (IOException e) {
+      throw couldNotRead(file, e);
+    }
+  }
+
+  private static IOException couldNotRead(String file, IOException e) {
+
+    return new IOException(file + ": could not be read (" + e + ")", e);
+  }
+
+  /**
+   * writes the encoded characters, a line feed after every wrap characters.
+   * Nothing but the characters is written if wrap is 0
+   *
+   * @return the column the next character is written to
+   */
+  private static int write(OutputStream out, byte[] encoded, int length, int wrap, int column) throws IOException {
+    if (wrap == 0) {
+      out.write(encoded, 0, length);
+      return 0;
+    }
+    for (int offset = 0; offset < length;) {
+      int count = Math.min(wrap - column, length - offset);
+      out.write(encoded, offset, count);
+      offset += count;
+      column += count;
+      if (column == wrap) {
+        out.write('\n');
+        column = 0;
+      }
+    }
+
+    return column;
+  }
+
+  /**
+   * @return whether the byte is a character of a quantum, i.E. neither
+   *         whitespace nor a skipped character. Invalid characters count, so
+   *         they are validated along with their quantum
+   */
+  private static boolean isCharacter(byte[] decodeTable, byte b) {
+
+    return decodeTable[b & 0xFF] != Alphabet.SKIP && !AbstractBitUtil.isWhitespace(b);
+  }
+
+  private static int indexOfCharacter(byte[] decodeTable, byte[] chunk, int end) {
+    for (int position = 0; position < end; position++) {
+      if (isCharacter(decodeTable, chunk[position])) {
+        return position;
+      }
+    }
+
+    return -1;
+  }
+
+  private static boolean endsWithPadding(byte[] decodeTable, byte[] chunk, int end) {
+    for (int position = end - 1; position >= 0; position--) {
+      if (isCharacter(decodeTable, chunk[position])) {
+        return decodeTable[chunk[position] & 0xFF] == Alphabet.PADDING;
+      }
+    }
+
+    return false;
+  }
+
+  private static AbstractBitCodec codec(String alphabet) {
+    switch (alphabet) {
+    case "standard":
+    case "base64":
+      return Base64Codec.STANDARD;
+    case "url":
+    case "base64url":
+      return Base64Codec.URL_SAFE;
+    case "base32":
+      return Base32Codec.RFC4648;
+    case "base32hex":
+      return Base32Codec.HEX;
+    default:
+      throw new IllegalArgumentException("unknown alphabet " + alphabet);
+    }
+  }
+
+  private static String value(String[] args, int index, String option) {
+    if (index == args.length) {
+      throw new IllegalArgumentException("option " + option + " requires a value");
+    }
+
+    return args[index];
+  }
+
+  private static int number(String value, int minimum, String option) {
+    int number;
+    try {
+      number = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("option " + option + " requires a number, got " + value);
+    }
+    if (number < minimum) {
+      throw new IllegalArgumentException("option " + option + " must be at least " + minimum + ", got " + number);
+    }
+
+    return number;
+  }
+}
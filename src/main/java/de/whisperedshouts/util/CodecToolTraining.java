@@ -0,0 +1,63 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * The training run of the "appcds" build profile, i.E.
+ * <code>java -XX:ArchiveClassesAtExit=encoding-utils.jsa -cp encoding-utils.jar de.whisperedshouts.util.CodecToolTraining pom.xml</code>.
+ * Encodes the given files and a generated input of the parallel threshold
+ * with every alphabet of {@link CodecTool} and decodes the result again, so
+ * the archive dumped at exit holds the classes of every path of the tool. The
+ * output is discarded.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class CodecToolTraining {
+  private static final String[] ALPHABETS = { "standard", "url", "base32", "base32hex" };
+
+  private CodecToolTraining() {
+  }
+
+  /**
+   * runs the training and exits with the first failing exit code of the tool
+   *
+   * @param files
+   *          the files to encode and decode
+   */
+  public static void main(String[] files) {
+    byte[] generated = new byte[AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD];
+    new Random(0).nextBytes(generated);
+
+    for (String alphabet : ALPHABETS) {
+      train(alphabet, files, new ByteArrayInputStream(new byte[0]));
+      train(alphabet, new String[] { "-" }, new ByteArrayInputStream(generated));
+    }
+    System.exit(CodecTool.EXIT_OK);
+  }
+
+  private static void train(String alphabet, String[] files, InputStream in) {
+    String[] args = new String[files.length + 2];
+    args[0] = "-a";
+    args[1] = alphabet;
+    System.arraycopy(files, 0, args, 2, files.length);
+
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    exitOnFailure(CodecTool.run(args, in, encoded, System.err));
+    exitOnFailure(CodecTool.run(new String[] { "-d", "-a", alphabet }, new ByteArrayInputStream(encoded.toByteArray()),
+        OutputStream.nullOutputStream(), System.err));
+  }
+
+  private static void exitOnFailure(int exitCode) {
+    if (exitCode != CodecTool.EXIT_OK) {
+      System.exit(exitCode);
+    }
+  }
+}
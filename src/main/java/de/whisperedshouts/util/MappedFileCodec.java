@@ -0,0 +1,205 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Encodes and decodes files of arbitrary size. The input file is mapped into
+ * memory window by window and copied chunk by chunk into a heap buffer, which
+ * the range kernels of the codec encode or decode. Memory use is bounded by
+ * two chunk buffers, regardless of the file size.
+ *
+ * The data does pass through the java heap, 1 MiB at a time. This is a
+ * tradeoff: the {@link java.nio.ByteBuffer} codecs could work on the mapped
+ * windows and a direct output buffer, but they handle one quantum per call
+ * and are about ten times slower than the array kernels, which read words or
+ * vectors at a time. The two chunk buffers take less than 3 MiB of heap per
+ * call, whatever the size of the file.
+ *
+ * Encode chunks are aligned to whole lines, or to the quantum size without
+ * line separators, so only the last chunk needs padding and the separator
+ * between two chunks is written here. Decode chunks end after a whole
+ * quantum, the characters of an incomplete quantum are carried over to the
+ * next chunk, so line separators may appear anywhere.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class MappedFileCodec {
+  private static final long WINDOW_SIZE = 64L << 20;
+  private static final int  CHUNK_SIZE  = 1 << 20;
+
+  private MappedFileCodec() {
+  }
+
+  /**
+   * encodes a file
+   *
+   * @param in
+   *          the file to encode
+   * @param out
+   *          the file to write the encoded characters to
+   * @param codec
+   *          the codec holding the alphabet, padding and line wrapping
+   * @throws IOException
+   *           if a file could not be read or written
+   */
+  static void encode(Path in, Path out, AbstractBitCodec codec) throws IOException {
+    int bytesPerUnit = codec.lineLength > 0 ? codec.lineLength / codec.charactersPerQuantum * codec.bytesPerQuantum
+        : codec.bytesPerQuantum;
+    byte[] chunk = new byte[Math.max(CHUNK_SIZE / bytesPerUnit, 1) * bytesPerUnit];
+    byte[] encoded = new byte[codec.encodedLength(chunk.length) + codec.lineSeparator.length];
+
+    try (FileChannel input = FileChannel.open(in, StandardOpenOption.READ);
+        FileChannel output = FileChannel.open(out, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      Windows windows = new Windows(input);
+      boolean first = true;
+      int length;
+      while ((length = windows.read(chunk, 0)) > 0) {
+        int written = 0;
+        // every chunk but the last ends with a complete line
+        if (!first) {
+          System.arraycopy(codec.lineSeparator, 0, encoded, 0, codec.lineSeparator.length);
+          written = codec.lineSeparator.length;
+        }
+        written += codec.encodeUnchecked(chunk, 0, length, encoded, written);
+        write(output, encoded, written);
+        first = false;
+      }
+    }
+  }
+
+  /**
+   * decodes a file. Whitespace is skipped, a missing padding at the end of
+   * the file is tolerated
+   *
+   * @param in
+   *          the file to decode
+   * @param out
+   *          the file to write the decoded bytes to
+   * @param codec
+   *          the codec holding the alphabet
+   * @throws IOException
+   *           if a file could not be read or written or the input contains
+   *           invalid characters
+   */
+  static void decode(Path in, Path out, AbstractBitCodec codec) throws IOException {
+    byte[] decodeTable = codec.alphabet.decodeTable;
+    int charactersPerQuantum = codec.charactersPerQuantum;
+    byte[] chunk = new byte[CHUNK_SIZE];
+    byte[] decoded = new byte[(CHUNK_SIZE / charactersPerQuantum + 1) * codec.bytesPerQuantum];
+
+    try (FileChannel input = FileChannel.open(in, StandardOpenOption.READ);
+        FileChannel output = FileChannel.open(out, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      Windows windows = new Windows(input);
+      // the chunk starts with the carried characters, which were validated
+      // along with the previous chunk
+      int carried = 0;
+      boolean padded = false;
+      long offset = 0;
+      while (true) {
+        int length = windows.read(chunk, carried);
+        boolean endOfInput = carried + length < chunk.length;
+
+        // validate the new characters and count the alphabet characters of
+        // the chunk, a character after padding is invalid
+        long characters = carried;
+        int end = carried + length;
+        for (int position = carried; position < end; position++) {
+          byte b = chunk[position];
+          int resolved = decodeTable[b & 0xFF];
+          if (resolved >= 0 && !padded) {
+            characters++;
+          } else if (resolved == Alphabet.PADDING) {
+            padded = true;
+            characters++;
+          } else if (resolved == Alphabet.SKIP || AbstractBitUtil.isWhitespace(b)) {
+            continue;
+          } else {
+            throw new IOException("invalid character at offset " + (offset + position - carried));
+          }
+        }
+        offset += length;
+
+        // an incomplete quantum at the end of the chunk is carried over
+        int cut = end;
+        int excess = endOfInput ? 0 : (int) (characters % charactersPerQuantum);
+        while (excess > 0) {
+          byte b = chunk[--cut];
+          if (decodeTable[b & 0xFF] != Alphabet.SKIP && !AbstractBitUtil.isWhitespace(b)) {
+            excess--;
+          }
+        }
+
+        write(output, decoded, codec.decodeRange(chunk, 0, cut, decoded, 0, false));
+        if (endOfInput) {
+          return;
+        }
+
+        carried = 0;
+        for (int position = cut; position < end; position++) {
+          byte b = chunk[position];
+          if (decodeTable[b & 0xFF] != Alphabet.SKIP && !AbstractBitUtil.isWhitespace(b)) {
+            chunk[carried++] = b;
+          }
+        }
+      }
+    }
+  }
+
+  private static void write(FileChannel output, byte[] source, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(source, 0, length);
+    while (buffer.hasRemaining()) {
+      output.write(buffer);
+    }
+  }
+
+  /**
+   * reads a file channel through memory mapped windows
+   */
+  private static final class Windows {
+    private final FileChannel channel;
+    private final long        size;
+    private long              position;
+    private MappedByteBuffer  window;
+
+    Windows(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    /**
+     * fills the array from the offset up to its end, unless the end of the
+     * file is reached first
+     *
+     * @return the amount of bytes read
+     */
+    int read(byte[] destination, int offset) throws IOException {
+      int read = 0;
+      while (offset + read < destination.length) {
+        if (window == null || !window.hasRemaining()) {
+          if (position == size) {
+            break;
+          }
+          window = channel.map(MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+          position += window.capacity();
+        }
+        int length = Math.min(window.remaining(), destination.length - offset - read);
+        window.get(destination, offset + read, length);
+        read += length;
+      }
+
+      return read;
+    }
+  }
+}
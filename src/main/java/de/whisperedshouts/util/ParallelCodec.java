@@ -0,0 +1,360 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits large inputs into chunks that are encoded or decoded in parallel on
+ * a {@link ForkJoinPool}. As quanta are independent of each other, every
+ * chunk is written straight into its own region of the presized result.
+ *
+ * Encode splits the input at quantum boundaries. Decode splits the input at
+ * line boundaries, counts the characters of each chunk in a first parallel
+ * pass to determine the output offsets and decodes in a second one. If the
+ * chunks do not line up with quantum boundaries (i.E. lines that are not a
+ * multiple of the quantum size) the input is decoded sequentially.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class ParallelCodec {
+  /**
+   * how far to look for a line separator when splitting encoded input
+   */
+  private static final int LINE_SEARCH_DISTANCE = 1024;
+
+  /**
+   * an encoder or decoder working on a range of a byte array
+   */
+  interface RangeCodec {
+    /**
+     * encodes or decodes a range of the source into the destination
+     *
+     * @param source
+     *          the source array
+     * @param sourceOffset
+     *          the offset of the range in the source array
+     * @param length
+     *          the length of the range
+     * @param destination
+     *          the destination array
+     * @param destinationOffset
+     *          where to start writing in the destination array
+     * @return the amount of bytes written
+     */
+    int apply(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset);
+  }
+
+  private ParallelCodec() {
+  }
+
+  /**
+   * encodes a byte array in parallel
+   *
+   * @param byteArray
+   *          the byte array to encode
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to use
+   * @param encoder
+   *          the encoder for a single chunk
+   * @return the encoded byte array
+   */
+  static byte[] encode(byte[] byteArray, int bitsPerCharacter, int threshold, ForkJoinPool pool,
+      RangeCodec encoder) {
+    byte[] result = new byte[AbstractBitUtil.encodedLength(byteArray.length, bitsPerCharacter)];
+    encode(byteArray, byteArray.length, result, bitsPerCharacter, threshold, pool, encoder);
+
+    return result;
+  }
+
+  /**
+   * encodes the start of a byte array in parallel into a given array, i.E. a
+   * buffer that is reused for every chunk of a stream
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param length
+   *          the amount of bytes to encode, starting at offset 0
+   * @param destination
+   *          the array to write the encoded characters to, starting at offset
+   *          0
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to use
+   * @param encoder
+   *          the encoder for a single chunk
+   * @return the amount of characters written
+   */
+  static int encode(byte[] source, int length, byte[] destination, int bitsPerCharacter, int threshold,
+      ForkJoinPool pool, RangeCodec encoder) {
+    int bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    int charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+
+    // split at quantum boundaries
+    int chunkSize = Math.max(threshold / bytesPerQuantum, 1) * bytesPerQuantum;
+    int chunks = Math.max((int) ((length + (long) chunkSize - 1) / chunkSize), 1);
+    int[] sourceOffsets = new int[chunks + 1];
+    int[] destinationOffsets = new int[chunks];
+    for (int i = 0; i < chunks; i++) {
+      sourceOffsets[i] = i * chunkSize;
+      destinationOffsets[i] = i * (chunkSize / bytesPerQuantum) * charactersPerQuantum;
+    }
+    sourceOffsets[chunks] = length;
+
+    int[] written = new int[chunks];
+    run(pool, new RangeTask(0, chunks, source, sourceOffsets, destination, destinationOffsets, written, encoder));
+
+    return destinationOffsets[chunks - 1] + written[chunks - 1];
+  }
+
+  /**
+   * decodes a byte array in parallel. Whitespace is skipped
+   *
+   * @param byteArray
+   *          the byte array to decode
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to use
+   * @param decoder
+   *          the decoder for a single chunk
+   * @return the decoded byte array
+   */
+  static byte[] decode(byte[] byteArray, int bitsPerCharacter, int threshold, ForkJoinPool pool,
+      RangeCodec decoder) {
+    int bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    int charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    int[] sourceOffsets = split(byteArray, byteArray.length, charactersPerQuantum, threshold);
+    int[] characters = countCharacters(byteArray, sourceOffsets, pool);
+    long totalCharacters = 0;
+    for (int count : characters) {
+      totalCharacters += count;
+    }
+
+    // the last quantum may be padded or incomplete
+    int lastCharacters = (int) (totalCharacters % charactersPerQuantum);
+    if (lastCharacters == 0 && totalCharacters > 0) {
+      lastCharacters = charactersPerQuantum;
+    }
+    int paddingCharacters = countTrailingPadding(byteArray, lastCharacters);
+    long resultSize = (totalCharacters - lastCharacters) / charactersPerQuantum * bytesPerQuantum
+        + (lastCharacters - paddingCharacters) * bitsPerCharacter / 8;
+    byte[] result = new byte[(int) resultSize];
+
+    int written = decode(byteArray, byteArray.length, result, sourceOffsets, characters, bitsPerCharacter, pool,
+        decoder);
+
+    return written == result.length ? result : Arrays.copyOf(result, written);
+  }
+
+  /**
+   * decodes the start of a byte array in parallel into a given array, i.E. a
+   * buffer that is reused for every chunk of a stream. Whitespace is skipped
+   *
+   * @param source
+   *          the array holding the characters to decode
+   * @param length
+   *          the amount of characters to decode, starting at offset 0
+   * @param destination
+   *          the array to write the decoded bytes to, starting at offset 0.
+   *          It has to hold a whole quantum for every started quantum of the
+   *          input
+   * @param bitsPerCharacter
+   *          the amount of bits each encoded character represents
+   * @param threshold
+   *          the amount of bytes below which a chunk is not split any further
+   * @param pool
+   *          the pool to use
+   * @param decoder
+   *          the decoder for a single chunk
+   * @return the amount of bytes written
+   */
+  static int decode(byte[] source, int length, byte[] destination, int bitsPerCharacter, int threshold,
+      ForkJoinPool pool, RangeCodec decoder) {
+    int[] sourceOffsets = split(source, length, AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter),
+        threshold);
+
+    return decode(source, length, destination, sourceOffsets, countCharacters(source, sourceOffsets, pool),
+        bitsPerCharacter, pool, decoder);
+  }
+
+  /**
+   * first pass: counts the characters of every chunk
+   */
+  private static int[] countCharacters(byte[] source, int[] sourceOffsets, ForkJoinPool pool) {
+    int chunks = sourceOffsets.length - 1;
+    int[] characters = new int[chunks];
+    run(pool, new RangeTask(0, chunks, source, sourceOffsets, null, new int[chunks], characters,
+        (chunk, sourceOffset, length, destination, destinationOffset) -> countCharacters(chunk, sourceOffset,
+            length)));
+
+    return characters;
+  }
+
+  /**
+   * second pass: decodes every chunk into its region
+   */
+  private static int decode(byte[] source, int length, byte[] destination, int[] sourceOffsets, int[] characters,
+      int bitsPerCharacter, ForkJoinPool pool, RangeCodec decoder) {
+    int bytesPerQuantum = AbstractBitUtil.getBytesPerQuantum(bitsPerCharacter);
+    int charactersPerQuantum = AbstractBitUtil.getCharactersPerQuantum(bitsPerCharacter);
+    int chunks = sourceOffsets.length - 1;
+
+    int[] destinationOffsets = new int[chunks];
+    long totalCharacters = 0;
+    boolean aligned = true;
+    for (int i = 0; i < chunks; i++) {
+      aligned &= totalCharacters % charactersPerQuantum == 0;
+      destinationOffsets[i] = (int) (totalCharacters / charactersPerQuantum * bytesPerQuantum);
+      totalCharacters += characters[i];
+    }
+
+    if (!aligned) {
+      return decodeSequential(source, length, destination, decoder);
+    }
+
+    int[] written = new int[chunks];
+    run(pool, new RangeTask(0, chunks, source, sourceOffsets, destination, destinationOffsets, written, decoder));
+
+    // padding within the input moves all following quanta
+    for (int i = 0; i < chunks - 1; i++) {
+      if (written[i] != characters[i] / charactersPerQuantum * bytesPerQuantum) {
+        return decodeSequential(source, length, destination, decoder);
+      }
+    }
+
+    return destinationOffsets[chunks - 1] + written[chunks - 1];
+  }
+
+  private static int decodeSequential(byte[] source, int length, byte[] destination, RangeCodec decoder) {
+    byte[] sequential = BufferPool.acquireBytes(destination.length + 8);
+    try {
+      int written = decoder.apply(source, 0, length, sequential, 0);
+      System.arraycopy(sequential, 0, destination, 0, written);
+
+      return written;
+    } finally {
+      BufferPool.release(sequential);
+    }
+  }
+
+  /**
+   * splits encoded input after a line separator close to every threshold
+   * bytes, or at a multiple of the quantum size if the input has no line
+   * separators
+   */
+  private static int[] split(byte[] byteArray, int length, int charactersPerQuantum, int threshold) {
+    int chunkSize = Math.max(threshold / charactersPerQuantum, 1) * charactersPerQuantum;
+    int[] offsets = new int[(int) ((length + (long) chunkSize - 1) / chunkSize) + 2];
+    int chunks = 0;
+    int position = 0;
+    while (position < length) {
+      offsets[chunks++] = position;
+      long next = (long) position + chunkSize;
+      if (next >= length) {
+        break;
+      }
+
+      int split = (int) next;
+      int searchEnd = (int) Math.min(length, next + LINE_SEARCH_DISTANCE);
+      while (split < searchEnd && byteArray[split] != '\n') {
+        split++;
+      }
+      position = split < searchEnd ? split + 1 : (int) next;
+    }
+    offsets[chunks] = length;
+
+    return Arrays.copyOf(offsets, Math.max(chunks, 1) + 1);
+  }
+
+  private static int countCharacters(byte[] source, int offset, int length) {
+    int characters = 0;
+    for (int i = offset; i < offset + length; i++) {
+      if (!AbstractBitUtil.isWhitespace(source[i])) {
+        characters++;
+      }
+    }
+
+    return characters;
+  }
+
+  private static int countTrailingPadding(byte[] source, int lastCharacters) {
+    int paddingCharacters = 0;
+    int characters = 0;
+    for (int i = source.length - 1; i >= 0 && characters < lastCharacters; i--) {
+      if (AbstractBitUtil.isWhitespace(source[i])) {
+        continue;
+      }
+      if (source[i] != Alphabet.PADDING_CHARACTER) {
+        break;
+      }
+      paddingCharacters++;
+      characters++;
+    }
+
+    return paddingCharacters;
+  }
+
+  private static void run(ForkJoinPool pool, RangeTask task) {
+    if (task.to - task.from == 1) {
+      task.compute();
+    } else {
+      pool.invoke(task);
+    }
+  }
+
+  /**
+   * applies a {@link RangeCodec} to the chunks from (inclusive) to to
+   * (exclusive), splitting the chunk range in halves
+   */
+  private static final class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int         from;
+    private final int         to;
+    private final byte[]      source;
+    private final int[]       sourceOffsets;
+    private final byte[]      destination;
+    private final int[]       destinationOffsets;
+    private final int[]       results;
+    private final RangeCodec  codec;
+
+    RangeTask(int from, int to, byte[] source, int[] sourceOffsets, byte[] destination, int[] destinationOffsets,
+        int[] results, RangeCodec codec) {
+      this.from = from;
+      this.to = to;
+      this.source = source;
+      this.sourceOffsets = sourceOffsets;
+      this.destination = destination;
+      this.destinationOffsets = destinationOffsets;
+      this.results = results;
+      this.codec = codec;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        int offset = sourceOffsets[from];
+        results[from] = codec.apply(source, offset, sourceOffsets[from + 1] - offset, destination,
+            destinationOffsets[from]);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, middle, source, sourceOffsets, destination, destinationOffsets, results, codec),
+            new RangeTask(middle, to, source, sourceOffsets, destination, destinationOffsets, results, codec));
+      }
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+/**
+ * Entry point to the vectorized (SIMD) kernels for java 17 and later. The
+ * kernels are used if the jdk.incubator.vector module is enabled
+ * (--add-modules jdk.incubator.vector) and the system property
+ * "de.whisperedshouts.util.VectorCodec.disabled" is not set to true.
+ * Otherwise nothing is processed and the scalar kernels handle the whole
+ * input.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class VectorCodec {
+  /**
+   * whether the vectorized kernels are available
+   */
+  static final boolean AVAILABLE = !Boolean.getBoolean("de.whisperedshouts.util.VectorCodec.disabled")
+      && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  private VectorCodec() {
+  }
+
+  /**
+   * encodes as many complete blocks of the range to base64 as possible
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes that may be encoded
+   * @param destination
+   *          the array to write the base64 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes encoded, always a multiple of 3
+   */
+  static int encodeBase64(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    if (!AVAILABLE) {
+      return 0;
+    }
+
+    return VectorKernels.encodeBase64(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * decodes as many complete blocks of the range from base64 as possible.
+   * Stops at the first block containing a character that is not part of the
+   * alphabet, i.E. a line separator, padding or an invalid character
+   *
+   * @param source
+   *          the array holding the base64 characters
+   * @param sourceOffset
+   *          the offset of the first character
+   * @param length
+   *          the amount of characters that may be decoded
+   * @param destination
+   *          the array to write the decoded bytes to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of characters decoded, always a multiple of 4
+   */
+  static int decodeBase64(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    if (!AVAILABLE) {
+      return 0;
+    }
+
+    return VectorKernels.decodeBase64(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+
+  /**
+   * encodes as many complete blocks of the range to base32 as possible
+   *
+   * @param source
+   *          the array holding the bytes to encode
+   * @param sourceOffset
+   *          the offset of the first byte
+   * @param length
+   *          the amount of bytes that may be encoded
+   * @param destination
+   *          the array to write the base32 characters to
+   * @param destinationOffset
+   *          where to start writing in the destination array
+   * @param alphabet
+   *          the alphabet to use
+   * @return the amount of bytes encoded, always a multiple of 5
+   */
+  static int encodeBase32(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    if (!AVAILABLE) {
+      return 0;
+    }
+
+    return VectorKernels.encodeBase32(source, sourceOffset, length, destination, destinationOffset, alphabet);
+  }
+}
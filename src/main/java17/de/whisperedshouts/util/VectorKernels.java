@@ -0,0 +1,256 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized base64 and base32 kernels based on the jdk.incubator.vector
+ * api, following the approach of Wojciech Muła and Daniel Lemire: the input
+ * bytes are shuffled so that every 32 bit (base64) or 64 bit (base32) lane
+ * holds one quantum, the 6 or 5 bit indices are unpacked with shifts and
+ * masks and mapped to characters by adding a per range offset.
+ *
+ * The range based mapping only supports alphabets made of contiguous ranges:
+ * "A-Za-z0-9" followed by any two characters for base64 (standard and url
+ * safe) and two ranges for base32 (standard and hex). Other alphabets are
+ * left to the scalar kernels.
+ *
+ * This class must only be loaded if the jdk.incubator.vector module is
+ * present.
+ *
+ * @author mario.ragucci
+ *
+ */
+final class VectorKernels {
+  private static final VectorSpecies<Byte> SPECIES       = ByteVector.SPECIES_PREFERRED;
+  private static final int                 LENGTH        = SPECIES.length();
+  private static final String              BASE64_RANGES = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+  /**
+   * spreads 3 input bytes over every 32 bit lane: [b2, b1, b0, b0]
+   */
+  private static final VectorShuffle<Byte> BASE64_ENCODE_SHUFFLE;
+  /**
+   * compresses the 3 significant bytes of every 32 bit lane
+   */
+  private static final VectorShuffle<Byte> BASE64_DECODE_SHUFFLE;
+  /**
+   * the lanes holding decoded bytes
+   */
+  private static final VectorMask<Byte>    BASE64_DECODE_MASK;
+  /**
+   * spreads 5 input bytes over every 64 bit lane: [b4, b3, b2, b1, b0, ...]
+   */
+  private static final VectorShuffle<Byte> BASE32_ENCODE_SHUFFLE;
+
+  /**
+   * the last alphabet that qualified for the base64 kernels. Checking an
+   * alphabet costs about as much as encoding a MIME line, so the result is
+   * kept in an immutable holder that is published as a whole
+   */
+  private static volatile Base64Ranges     base64Ranges;
+
+  static {
+    int[] base64Encode = new int[LENGTH];
+    int[] base64Decode = new int[LENGTH];
+    int[] base32Encode = new int[LENGTH];
+    for (int i = 0; i < LENGTH; i++) {
+      base64Encode[i] = 3 * (i / 4) + Math.max(2 - i % 4, 0);
+      base64Decode[i] = i < LENGTH / 4 * 3 ? 4 * (i / 3) + 2 - i % 3 : 0;
+      base32Encode[i] = 5 * (i / 8) + Math.max(4 - i % 8, 0);
+    }
+    BASE64_ENCODE_SHUFFLE = VectorShuffle.fromArray(SPECIES, base64Encode, 0);
+    BASE64_DECODE_SHUFFLE = VectorShuffle.fromArray(SPECIES, base64Decode, 0);
+    BASE64_DECODE_MASK = SPECIES.indexInRange(0, LENGTH / 4 * 3);
+    BASE32_ENCODE_SHUFFLE = VectorShuffle.fromArray(SPECIES, base32Encode, 0);
+  }
+
+  private VectorKernels() {
+  }
+
+  static int encodeBase64(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    Base64Ranges ranges = getBase64Ranges(alphabet);
+    if (ranges == null) {
+      return 0;
+    }
+    byte character62 = ranges.character62;
+    byte character63 = ranges.character63;
+
+    // every iteration loads a full vector, but only encodes 3 of every 4 bytes
+    int bytesPerIteration = LENGTH / 4 * 3;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+    int end = sourceOffset + length - LENGTH;
+    while (position <= end) {
+      IntVector quanta = ByteVector.fromArray(SPECIES, source, position)
+          .rearrange(BASE64_ENCODE_SHUFFLE)
+          .reinterpretAsInts();
+
+      // unpack the four 6 bit indices of every lane into its four bytes
+      IntVector indices = quanta.lanewise(VectorOperators.LSHR, 18).and(0x3F)
+          .or(quanta.lanewise(VectorOperators.LSHR, 12).and(0x3F).lanewise(VectorOperators.LSHL, 8))
+          .or(quanta.lanewise(VectorOperators.LSHR, 6).and(0x3F).lanewise(VectorOperators.LSHL, 16))
+          .or(quanta.and(0x3F).lanewise(VectorOperators.LSHL, 24));
+      ByteVector index = indices.reinterpretAsBytes();
+
+      // map the indices to characters by adding the offset of their range
+      ByteVector offset = ByteVector.broadcast(SPECIES, (byte) 'A')
+          .blend((byte) ('a' - 26), index.compare(VectorOperators.GE, (byte) 26))
+          .blend((byte) ('0' - 52), index.compare(VectorOperators.GE, (byte) 52))
+          .blend((byte) (character62 - 62), index.compare(VectorOperators.EQ, (byte) 62))
+          .blend((byte) (character63 - 63), index.compare(VectorOperators.EQ, (byte) 63));
+      index.add(offset).intoArray(destination, resultPosition);
+
+      position += bytesPerIteration;
+      resultPosition += LENGTH;
+    }
+
+    return position - sourceOffset;
+  }
+
+  static int decodeBase64(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    Base64Ranges ranges = getBase64Ranges(alphabet);
+    if (ranges == null) {
+      return 0;
+    }
+    byte character62 = ranges.character62;
+    byte character63 = ranges.character63;
+
+    int bytesPerIteration = LENGTH / 4 * 3;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+    int end = sourceOffset + length - LENGTH;
+    while (position <= end) {
+      ByteVector characters = ByteVector.fromArray(SPECIES, source, position);
+
+      // validate and resolve every character by its range
+      VectorMask<Byte> upper = characters.compare(VectorOperators.GE, (byte) 'A')
+          .and(characters.compare(VectorOperators.LE, (byte) 'Z'));
+      VectorMask<Byte> lower = characters.compare(VectorOperators.GE, (byte) 'a')
+          .and(characters.compare(VectorOperators.LE, (byte) 'z'));
+      VectorMask<Byte> digit = characters.compare(VectorOperators.GE, (byte) '0')
+          .and(characters.compare(VectorOperators.LE, (byte) '9'));
+      VectorMask<Byte> is62 = characters.compare(VectorOperators.EQ, character62);
+      VectorMask<Byte> is63 = characters.compare(VectorOperators.EQ, character63);
+      if (!upper.or(lower).or(digit).or(is62).or(is63).allTrue()) {
+        break;
+      }
+
+      ByteVector offset = ByteVector.broadcast(SPECIES, (byte) -'A')
+          .blend((byte) (26 - 'a'), lower)
+          .blend((byte) (52 - '0'), digit)
+          .blend((byte) (62 - character62), is62)
+          .blend((byte) (63 - character63), is63);
+      IntVector values = characters.add(offset).reinterpretAsInts();
+
+      // pack the four 6 bit values of every lane into 24 bit
+      IntVector quanta = values.and(0x3F).lanewise(VectorOperators.LSHL, 18)
+          .or(values.lanewise(VectorOperators.LSHR, 8).and(0x3F).lanewise(VectorOperators.LSHL, 12))
+          .or(values.lanewise(VectorOperators.LSHR, 16).and(0x3F).lanewise(VectorOperators.LSHL, 6))
+          .or(values.lanewise(VectorOperators.LSHR, 24).and(0x3F));
+
+      // only the decoded bytes are written, the destination may be shared
+      quanta.reinterpretAsBytes()
+          .rearrange(BASE64_DECODE_SHUFFLE)
+          .intoArray(destination, resultPosition, BASE64_DECODE_MASK);
+
+      position += LENGTH;
+      resultPosition += bytesPerIteration;
+    }
+
+    return position - sourceOffset;
+  }
+
+  static int encodeBase32(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset,
+      Alphabet alphabet) {
+    byte[] encodeTable = alphabet.encodeTable;
+    int split = 1;
+    while (split < 32 && encodeTable[split] == encodeTable[0] + split) {
+      split++;
+    }
+    for (int i = split + 1; i < 32; i++) {
+      if (encodeTable[i] != encodeTable[split] + i - split) {
+        return 0;
+      }
+    }
+    byte lowerOffset = encodeTable[0];
+    byte upperOffset = (byte) (split < 32 ? encodeTable[split] - split : 0);
+
+    int bytesPerIteration = LENGTH / 8 * 5;
+    int position = sourceOffset;
+    int resultPosition = destinationOffset;
+    int end = sourceOffset + length - LENGTH;
+    while (position <= end) {
+      LongVector quanta = ByteVector.fromArray(SPECIES, source, position)
+          .rearrange(BASE32_ENCODE_SHUFFLE)
+          .reinterpretAsLongs();
+
+      // unpack the eight 5 bit indices of every lane into its eight bytes
+      LongVector indices = quanta.lanewise(VectorOperators.LSHR, 35).and(0x1F);
+      for (int i = 1; i < 8; i++) {
+        indices = indices.or(quanta.lanewise(VectorOperators.LSHR, 35 - i * 5).and(0x1F)
+            .lanewise(VectorOperators.LSHL, i * 8));
+      }
+      ByteVector index = indices.reinterpretAsBytes();
+
+      ByteVector offset = ByteVector.broadcast(SPECIES, lowerOffset)
+          .blend(upperOffset, index.compare(VectorOperators.GE, (byte) split));
+      index.add(offset).intoArray(destination, resultPosition);
+
+      position += bytesPerIteration;
+      resultPosition += LENGTH;
+    }
+
+    return position - sourceOffset;
+  }
+
+  /**
+   * @return the base64 ranges of the alphabet or null if it is not made of
+   *         the supported ranges
+   */
+  private static Base64Ranges getBase64Ranges(Alphabet alphabet) {
+    Base64Ranges ranges = base64Ranges;
+    if (ranges != null && ranges.alphabet == alphabet) {
+      return ranges;
+    }
+    byte[] encodeTable = alphabet.encodeTable;
+    if (encodeTable.length != 64) {
+      return null;
+    }
+    for (int i = 0; i < BASE64_RANGES.length(); i++) {
+      if (encodeTable[i] != BASE64_RANGES.charAt(i)) {
+        return null;
+      }
+    }
+    ranges = new Base64Ranges(alphabet, encodeTable[62], encodeTable[63]);
+    base64Ranges = ranges;
+
+    return ranges;
+  }
+
+  /**
+   * an alphabet that qualified for the base64 kernels, along with its last
+   * two characters
+   */
+  private static final class Base64Ranges {
+    private final Alphabet alphabet;
+    private final byte     character62;
+    private final byte     character63;
+
+    Base64Ranges(Alphabet alphabet, byte character62, byte character63) {
+      this.alphabet = alphabet;
+      this.character62 = character62;
+      this.character63 = character63;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Checks the bytes every public encode and decode overload allocates per call
+ * against a budget, so allocation free paths stay allocation free. The budget
+ * of a call is the arrays and strings it returns, anything on top of a small
+ * slack for object alignment fails the test. Parallel, batch and file methods
+ * are not covered, they allocate tasks and buffers by design. The budgets are
+ * checked for the scalar kernels only, the vector api allocates its vectors
+ * until the kernels are compiled.
+ *
+ * @author mario_000
+ *
+ */
+public class AllocationBudgetTest {
+  /**
+   * the input sizes every overload is measured with, in ascending order so
+   * the small inputs warm up the code for the large ones
+   */
+  private static final int[]        SIZES    = { 16, 1024, 16384 };
+  /**
+   * the bytes a call may allocate on top of its budget, i.E. for larger
+   * object headers without compressed class pointers
+   */
+  private static final long         SLACK    = 16;
+  private static final int          MEASURED = 100;
+
+  private static ThreadMXBean       threads;
+  private static Object             sink;
+
+  /**
+   * enables allocation counting for the current thread
+   */
+  @BeforeClass
+  public static void setUpBeforeClass() {
+    Assume.assumeTrue(!VectorCodec.AVAILABLE);
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+    threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testBase64Encode() throws Exception {
+    for (int size : SIZES) {
+      byte[] data = data(size);
+      int encoded = Base64Util.encodedLength(size);
+      byte[] destination = new byte[encoded];
+
+      assertBudget("encode(byte[])", size, array(encoded), () -> Base64Util.encode(data));
+      assertBudget("encode(byte[], String)", size, array(encoded),
+          () -> Base64Util.encode(data, Base64UrlUtil.CHARACTERSET));
+      assertBudget("encode(byte[], Alphabet)", size, array(encoded),
+          () -> Base64Util.encode(data, Base64Codec.STANDARD.getAlphabet()));
+      assertBudget("encode(byte[], int, String)", size,
+          array(Base64Util.encodedLength(size, AbstractBitUtil.MIME_LINE_LENGTH, "\r\n")),
+          () -> Base64Util.encode(data, AbstractBitUtil.MIME_LINE_LENGTH, "\r\n"));
+      assertBudget("encode(byte[], int, int, byte[], int)", size, 0,
+          () -> Base64Util.encode(data, 0, size, destination, 0));
+      assertBudget("Base64Codec.encode(byte[])", size, array(Base64Codec.URL_SAFE.withPadding(false)
+          .encodedLength(size)), () -> Base64Codec.URL_SAFE.encode(data));
+      assertBudget("Base64UrlUtil.encode(byte[])", size, array(encoded), () -> Base64UrlUtil.encode(data));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeToString(byte[] byteArray)}.
+   */
+  @Test
+  public final void testBase64EncodeToString() throws Exception {
+    for (int size : SIZES) {
+      byte[] data = data(size);
+      String text = text(size);
+      int encoded = Base64Util.encodedLength(size);
+      int wrapped = Base64Util.encodedLength(size, AbstractBitUtil.MIME_LINE_LENGTH,
+          AbstractBitUtil.MIME_LINE_SEPARATOR);
+
+      // the encoded array is copied into the string
+      assertBudget("encodeToString(byte[])", size, string(encoded) + array(encoded),
+          () -> Base64Util.encodeToString(data));
+      assertBudget("encodeToString(byte[], boolean)", size, string(wrapped) + array(wrapped),
+          () -> Base64Util.encodeToString(data, true));
+      assertBudget("encodeToString(byte[], String, boolean)", size, string(encoded) + array(encoded),
+          () -> Base64Util.encodeToString(data, Base64UrlUtil.CHARACTERSET, false));
+      assertBudget("encodeToString(byte[], String, int, String)", size, string(wrapped) + array(wrapped),
+          () -> Base64Util.encodeToString(data, Base64Util.CHARACTERSET, AbstractBitUtil.MIME_LINE_LENGTH,
+              AbstractBitUtil.MIME_LINE_SEPARATOR));
+      // the string is converted to bytes first
+      assertBudget("encodeToString(String)", size, array(size) + string(encoded) + array(encoded),
+          () -> Base64Util.encodeToString(text));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeTo(byte[] byteArray, Appendable out)}.
+   */
+  @Test
+  public final void testBase64EncodeTo() throws Exception {
+    for (int size : SIZES) {
+      byte[] data = data(size);
+      StringBuilder builder = new StringBuilder(Base64Util.encodedLength(size));
+      StringWriter writer = new StringWriter(Base64Util.encodedLength(size));
+
+      // the chunk buffers come from the pool
+      assertBudget("encodeTo(byte[], Appendable)", size, 0, () -> {
+        builder.setLength(0);
+        Base64Util.encodeTo(data, builder);
+        return builder;
+      });
+      assertBudget("encodeTo(byte[], Writer)", size, 0, () -> {
+        writer.getBuffer().setLength(0);
+        Base64Util.encodeTo(data, writer);
+        return writer;
+      });
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(ByteBuffer source, ByteBuffer destination)}.
+   */
+  @Test
+  public final void testBase64ByteBuffers() throws Exception {
+    for (int size : SIZES) {
+      ByteBuffer source = ByteBuffer.wrap(data(size));
+      ByteBuffer encoded = ByteBuffer.allocate(Base64Util.encodedLength(size));
+      ByteBuffer decoded = ByteBuffer.allocate(size);
+
+      assertBudget("encode(ByteBuffer, ByteBuffer)", size, 0, () -> {
+        source.clear();
+        encoded.clear();
+        return Base64Util.encode(source, encoded);
+      });
+      encoded.flip();
+      assertBudget("decode(ByteBuffer, ByteBuffer)", size, 0, () -> {
+        encoded.rewind();
+        decoded.clear();
+        return Base64Util.decode(encoded, decoded);
+      });
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testBase64Decode() throws Exception {
+    for (int size : SIZES) {
+      byte[] encoded = Base64Util.encode(data(size));
+      byte[] wrapped = Base64Util.encode(data(size), AbstractBitUtil.MIME_LINE_LENGTH, "\r\n");
+      byte[] url = Base64UrlUtil.encode(data(size));
+      String text = new String(encoded, StandardCharsets.ISO_8859_1);
+      byte[] destination = new byte[size];
+
+      assertBudget("decode(byte[])", size, array(size), () -> Base64Util.decode(encoded));
+      assertBudget("decode(byte[]) with line separators", size, array(size), () -> Base64Util.decode(wrapped));
+      assertBudget("decode(byte[], String)", size, array(size),
+          () -> Base64Util.decode(url, Base64UrlUtil.CHARACTERSET));
+      assertBudget("decode(byte[], Alphabet)", size, array(size),
+          () -> Base64Util.decode(encoded, Base64Codec.STANDARD.getAlphabet()));
+      assertBudget("decode(byte[], int, int, byte[], int)", size, 0,
+          () -> Base64Util.decode(encoded, 0, encoded.length, destination, 0));
+      assertBudget("decode(String)", size, array(size), () -> Base64Util.decode(text));
+      assertBudget("decode(String, String)", size, array(size),
+          () -> Base64Util.decode(text, Base64Util.CHARACTERSET));
+      assertBudget("decode(CharSequence)", size, array(size), () -> Base64Util.decode((CharSequence) text));
+      assertBudget("decodeStrict(byte[])", size, array(size), () -> Base64Util.decodeStrict(encoded));
+      assertBudget("decodeStrict(CharSequence)", size, array(size), () -> Base64Util.decodeStrict(text));
+      assertBudget("isValid(byte[], int, int)", size, 0, () -> Base64Util.isValid(encoded, 0, encoded.length));
+      assertBudget("Base64UrlUtil.decode(byte[])", size, array(size), () -> Base64UrlUtil.decode(url));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testBase32Encode() throws Exception {
+    for (int size : SIZES) {
+      byte[] data = data(size);
+      String text = text(size);
+      int encoded = Base32Util.encodedLength(size);
+      byte[] destination = new byte[encoded];
+
+      assertBudget("encode(byte[])", size, array(encoded), () -> Base32Util.encode(data));
+      assertBudget("encode(byte[], String)", size, array(encoded),
+          () -> Base32Util.encode(data, Base32Util.BASE32_HEX_CHARSET));
+      assertBudget("encode(byte[], Alphabet)", size, array(encoded),
+          () -> Base32Util.encode(data, Base32Codec.RFC4648.getAlphabet()));
+      assertBudget("encode(byte[], int, int, byte[], int)", size, 0,
+          () -> Base32Util.encode(data, 0, size, destination, 0));
+      assertBudget("encodeToString(byte[])", size, string(encoded) + array(encoded),
+          () -> Base32Util.encodeToString(data));
+      assertBudget("encodeToString(byte[], String)", size, string(encoded) + array(encoded),
+          () -> Base32Util.encodeToString(data, Base32Util.BASE32_HEX_CHARSET));
+      assertBudget("encodeToString(String)", size, array(size) + string(encoded) + array(encoded),
+          () -> Base32Util.encodeToString(text));
+      assertBudget("Base32Codec.encode(byte[]) without padding", size,
+          array(Base32Codec.CROCKFORD.encodedLength(size)), () -> Base32Codec.CROCKFORD.encode(data));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testBase32Decode() throws Exception {
+    for (int size : SIZES) {
+      byte[] encoded = Base32Util.encode(data(size));
+      byte[] hex = Base32Util.encode(data(size), Base32Util.BASE32_HEX_CHARSET);
+      String text = new String(encoded, StandardCharsets.ISO_8859_1);
+      byte[] destination = new byte[size];
+
+      assertBudget("decode(byte[])", size, array(size), () -> Base32Util.decode(encoded));
+      assertBudget("decode(byte[], String)", size, array(size),
+          () -> Base32Util.decode(hex, Base32Util.BASE32_HEX_CHARSET));
+      assertBudget("decode(byte[], Alphabet)", size, array(size),
+          () -> Base32Util.decode(encoded, Base32Codec.RFC4648.getAlphabet()));
+      assertBudget("decode(byte[], int, int, byte[], int)", size, 0,
+          () -> Base32Util.decode(encoded, 0, encoded.length, destination, 0));
+      assertBudget("decode(String)", size, array(size), () -> Base32Util.decode(text));
+      assertBudget("decode(String, String)", size, array(size),
+          () -> Base32Util.decode(text, Base32Util.BASE32_CHARSET));
+      assertBudget("decode(CharSequence)", size, array(size), () -> Base32Util.decode((CharSequence) text));
+      assertBudget("decodeStrict(byte[])", size, array(size), () -> Base32Util.decodeStrict(encoded));
+      assertBudget("isValid(CharSequence)", size, 0, () -> Base32Util.isValid(text));
+    }
+  }
+
+  private static void assertBudget(String call, int size, long budget, Call body) throws Exception {
+    // warm up until the call is compiled, scaled down for large inputs
+    int warmup = Math.max(200, 2_000_000 / (size + 16));
+    for (int i = 0; i < warmup; i++) {
+      sink = body.run();
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < MEASURED; i++) {
+      sink = body.run();
+    }
+    long perCall = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED;
+
+    assertTrue(call + " of " + size + " bytes allocated " + perCall + " bytes per call, budget is " + budget,
+        perCall <= budget + SLACK);
+  }
+
+  /**
+   * @return the heap size of a byte array of the supplied length
+   */
+  private static long array(int length) {
+    return (16 + length + 7) & ~7L;
+  }
+
+  /**
+   * @return the heap size of a latin-1 string of the supplied length,
+   *         including its value array
+   */
+  private static long string(int length) {
+    return 24 + array(length);
+  }
+
+  private static byte[] data(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+
+    return data;
+  }
+
+  private static String text(int size) {
+    char[] characters = new char[size];
+    Arrays.fill(characters, 'x');
+
+    return new String(characters);
+  }
+
+  /**
+   * a measured call
+   */
+  private interface Call {
+    Object run() throws Exception;
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class AlphabetTest {
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Alphabet#of(String characterSet)}.
+   */
+  @Test
+  public final void testCached() {
+    assertSame(Alphabet.of(Base64Util.CHARACTERSET), Alphabet.of(Base64Util.CHARACTERSET));
+    assertSame(Alphabet.of(Base32Util.BASE32_HEX_CHARSET), Alphabet.of(Base32Util.BASE32_HEX_CHARSET));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Alphabet#decode(byte b)}.
+   */
+  @Test
+  public final void testLookup() {
+    Alphabet alphabet = Alphabet.of(Base64UrlUtil.CHARACTERSET);
+    for (int i = 0; i < Base64UrlUtil.CHARACTERSET.length(); i++) {
+      assertEquals(Base64UrlUtil.CHARACTERSET.charAt(i), (char) alphabet.encode(i));
+      assertEquals(i, alphabet.decode(alphabet.encode(i)));
+    }
+
+    assertEquals(64, alphabet.size());
+    assertEquals(Alphabet.PADDING, alphabet.decode((byte) '='));
+    assertEquals(Alphabet.INVALID, alphabet.decode((byte) '+'));
+    assertEquals(Alphabet.INVALID, alphabet.decode((byte) 0xC3));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Alphabet#of(String characterSet)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testDuplicateCharacter() {
+    Alphabet.of("ABCA");
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Alphabet#ofIgnoreCase(String characterSet)}.
+   */
+  @Test
+  public final void testIgnoreCase() {
+    Alphabet alphabet = Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET);
+
+    assertSame(alphabet, Alphabet.ofIgnoreCase(Base16Util.BASE16_CHARSET));
+    assertEquals(10, alphabet.decode((byte) 'A'));
+    assertEquals(10, alphabet.decode((byte) 'a'));
+    assertEquals('A', (char) alphabet.encode(10));
+    assertEquals(Alphabet.INVALID, Alphabet.of(Base16Util.BASE16_CHARSET).decode((byte) 'a'));
+
+    // both cases in the character set keep their own index
+    Alphabet base64 = Alphabet.ofIgnoreCase(Base64Util.CHARACTERSET);
+    assertEquals(0, base64.decode((byte) 'A'));
+    assertEquals(26, base64.decode((byte) 'a'));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Alphabet#decode(byte b)}.
+   */
+  @Test
+  public final void testCrockford() {
+    Alphabet alphabet = Alphabet.of(Base32Util.CROCKFORD_CHARSET);
+
+    assertEquals(1, alphabet.decode((byte) 'I'));
+    assertEquals(1, alphabet.decode((byte) 'i'));
+    assertEquals(1, alphabet.decode((byte) 'L'));
+    assertEquals(1, alphabet.decode((byte) 'l'));
+    assertEquals(0, alphabet.decode((byte) 'O'));
+    assertEquals(0, alphabet.decode((byte) 'o'));
+    assertEquals(31, alphabet.decode((byte) 'z'));
+    assertEquals(Alphabet.SKIP, alphabet.decode((byte) '-'));
+    assertEquals(Alphabet.INVALID, alphabet.decode((byte) 'U'));
+    assertEquals('Z', (char) alphabet.encode(31));
+  }
+}
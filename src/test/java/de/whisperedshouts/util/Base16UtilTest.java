@@ -0,0 +1,155 @@
+/**
+ * 
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base16UtilTest {
+  private final static String ORIGINALSTRING = "Polyfon zwitschernd aßen Mäxchens Vögel";
+  private final static String COMPARESTRING  = "506F6C79666F6E207A77697473636865726E642061C39F"
+                                             + "656E204DC3A4786368656E732056C3B667656C";
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testEncode() {
+    Random random = new Random(16);
+    for (int length = 0; length < 100; length++) {
+      byte[] b = new byte[length];
+      random.nextBytes(b);
+      String expected = Hex.encodeHexString(b, false);
+
+      assertEquals(expected, new String(Base16Util.encode(b), StandardCharsets.ISO_8859_1));
+      assertEquals(expected.toLowerCase(), Base16Util.encodeToString(b, Base16Util.BASE16_LOWER_CHARSET));
+      assertEquals(expected.length(), Base16Util.encodedLength(length));
+
+      byte[] destination = new byte[expected.length() + 3];
+      assertEquals(expected.length(), Base16Util.encode(b, 0, length, destination, 3));
+      assertEquals(expected, new String(destination, 3, expected.length(), StandardCharsets.ISO_8859_1));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testDecode() {
+    Random random = new Random(61);
+    for (int length = 0; length < 100; length++) {
+      byte[] b = new byte[length];
+      random.nextBytes(b);
+      String upper = Hex.encodeHexString(b, false);
+      String lower = upper.toLowerCase();
+
+      assertArrayEquals(b, Base16Util.decode(upper.getBytes()));
+      assertArrayEquals(b, Base16Util.decode(lower.getBytes()));
+      assertArrayEquals(b, Base16Util.decode(lower));
+      assertArrayEquals(b, Base16Util.decode(lower.getBytes(), Base16Util.BASE16_LOWER_CHARSET));
+
+      // mixed case and line breaks between and within bytes
+      StringBuilder mixed = new StringBuilder();
+      for (int i = 0; i < upper.length(); i++) {
+        mixed.append(i % 3 == 0 ? lower.charAt(i) : upper.charAt(i));
+        if (i % 7 == 6) {
+          mixed.append("\r\n");
+        }
+      }
+      byte[] encoded = mixed.toString().getBytes();
+      assertArrayEquals(b, Base16Util.decode(encoded));
+      assertArrayEquals(b, Base16Util.decode(mixed));
+
+      byte[] destination = new byte[length + 1];
+      assertEquals(length, Base16Util.decodedLength(encoded, 0, encoded.length));
+      assertEquals(length, Base16Util.decode(encoded, 0, encoded.length, destination, 1));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#encodeToString(String toEncode)}
+   * and {@link de.whisperedshouts.util.Base16Util#decodeToString(String base16Encoded)}.
+   */
+  @Test
+  public final void testString() {
+    String encoded = Base16Util.encodeToString(ORIGINALSTRING);
+
+    assertEquals(COMPARESTRING, encoded);
+    assertEquals(ORIGINALSTRING, Base16Util.decodeToString(encoded));
+    assertEquals(ORIGINALSTRING, Base16Util.decodeToString(encoded.toLowerCase()));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#encodeTo(byte[] byteArray, Appendable out)}
+   * and {@link de.whisperedshouts.util.Base16Util#decode(ByteBuffer source, ByteBuffer destination)}.
+   */
+  @Test
+  public final void testCharactersAndBuffers() throws IOException {
+    byte[] b = new byte[5000];
+    new Random(1616).nextBytes(b);
+    String expected = Hex.encodeHexString(b, false);
+
+    StringWriter writer = new StringWriter();
+    Base16Util.encodeTo(b, writer);
+    assertEquals(expected, writer.toString());
+
+    ByteBuffer encoded = ByteBuffer.allocate(expected.length());
+    assertTrue(Base16Util.encode(ByteBuffer.wrap(b), encoded) == CoderResult.UNDERFLOW);
+    encoded.flip();
+    ByteBuffer decoded = ByteBuffer.allocateDirect(b.length);
+    assertTrue(Base16Util.decode(encoded, decoded) == CoderResult.UNDERFLOW);
+    byte[] result = new byte[b.length];
+    decoded.flip().get(result);
+    assertArrayEquals(b, result);
+
+    ByteBuffer invalid = ByteBuffer.wrap("0G".getBytes());
+    assertTrue(Base16Util.decode(invalid, ByteBuffer.allocate(1)).isMalformed());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#isValid(byte[] source, int offset, int length)}.
+   */
+  @Test
+  public final void testIsValid() {
+    assertTrue(Base16Util.isValid("0123456789abcdefABCDEF"));
+    assertTrue(Base16Util.isValid("0123456789abcdefABCDEF".getBytes(), 0, 22));
+    assertFalse(Base16Util.isValid("0123456789abcdefABCDEF".getBytes(), 0, 21));
+    assertFalse(Base16Util.isValid("0123456789abcdefABCDEG".getBytes(), 0, 22));
+    assertFalse(Base16Util.isValid("0A="));
+    assertFalse(Base16Util.isValid("0A=="));
+
+    assertArrayEquals(new byte[] { 1, (byte) 0xAB }, Base16Util.decodeStrict("01ab".getBytes()));
+    assertArrayEquals(new byte[] { 1, (byte) 0xAB }, Base16Util.decodeStrict("01 AB"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base16Util#decodeStrict(byte[] byteArray)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testDecodeStrictOddLength() {
+    Base16Util.decodeStrict("01a".getBytes());
+  }
+}
@@ -0,0 +1,179 @@
+/**
+ * 
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base32CodecTest {
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitCodec#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testEncode() {
+    Base32 base32 = new Base32();
+    Base32 base32Hex = new Base32(true);
+    Random random = new Random(17);
+    for (int length = 0; length < 200; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      String expected = base32.encodeAsString(data);
+      String unpadded = expected.replace("=", "");
+
+      assertEncoded(expected, Base32Codec.RFC4648, data);
+      assertEncoded(base32Hex.encodeAsString(data), Base32Codec.HEX, data);
+      assertEncoded(unpadded, Base32Codec.RFC4648.withPadding(false), data);
+      assertEncoded(wrap(expected, 16, "\r\n"), Base32Codec.RFC4648.withLineLength(16, "\r\n"), data);
+      assertEncoded(wrap(unpadded, 24, "\n"), Base32Codec.RFC4648.withLineLength(30, "\n").withPadding(false), data);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitCodec#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testDecode() {
+    Random random = new Random(42);
+    for (int length = 0; length < 200; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+
+      for (Base32Codec codec : new Base32Codec[] { Base32Codec.RFC4648, Base32Codec.HEX.withPadding(false),
+          Base32Codec.RFC4648.withLineLength(8, "\n").withPadding(false) }) {
+        byte[] encoded = codec.encode(data);
+        assertArrayEquals(data, codec.decode(encoded));
+        assertArrayEquals(data, codec.decode(new String(encoded, StandardCharsets.ISO_8859_1)));
+      }
+    }
+  }
+
+  private static void assertEncoded(String expected, Base32Codec codec, byte[] data) {
+    byte[] encoded = codec.encode(data);
+
+    assertEquals(expected, new String(encoded, StandardCharsets.ISO_8859_1));
+    assertEquals(encoded.length, codec.encodedLength(data.length));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Codec#CROCKFORD}.
+   */
+  @Test
+  public final void testCrockford() {
+    byte[] foobar = "foobar".getBytes(StandardCharsets.US_ASCII);
+
+    assertEquals("CSQPYRK1E8", Base32Codec.CROCKFORD.encodeToString(foobar));
+    assertArrayEquals(foobar, Base32Codec.CROCKFORD.decode("CSQPYRK1E8"));
+    assertArrayEquals(foobar, Base32Codec.CROCKFORD.decode("csqpyrk1e8"));
+    assertArrayEquals(foobar, Base32Codec.CROCKFORD.decode("CSQP-YRKI-E8"));
+    assertArrayEquals(foobar, Base32Codec.CROCKFORD.decode("csqp-yrkl-e8".getBytes(StandardCharsets.US_ASCII)));
+    assertArrayEquals(new byte[] { 0, 1 }, Base32Codec.CROCKFORD.decode("oOoG"));
+    assertEquals(6, Base32Codec.CROCKFORD.decodedLength("CS-QP-YR-K1-E8".getBytes(StandardCharsets.US_ASCII), 0,
+        14));
+
+    Random random = new Random(42);
+    for (int length = 0; length < 100; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      assertArrayEquals(data, Base32Codec.CROCKFORD.decode(Base32Codec.CROCKFORD.encodeToString(data).toLowerCase()));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encodeCrockford(byte[] byteArray, boolean withCheckSymbol)}.
+   */
+  @Test
+  public final void testCrockfordCheckSymbol() {
+    byte[] foobar = "foobar".getBytes(StandardCharsets.US_ASCII);
+
+    assertEquals("CSQPYRK1E8R", Base32Util.encodeCrockford(foobar, true));
+    assertEquals("000GG", Base32Util.encodeCrockford(new byte[] { 0, 1 }, true));
+    assertEquals("10*", Base32Util.encodeCrockford(new byte[] { 8 }, true));
+    assertEquals("14U", Base32Util.encodeCrockford(new byte[] { 9 }, true));
+    assertEquals("3C$", Base32Util.encodeCrockford(new byte[] { 27 }, true));
+
+    assertArrayEquals(foobar, Base32Util.decodeCrockford("csqp-yrk1-e8-r", true));
+    assertArrayEquals(new byte[] { 9 }, Base32Util.decodeCrockford("14u", true));
+    assertArrayEquals(new byte[] { 36 }, Base32Util.decodeCrockford("4G~", true));
+    assertArrayEquals(foobar, Base32Util.decodeCrockford("CSQPYRK1E8", false));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decodeCrockford(CharSequence encoded, boolean withCheckSymbol)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testCrockfordCheckSymbolMismatch() {
+    Base32Util.decodeCrockford("CSQPYRK1E8S", true);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decodeCrockford(CharSequence encoded, boolean withCheckSymbol)},
+   * with characters outside of the alphabet and its aliases.
+   */
+  @Test
+  public final void testCrockfordInvalidCharacter() {
+    assertArrayEquals("foobar".getBytes(StandardCharsets.US_ASCII),
+        Base32Util.decodeCrockford("csqp-yrkl-e8 ", false));
+    // the invalid characters and their offsets
+    String[] encoded = { "CSQPYRK1E8U", "CSQP/YRK1E8", "CSQPYRK1E8=", "CSQP\u00e9YRK1E8" };
+    int[] offsets = { 10, 4, 10, 4 };
+    for (int i = 0; i < encoded.length; i++) {
+      for (boolean withCheckSymbol : new boolean[] { false, true }) {
+        try {
+          Base32Util.decodeCrockford(withCheckSymbol ? encoded[i] + "R" : encoded[i], withCheckSymbol);
+          fail("invalid character not detected in " + encoded[i]);
+        } catch (IllegalArgumentException e) {
+          assertEquals("invalid character at offset " + offsets[i], e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Codec#ZBASE32}.
+   */
+  @Test
+  public final void testZBase32() {
+    byte[] foobar = "foobar".getBytes(StandardCharsets.US_ASCII);
+
+    assertEquals("c3zs6aubqe", Base32Codec.ZBASE32.encodeToString(foobar));
+    assertArrayEquals(foobar, Base32Codec.ZBASE32.decode("c3zs6aubqe"));
+    assertArrayEquals(foobar, Base32Codec.ZBASE32.decode("C3ZS6AUBQE".getBytes(StandardCharsets.US_ASCII)));
+    assertArrayEquals(new byte[] { 0, 1 }, Base32Codec.ZBASE32.decode("YYYO"));
+
+    Random random = new Random(42);
+    for (int length = 0; length < 100; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      assertArrayEquals(data, Base32Codec.ZBASE32.decode(Base32Codec.ZBASE32.encodeToString(data).toUpperCase()));
+    }
+  }
+
+  private static String wrap(String encoded, int lineLength, String lineSeparator) {
+    StringBuilder builder = new StringBuilder(encoded);
+    for (int i = encoded.length() - (encoded.length() - 1) % lineLength - 1; i > 0; i -= lineLength) {
+      builder.insert(i, lineSeparator);
+    }
+
+    return builder.toString();
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base32EncoderTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Encoder#update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)}
+   * and
+   * {@link de.whisperedshouts.util.Base32Decoder#update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)}.
+   */
+  @Test
+  public final void testEncoderDecoder() {
+    Base32Encoder encoder = new Base32Encoder();
+    Base32Decoder decoder = new Base32Decoder();
+    Base32Encoder hexEncoder = new Base32Encoder(Base32Util.BASE32_HEX_CHARSET);
+    Base32Decoder hexDecoder = new Base32Decoder(Base32Util.BASE32_HEX_CHARSET);
+    for (int size = 0; size < 1024; size += 7) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(new Base32().encode(b), Base64EncoderTest.encode(encoder, b));
+      assertArrayEquals(new Base32(true).encode(b), Base64EncoderTest.encode(hexEncoder, b));
+      assertArrayEquals(b, Base64EncoderTest.decode(decoder, new Base32(64).encode(b)));
+      assertArrayEquals(b, Base64EncoderTest.decode(hexDecoder, new Base32(true).encode(b)));
+    }
+  }
+}
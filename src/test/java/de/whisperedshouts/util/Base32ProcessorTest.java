@@ -0,0 +1,51 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base32ProcessorTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32EncodingProcessor#onNext(java.nio.ByteBuffer item)}.
+   */
+  @Test
+  public final void testEncodingProcessor() throws Exception {
+    for (int size = 0; size < 1024; size += 11) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(new Base32().encode(b), Base64ProcessorTest.process(new Base32EncodingProcessor(), b, false));
+      assertArrayEquals(new Base32(true).encode(b), Base64ProcessorTest
+          .process(new Base32EncodingProcessor(Base32Util.BASE32_HEX_CHARSET), b, true));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32DecodingProcessor#onNext(java.nio.ByteBuffer item)}.
+   */
+  @Test
+  public final void testDecodingProcessor() throws Exception {
+    for (int size = 0; size < 1024; size += 11) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(b, Base64ProcessorTest.process(new Base32DecodingProcessor(), new Base32(64).encode(b), false));
+      assertArrayEquals(b, Base64ProcessorTest.process(new Base32DecodingProcessor(Base32Util.BASE32_HEX_CHARSET),
+          new Base32(true).encode(b), true));
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static de.whisperedshouts.util.StreamTestSupport.decode;
+import static de.whisperedshouts.util.StreamTestSupport.encode;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base32StreamTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32OutputStream#write(byte[] b, int off, int len)}.
+   */
+  @Test
+  public final void testOutputStream() throws IOException {
+    for (int size = 0; size < 256; size++) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      ByteArrayOutputStream sink = new ByteArrayOutputStream();
+      assertEquals(new Base32().encodeAsString(b), encode(new Base32OutputStream(sink), sink, b));
+
+      sink = new ByteArrayOutputStream();
+      assertEquals(new Base32(true).encodeAsString(b),
+          encode(new Base32OutputStream(sink, Base32Util.BASE32_HEX_CHARSET), sink, b));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32InputStream#read(byte[] b, int off, int len)}.
+   */
+  @Test
+  public final void testInputStream() throws IOException {
+    for (int size = 0; size < 1024; size += 7) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      byte[] encoded = new Base32(76).encode(b);
+      assertArrayEquals(b, decode(new Base32InputStream(new ByteArrayInputStream(encoded))));
+
+      encoded = new Base32(true).encode(b);
+      assertArrayEquals(b,
+          decode(new Base32InputStream(new ByteArrayInputStream(encoded), Base32Util.BASE32_HEX_CHARSET)));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32OutputStream#Base32OutputStream(OutputStream out, String base32Charset, boolean includeLinebreaks)}.
+   */
+  @Test
+  public final void testRoundTripLinebreaks() throws IOException {
+    byte[] b = new byte[4096];
+    RANDOM.nextBytes(b);
+
+    ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    String encoded = encode(new Base32OutputStream(sink, Base32Util.BASE32_CHARSET, true), sink, b);
+
+    // whole quanta only, like Base32Codec and the file api
+    String unwrapped = new Base32().encodeAsString(b);
+    StringBuilder expected = new StringBuilder();
+    for (int offset = 0; offset < unwrapped.length(); offset += 72) {
+      if (offset > 0) {
+        expected.append("\r\n");
+      }
+      expected.append(unwrapped, offset, Math.min(offset + 72, unwrapped.length()));
+    }
+    assertEquals(expected.toString(), encoded);
+    assertEquals(new String(Base32Codec.RFC4648.withLineLength(76, "\r\n").encode(b)), encoded);
+    assertArrayEquals(b, decode(new Base32InputStream(new ByteArrayInputStream(encoded.getBytes()))));
+  }
+}
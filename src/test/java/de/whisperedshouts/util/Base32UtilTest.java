@@ -3,11 +3,23 @@
  */
 package de.whisperedshouts.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.codec.binary.Base32;
 import org.junit.BeforeClass;
@@ -202,4 +214,272 @@ public class Base32UtilTest {
       }
     }
   }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encode(ByteBuffer source, ByteBuffer destination, String base32Charset, boolean endOfInput)}.
+   */
+  @Test
+  public final void testByteBuffers() {
+    Random random = new Random();
+    Base32 base32 = new Base32(true);
+    for (int size = 0; size < 512; size += 3) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      // feed the input in fragments, keeping incomplete quanta in the source
+      ByteBuffer source = ByteBuffer.allocate(16);
+      ByteBuffer encoded = ByteBuffer.allocateDirect(size * 2 + 8);
+      int position = 0;
+      while (position < size) {
+        int chunk = Math.min(source.remaining(), Math.min(random.nextInt(8), size - position));
+        source.put(b, position, chunk);
+        position += chunk;
+        source.flip();
+        assertTrue(Base32Util.encode(source, encoded, Base32Util.BASE32_HEX_CHARSET, false).isUnderflow());
+        source.compact();
+      }
+      source.flip();
+      assertTrue(Base32Util.encode(source, encoded, Base32Util.BASE32_HEX_CHARSET, true).isUnderflow());
+      encoded.flip();
+
+      byte[] encodedBytes = new byte[encoded.remaining()];
+      encoded.duplicate().get(encodedBytes);
+      assertEquals(base32.encodeAsString(b), new String(encodedBytes));
+
+      ByteBuffer decoded = ByteBuffer.allocate(size);
+      CoderResult result = Base32Util.decode(encoded, decoded, Base32Util.BASE32_HEX_CHARSET, true);
+      assertTrue(result.isUnderflow());
+      assertArrayEquals(b, decoded.array());
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encodeParallel(byte[] byteArray, String base32Charset, int threshold, ForkJoinPool pool)}.
+   */
+  @Test
+  public final void testParallel() {
+    Random random = new Random();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int size : new int[] { 0, 1, 4, 999, 1000, 1001, 65536, 100003 }) {
+        byte[] b = new byte[size];
+        random.nextBytes(b);
+
+        byte[] encoded = Base32Util.encodeParallel(b, Base32Util.BASE32_HEX_CHARSET, 1000, pool);
+        assertArrayEquals(new Base32(true).encode(b), encoded);
+        assertArrayEquals(b, Base32Util.decodeParallel(encoded, Base32Util.BASE32_HEX_CHARSET, 1000, pool));
+
+        // lines that are a multiple of the quantum size are decoded in parallel,
+        // others fall back to sequential decoding
+        for (int lineLength : new int[] { 64, 76 }) {
+          byte[] wrapped = new Base32(lineLength).encode(b);
+          assertArrayEquals(b, Base32Util.decodeParallel(wrapped, Base32Util.BASE32_CHARSET, 1000, pool));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * and
+   * {@link de.whisperedshouts.util.Base32Util#decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}.
+   */
+  @Test
+  public final void testCallerSuppliedArrays() {
+    Random random = new Random();
+    byte[] source = new byte[1024];
+    byte[] destination = new byte[2048];
+    for (int size = 0; size < 300; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+      byte[] expected = new Base32().encode(b);
+
+      int sourceOffset = random.nextInt(source.length - size);
+      int destinationOffset = random.nextInt(destination.length - expected.length);
+      System.arraycopy(b, 0, source, sourceOffset, size);
+      assertEquals(expected.length, Base32Util.encodedLength(size));
+      assertEquals(expected.length, Base32Util.encode(source, sourceOffset, size, destination, destinationOffset));
+      assertArrayEquals(expected, Arrays.copyOfRange(destination, destinationOffset, destinationOffset + expected.length));
+
+      // decode into an array of the exact size
+      byte[] wrapped = new Base32(64).encode(b);
+      assertEquals(size, Base32Util.decodedLength(wrapped, 0, wrapped.length));
+      byte[] decoded = new byte[size + 1];
+      assertEquals(size, Base32Util.decode(wrapped, 0, wrapped.length, decoded, 1));
+      assertArrayEquals(b, Arrays.copyOfRange(decoded, 1, size + 1));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * with a destination array that is too small.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public final void testEncodeDestinationTooSmall() {
+    Base32Util.encode(new byte[5], 0, 5, new byte[Base32Util.encodedLength(5) - 1], 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * with a destination array that is too small.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public final void testDecodeDestinationTooSmall() {
+    byte[] encoded = Base32Util.encode(new byte[5]);
+    Base32Util.decode(encoded, 0, encoded.length, new byte[5 - 1], 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decode(byte[] byteArray)}
+   * with line separators, whitespace and missing padding.
+   */
+  @Test
+  public final void testDecodeWhitespace() {
+    Random random = new Random();
+    for (int size = 0; size < 300; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      // CRLF separated lines
+      assertArrayEquals(b, Base32Util.decode(new Base32(64).encode(b)));
+      // LF separated lines with blanks, tabs and trailing whitespace
+      String encoded = new Base32(16, "\n \t".getBytes()).encodeAsString(b) + " \r\n";
+      assertArrayEquals(b, Base32Util.decode(encoded));
+      // no padding
+      assertArrayEquals(b, Base32Util.decode(new Base32().encodeAsString(b).replace("=", "")));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encodeFile(Path in, Path out, String base32Charset, boolean includeLinebreaks)}.
+   */
+  @Test
+  public final void testFile() throws IOException {
+    Path in = Files.createTempFile("base32", ".bin");
+    Path encoded = Files.createTempFile("base32", ".txt");
+    Path decoded = Files.createTempFile("base32", ".bin");
+    try {
+      for (int size : new int[] { 0, 1, 4, 5, 4096, 100001 }) {
+        byte[] b = new byte[size];
+        new Random().nextBytes(b);
+        Files.write(in, b);
+
+        Base32Util.encodeFile(in, encoded);
+        assertArrayEquals(new Base32().encode(b), Files.readAllBytes(encoded));
+
+        Base32Util.encodeFile(in, encoded, Base32Util.BASE32_HEX_CHARSET, true);
+        Base32Util.decodeFile(encoded, decoded, Base32Util.BASE32_HEX_CHARSET);
+        assertArrayEquals(b, Files.readAllBytes(decoded));
+      }
+    } finally {
+      Files.delete(in);
+      Files.delete(encoded);
+      Files.delete(decoded);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encodeTo(byte[] byteArray, Appendable out)}
+   * and {@link de.whisperedshouts.util.Base32Util#decode(CharSequence base32Encoded)}.
+   */
+  @Test
+  public final void testCharacters() throws IOException {
+    Random random = new Random();
+    for (int size : new int[] { 0, 1, 4, 5, 100, 3071, 3072, 3073, 10000 }) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+      String expected = new Base32(true).encodeAsString(b);
+
+      StringBuilder builder = new StringBuilder();
+      Base32Util.encodeTo(b, Base32Util.BASE32_HEX_CHARSET, builder);
+      assertEquals(expected, builder.toString());
+
+      StringWriter writer = new StringWriter();
+      Base32Util.encodeTo(b, Base32Util.BASE32_HEX_CHARSET, writer);
+      assertEquals(expected, writer.toString());
+
+      assertEquals(expected, Base32Util.encodeToString(b, Base32Util.BASE32_HEX_CHARSET));
+      assertArrayEquals(b, Base32Util.decode(builder, Base32Util.BASE32_HEX_CHARSET));
+      assertArrayEquals(b, Base32Util.decode(new StringBuilder(new Base32(76).encodeAsString(b))));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#encodeAll(java.util.List byteArrays, String base32Charset, java.util.concurrent.Executor executor)}
+   * and {@link de.whisperedshouts.util.Base32Util#decodeAll(java.util.List encoded)}.
+   */
+  @Test
+  public final void testBatch() {
+    Random random = new Random();
+    for (int size : new int[] { 0, 1, 511, 512, 513, 5000 }) {
+      List<byte[]> items = new ArrayList<>();
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        byte[] b = new byte[random.nextInt(200)];
+        random.nextBytes(b);
+        items.add(b);
+        expected.add(new Base32(true).encodeAsString(b));
+      }
+
+      BatchResult<String> encoded = Base32Util.encodeAll(items, Base32Util.BASE32_HEX_CHARSET,
+          ForkJoinPool.commonPool());
+      assertEquals(expected, encoded.getValues());
+
+      BatchResult<byte[]> decoded = Base32Util.decodeAll(expected, Base32Util.BASE32_HEX_CHARSET,
+          ForkJoinPool.commonPool());
+      for (int i = 0; i < size; i++) {
+        assertArrayEquals(items.get(i), decoded.get(i));
+      }
+    }
+
+    BatchResult<byte[]> decoded = Base32Util.decodeAll(Arrays.asList("KBXWY3DP", "KBXWY3D1", "KBXW Y3DP"));
+    assertArrayEquals("Pollo".getBytes(), decoded.get(0));
+    assertEquals("invalid character at offset 7", decoded.getError(1).getMessage());
+    assertArrayEquals("Pollo".getBytes(), decoded.get(2));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#isValid(CharSequence base32Encoded)}.
+   */
+  @Test
+  public final void testIsValid() {
+    Random random = new Random(42);
+    for (int length = 0; length < 100; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      String encoded = Base32Util.encodeToString(data);
+      assertTrue(Base32Util.isValid(encoded));
+      assertTrue(Base32Util.isValid(encoded.getBytes(), 0, encoded.length()));
+      assertArrayEquals(data, Base32Util.decodeStrict(encoded.getBytes()));
+    }
+
+    assertTrue(Base32Util.isValid("MZXW6==="));
+    assertTrue(Base32Util.isValid("MZXW6"));
+    assertFalse(Base32Util.isValid("MZXW6Y"));
+    assertFalse(Base32Util.isValid("MZX====="));
+    assertFalse(Base32Util.isValid("MZXW6=="));
+    assertFalse(Base32Util.isValid("MZXW1YTB"));
+    assertFalse(Base32Util.isValid("mzxw6ytb"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base32Util#decodeStrict(CharSequence base32Encoded)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testDecodeStrictInvalidCharacter() {
+    Base32Util.decodeStrict("MZXW1YTB");
+  }
 }
@@ -0,0 +1,131 @@
+/**
+ * 
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base64CodecTest {
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitCodec#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testEncode() {
+    Random random = new Random(17);
+    for (int length = 0; length < 300; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+
+      assertEncoded(Base64.getEncoder(), Base64Codec.STANDARD, data);
+      assertEncoded(Base64.getEncoder().withoutPadding(), Base64Codec.STANDARD.withPadding(false), data);
+      assertEncoded(Base64.getUrlEncoder(), Base64Codec.URL_SAFE, data);
+      assertEncoded(Base64.getUrlEncoder().withoutPadding(), Base64Codec.URL_SAFE.withPadding(false), data);
+      assertEncoded(Base64.getMimeEncoder(), Base64Codec.MIME, data);
+      assertEncoded(Base64.getMimeEncoder(64, new byte[] { '\n' }).withoutPadding(),
+          Base64Codec.STANDARD.withLineLength(64, "\n").withPadding(false), data);
+      assertEncoded(Base64.getMimeEncoder(10, new byte[] { '\n' }).withoutPadding(),
+          Base64Codec.STANDARD.withLineLength(10, "\n").withPadding(false), data);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitCodec#encode(byte[], int, int, byte[], int)}.
+   */
+  @Test
+  public final void testEncodeRange() {
+    byte[] data = "Polyfon zwitschernd aßen Mäxchens Vögel".getBytes(StandardCharsets.UTF_8);
+    Base64Codec codec = Base64Codec.URL_SAFE.withPadding(false);
+    byte[] destination = new byte[codec.encodedLength(data.length - 3) + 2];
+    int written = codec.encode(data, 3, data.length - 3, destination, 2);
+
+    assertEquals(destination.length - 2, written);
+    assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(data, 3,
+        data.length)), new String(destination, 2, written, StandardCharsets.ISO_8859_1));
+
+    try {
+      codec.encode(data, 0, data.length, destination, 2);
+      fail("destination too small");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitCodec#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testDecode() {
+    Random random = new Random(42);
+    for (int length = 0; length < 300; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+
+      for (Base64Codec codec : new Base64Codec[] { Base64Codec.STANDARD, Base64Codec.MIME,
+          Base64Codec.URL_SAFE.withPadding(false), Base64Codec.URL_SAFE.withLineLength(16, "\r\n") }) {
+        byte[] encoded = codec.encode(data);
+        assertArrayEquals(data, codec.decode(encoded));
+        assertArrayEquals(data, codec.decode(new String(encoded, StandardCharsets.ISO_8859_1)));
+
+        byte[] destination = new byte[codec.decodedLength(encoded, 0, encoded.length) + 1];
+        assertEquals(length, codec.decode(encoded, 0, encoded.length, destination, 1));
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Codec#withPadding(boolean)}.
+   */
+  @Test
+  public final void testImmutable() {
+    Base64Codec unpadded = Base64Codec.MIME.withPadding(false);
+
+    assertFalse(unpadded.isPadding());
+    assertEquals(Base64Codec.MIME.getLineLength(), unpadded.getLineLength());
+    assertEquals("\r\n", unpadded.getLineSeparator());
+    assertEquals(76, Base64Codec.MIME.getLineLength());
+    assertEquals("Zm9vYg==", Base64Codec.MIME.encodeToString("foob".getBytes()));
+    assertSame(Base64Codec.MIME.getAlphabet(), unpadded.getAlphabet());
+
+    assertEquals(0, Base64Codec.STANDARD.withLineLength(3, "\n").getLineLength());
+    assertEquals(8, Base64Codec.STANDARD.withLineLength(10, "\n").getLineLength());
+    try {
+      Base64Codec.STANDARD.withLineLength(76, "-");
+      fail("line separator has to be whitespace");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      Base64Codec.of(Base32Util.BASE32_CHARSET);
+      fail("base32 character set accepted");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static void assertEncoded(Base64.Encoder expected, Base64Codec codec, byte[] data) {
+    byte[] encoded = codec.encode(data);
+
+    assertEquals(expected.encodeToString(data), new String(encoded, StandardCharsets.ISO_8859_1));
+    assertEquals(encoded.length, codec.encodedLength(data.length));
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base64EncoderTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Encoder#update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)}.
+   */
+  @Test
+  public final void testEncoder() {
+    Base64Encoder encoder = new Base64Encoder();
+    for (int size = 0; size < 1024; size += 7) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      // the same instance is reused for every input
+      assertEquals(java.util.Base64.getEncoder().encodeToString(b), new String(encode(encoder, b)));
+    }
+    assertArrayEquals(java.util.Base64.getUrlEncoder().encode("Pollo".getBytes()),
+        new Base64Encoder(Base64UrlUtil.CHARACTERSET).doFinal("Pollo".getBytes()));
+
+    // a buffer that is too small leaves the encoder unchanged
+    encoder.update(new byte[] { 1, 2 }, 0, 2, new byte[0], 0);
+    try {
+      encoder.update(new byte[] { 3, 4, 5, 6 }, 0, 4, new byte[7], 0);
+      fail("short buffer not detected");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    assertArrayEquals(java.util.Base64.getEncoder().encode(new byte[] { 1, 2, 3 }),
+        encoder.doFinal(new byte[] { 3 }));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Decoder#update(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)}.
+   */
+  @Test
+  public final void testDecoder() {
+    Base64Decoder decoder = new Base64Decoder();
+    for (int size = 0; size < 1024; size += 7) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(b, decode(decoder, java.util.Base64.getMimeEncoder().encode(b)));
+      assertArrayEquals(b, decode(decoder, java.util.Base64.getEncoder().withoutPadding().encode(b)));
+
+      // exactly sized arrays are accepted
+      byte[] encoded = java.util.Base64.getEncoder().encode(b);
+      byte[] decoded = new byte[size];
+      assertEquals(size, decoder.doFinal(encoded, 0, encoded.length, decoded, 0));
+      assertArrayEquals(b, decoded);
+    }
+
+    decoder.update("UG9s".getBytes());
+    try {
+      decoder.update("bG*=".getBytes());
+      fail("invalid character not detected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("invalid character at offset 6", e.getMessage());
+    }
+    decoder.reset();
+    try {
+      decoder.doFinal("UG8=UG9s=G8=".getBytes());
+      fail("character after padding not detected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("invalid character at offset 9", e.getMessage());
+    }
+  }
+
+  /**
+   * feeds the array to the encoder in random fragments
+   */
+  static byte[] encode(AbstractBitEncoder encoder, byte[] b) {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] output = new byte[64];
+    int position = 0;
+    while (position < b.length) {
+      int fragment = Math.min(RANDOM.nextInt(24), b.length - position);
+      int written = encoder.update(b, position, fragment, output, 0);
+      result.write(output, 0, written);
+      position += fragment;
+    }
+    result.write(output, 0, encoder.doFinal(output, 0));
+
+    return result.toByteArray();
+  }
+
+  /**
+   * feeds the characters to the decoder in random fragments
+   */
+  static byte[] decode(AbstractBitDecoder decoder, byte[] encoded) {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] output = new byte[64];
+    int position = 0;
+    while (position < encoded.length) {
+      int fragment = Math.min(RANDOM.nextInt(24), encoded.length - position);
+      int written = decoder.update(encoded, position, fragment, output, 0);
+      result.write(output, 0, written);
+      position += fragment;
+    }
+    result.write(output, 0, decoder.doFinal(output, 0));
+
+    return result.toByteArray();
+  }
+}
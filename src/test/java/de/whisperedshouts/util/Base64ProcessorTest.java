@@ -0,0 +1,192 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base64ProcessorTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64EncodingProcessor#onNext(ByteBuffer item)}.
+   */
+  @Test
+  public final void testEncodingProcessor() throws Exception {
+    for (int size = 0; size < 1024; size += 13) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(java.util.Base64.getEncoder().encode(b), process(new Base64EncodingProcessor(), b, false));
+      assertArrayEquals(java.util.Base64.getEncoder().encode(b), process(new Base64EncodingProcessor(), b, true));
+      assertArrayEquals(java.util.Base64.getUrlEncoder().encode(b),
+          process(new Base64UrlEncodingProcessor(), b, false));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64DecodingProcessor#onNext(ByteBuffer item)}.
+   */
+  @Test
+  public final void testDecodingProcessor() throws Exception {
+    for (int size = 0; size < 1024; size += 13) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      assertArrayEquals(b, process(new Base64DecodingProcessor(), java.util.Base64.getMimeEncoder().encode(b), false));
+      assertArrayEquals(b, process(new Base64DecodingProcessor(), java.util.Base64.getEncoder().encode(b), true));
+      assertArrayEquals(b, process(new Base64UrlDecodingProcessor(),
+          java.util.Base64.getUrlEncoder().withoutPadding().encode(b), false));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64DecodingProcessor#onNext(ByteBuffer item)}.
+   */
+  @Test
+  public final void testDecodingProcessorInvalidCharacter() throws Exception {
+    try {
+      process(new Base64DecodingProcessor(), "UG9sbG9Q\nUG9s*WZv".getBytes(), false);
+      fail("invalid character not detected");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+      assertEquals("invalid character at offset 13", e.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.AbstractBitProcessor#subscribe(Flow.Subscriber subscriber)}.
+   */
+  @Test
+  public final void testBackpressure() {
+    AtomicInteger upstreamRequests = new AtomicInteger();
+    Base64EncodingProcessor processor = new Base64EncodingProcessor();
+    processor.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        upstreamRequests.addAndGet((int) n);
+      }
+
+      @Override
+      public void cancel() {
+      }
+    });
+
+    Flow.Subscription[] subscription = new Flow.Subscription[1];
+    ByteArrayOutputStream received = new ByteArrayOutputStream();
+    processor.subscribe(new Flow.Subscriber<ByteBuffer>() {
+      @Override
+      public void onSubscribe(Flow.Subscription s) {
+        subscription[0] = s;
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        received.write(item.array(), item.position(), item.remaining());
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        fail(throwable.toString());
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+    assertEquals(0, upstreamRequests.get());
+
+    // an incomplete quantum asks for the next chunk without consuming demand
+    subscription[0].request(1);
+    assertEquals(1, upstreamRequests.get());
+    processor.onNext(ByteBuffer.wrap(new byte[] { 'P', 'o' }));
+    assertEquals(2, upstreamRequests.get());
+    processor.onNext(ByteBuffer.wrap(new byte[] { 'l', 'l', 'o' }));
+    assertEquals("UG9s", new String(received.toByteArray()));
+
+    // no demand, no further requests
+    assertEquals(2, upstreamRequests.get());
+    processor.onComplete();
+    assertEquals("UG9s", new String(received.toByteArray()));
+    subscription[0].request(1);
+    assertEquals("UG9sbG8=", new String(received.toByteArray()));
+    assertEquals(2, upstreamRequests.get());
+  }
+
+  /**
+   * publishes the array in random chunks on the common pool and collects the
+   * output of the processor, requesting one chunk at a time
+   */
+  static byte[] process(Flow.Processor<ByteBuffer, ByteBuffer> processor, byte[] b, boolean direct)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    CompletableFuture<byte[]> result = new CompletableFuture<>();
+    processor.subscribe(new Flow.Subscriber<ByteBuffer>() {
+      private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+      private Flow.Subscription           subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        byte[] chunk = new byte[item.remaining()];
+        item.get(chunk);
+        received.write(chunk, 0, chunk.length);
+        subscription.request(1);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        result.complete(received.toByteArray());
+      }
+    });
+
+    try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), 4)) {
+      publisher.subscribe(processor);
+      int position = 0;
+      while (position < b.length) {
+        int chunk = Math.min(RANDOM.nextInt(100), b.length - position);
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(chunk) : ByteBuffer.allocate(chunk);
+        buffer.put(b, position, chunk).flip();
+        publisher.submit(buffer);
+        position += chunk;
+      }
+    }
+
+    return result.get(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static de.whisperedshouts.util.StreamTestSupport.decode;
+import static de.whisperedshouts.util.StreamTestSupport.encode;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base64StreamTest {
+  private final static Random RANDOM = new Random();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64OutputStream#write(byte[] b, int off, int len)}.
+   */
+  @Test
+  public final void testOutputStream() throws IOException {
+    for (int size = 0; size < 256; size++) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      ByteArrayOutputStream sink = new ByteArrayOutputStream();
+      assertEquals(java.util.Base64.getEncoder().encodeToString(b), encode(new Base64OutputStream(sink), sink, b));
+
+      sink = new ByteArrayOutputStream();
+      assertEquals(java.util.Base64.getUrlEncoder().encodeToString(b), encode(new Base64UrlOutputStream(sink), sink, b));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64OutputStream#Base64OutputStream(OutputStream out, boolean includeLinebreaks)}.
+   */
+  @Test
+  public final void testOutputStreamLinebreaks() throws IOException {
+    byte[] separator = "\r\n".getBytes();
+    for (int size = 0; size < 1024; size += 19) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      ByteArrayOutputStream sink = new ByteArrayOutputStream();
+      assertEquals(java.util.Base64.getMimeEncoder(76, separator).encodeToString(b),
+          encode(new Base64OutputStream(sink, true), sink, b));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64InputStream#read(byte[] b, int off, int len)}.
+   */
+  @Test
+  public final void testInputStream() throws IOException {
+    for (int size = 0; size < 1024; size += 7) {
+      byte[] b = new byte[size];
+      RANDOM.nextBytes(b);
+
+      byte[] encoded = java.util.Base64.getMimeEncoder().encode(b);
+      assertArrayEquals(b, decode(new Base64InputStream(new ByteArrayInputStream(encoded))));
+
+      encoded = java.util.Base64.getUrlEncoder().withoutPadding().encode(b);
+      assertArrayEquals(b, decode(new Base64UrlInputStream(new ByteArrayInputStream(encoded))));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64InputStream#read()}.
+   */
+  @Test
+  public final void testInputStreamInvalidCharacter() {
+    try (InputStream in = new Base64InputStream(new ByteArrayInputStream("UG9s*WZv".getBytes()))) {
+      while (in.read() != -1) {
+        // consume
+      }
+      fail("invalid character not detected");
+    } catch (IOException e) {
+      assertEquals("invalid character at offset 4", e.getMessage());
+    }
+  }
+}
@@ -3,10 +3,13 @@
  */
 package de.whisperedshouts.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Random;
 
 import org.junit.BeforeClass;
@@ -120,4 +123,43 @@ public class Base64UrlUtilTest {
       }
     }
   }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64UrlUtil#encodeTo(byte[] byteArray, Appendable out)}
+   * and {@link de.whisperedshouts.util.Base64UrlUtil#decode(CharSequence base64urlEncoded)}.
+   */
+  @Test
+  public final void testCharacters() throws IOException {
+    Random random = new Random();
+    for (int size = 0; size < 200; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+      String expected = java.util.Base64.getUrlEncoder().encodeToString(b);
+
+      StringBuilder builder = new StringBuilder();
+      Base64UrlUtil.encodeTo(b, builder);
+      assertEquals(expected, builder.toString());
+
+      StringWriter writer = new StringWriter();
+      Base64UrlUtil.encodeTo(b, writer);
+      assertEquals(expected, writer.toString());
+
+      assertArrayEquals(b, Base64UrlUtil.decode(builder));
+      assertArrayEquals(b, Base64UrlUtil.decode(expected));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64UrlUtil#decodeToString(String base64urlEncoded)}
+   * and {@link de.whisperedshouts.util.Base64UrlUtil#encode(byte[] byteArray, int lineLength, String lineSeparator)}.
+   */
+  @Test
+  public final void testUrlSafeAlphabet() {
+    // "fn5+Pz8/" in base64
+    assertEquals("~~~???", Base64UrlUtil.decodeToString("fn5-Pz8_"));
+    assertEquals("~~~???", Base64UrlUtil.decodeToString("fn5-Pz8_".getBytes()));
+    assertEquals("fn5-\nPz8_", new String(Base64UrlUtil.encode("~~~???".getBytes(), 4, "\n")));
+  }
 }
@@ -3,11 +3,24 @@
  */
 package de.whisperedshouts.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -119,4 +132,484 @@ public class Base64UtilTest {
       }
     }
   }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testEncodeAllTailLengths() {
+    Random random = new Random();
+    for (int size = 0; size < 100; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      assertArrayEquals(java.util.Base64.getEncoder().encode(b), Base64Util.encode(b));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] byteArray, int lineLength, String lineSeparator)}.
+   */
+  @Test
+  public final void testEncodeWrapped() {
+    Random random = new Random();
+    for (int size = 0; size < 400; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      byte[] mime = java.util.Base64.getMimeEncoder().encode(b);
+      assertArrayEquals(mime, Base64Util.encode(b, Base64Util.MIME_LINE_LENGTH, "\r\n"));
+      assertEquals(mime.length, Base64Util.encodedLength(size, Base64Util.MIME_LINE_LENGTH, "\r\n"));
+
+      byte[] pem = java.util.Base64.getMimeEncoder(Base64Util.PEM_LINE_LENGTH, "\n".getBytes()).encode(b);
+      assertArrayEquals(pem, Base64Util.encode(b, Base64Util.PEM_LINE_LENGTH, "\n"));
+      assertEquals(pem.length, Base64Util.encodedLength(size, Base64Util.PEM_LINE_LENGTH, "\n"));
+
+      // line lengths are rounded down to full quanta
+      assertArrayEquals(java.util.Base64.getMimeEncoder(10, "\n".getBytes()).encode(b),
+          Base64Util.encode(b, 10, "\n"));
+      assertArrayEquals(java.util.Base64.getEncoder().encode(b), Base64Util.encode(b, 3, "\n"));
+
+      assertEquals(java.util.Base64.getMimeEncoder(76, "\r\n".getBytes()).encodeToString(b),
+          Base64Util.encodeToString(b, true));
+      assertEquals(java.util.Base64.getUrlEncoder().encodeToString(b),
+          Base64Util.encodeToString(b, Base64UrlUtil.CHARACTERSET, false));
+    }
+
+    // inputs spanning several blocks of lines
+    for (int size : new int[] { 4047, 4048, 8094, 100000, 100001 }) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      assertArrayEquals(java.util.Base64.getMimeEncoder().encode(b),
+          Base64Util.encode(b, Base64Util.MIME_LINE_LENGTH, "\r\n"));
+      assertArrayEquals(java.util.Base64.getMimeEncoder(Base64Util.PEM_LINE_LENGTH, "\n".getBytes()).encode(b),
+          Base64Util.encode(b, Base64Util.PEM_LINE_LENGTH, "\n"));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] byteArray, int lineLength, String lineSeparator)}
+   * with a line separator that is not whitespace.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testEncodeWrappedInvalidSeparator() {
+    Base64Util.encode(new byte[100], Base64Util.MIME_LINE_LENGTH, "-");
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * and
+   * {@link de.whisperedshouts.util.Base64Util#decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}.
+   */
+  @Test
+  public final void testCallerSuppliedArrays() {
+    Random random = new Random();
+    byte[] source = new byte[1024];
+    byte[] destination = new byte[2048];
+    for (int size = 0; size < 300; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+      byte[] expected = java.util.Base64.getEncoder().encode(b);
+
+      int sourceOffset = random.nextInt(source.length - size);
+      int destinationOffset = random.nextInt(destination.length - expected.length);
+      System.arraycopy(b, 0, source, sourceOffset, size);
+      assertEquals(expected.length, Base64Util.encodedLength(size));
+      assertEquals(expected.length, Base64Util.encode(source, sourceOffset, size, destination, destinationOffset));
+      assertArrayEquals(expected, Arrays.copyOfRange(destination, destinationOffset, destinationOffset + expected.length));
+
+      // decode into an array of the exact size
+      byte[] wrapped = java.util.Base64.getMimeEncoder().encode(b);
+      assertEquals(size, Base64Util.decodedLength(wrapped, 0, wrapped.length));
+      byte[] decoded = new byte[size + 1];
+      assertEquals(size, Base64Util.decode(wrapped, 0, wrapped.length, decoded, 1));
+      assertArrayEquals(b, Arrays.copyOfRange(decoded, 1, size + 1));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * with a destination array that is too small.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public final void testEncodeDestinationTooSmall() {
+    Base64Util.encode(new byte[3], 0, 3, new byte[Base64Util.encodedLength(3) - 1], 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#decode(byte[] source, int sourceOffset, int length, byte[] destination, int destinationOffset)}
+   * with a destination array that is too small.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public final void testDecodeDestinationTooSmall() {
+    byte[] encoded = Base64Util.encode(new byte[3]);
+    Base64Util.decode(encoded, 0, encoded.length, new byte[3 - 1], 0);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#decode(byte[] byteArray)}
+   * with line separators, whitespace and missing padding.
+   */
+  @Test
+  public final void testDecodeWhitespace() {
+    Random random = new Random();
+    for (int size = 0; size < 300; size++) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      // CRLF separated lines
+      assertArrayEquals(b, Base64Util.decode(java.util.Base64.getMimeEncoder().encode(b)));
+      // LF separated lines with blanks, tabs and trailing whitespace
+      String encoded = java.util.Base64.getMimeEncoder(16, "\n \t".getBytes()).encodeToString(b) + " \r\n";
+      assertArrayEquals(b, Base64Util.decode(encoded));
+      // no padding
+      assertArrayEquals(b, Base64Util.decode(java.util.Base64.getEncoder().withoutPadding().encode(b)));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encode(ByteBuffer[] sources, ByteBuffer destination)}.
+   */
+  @Test
+  public final void testByteBuffers() {
+    Random random = new Random();
+    for (int size = 0; size < 512; size += 5) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+
+      // split the input into several heap and direct buffers
+      ByteBuffer[] sources = new ByteBuffer[3];
+      int first = random.nextInt(size + 1);
+      int second = first + random.nextInt(size - first + 1);
+      sources[0] = ByteBuffer.wrap(b, 0, first);
+      sources[1] = ByteBuffer.allocateDirect(second - first).put(b, first, second - first);
+      sources[1].flip();
+      sources[2] = ByteBuffer.wrap(b, second, size - second).slice();
+
+      ByteBuffer encoded = ByteBuffer.allocate(size * 2);
+      ByteBuffer destination = ByteBuffer.allocateDirect(10);
+      CoderResult result;
+      do {
+        result = Base64Util.encode(sources, destination);
+        destination.flip();
+        encoded.put(destination);
+        destination.clear();
+      } while (result.isOverflow());
+      encoded.flip();
+
+      String expected = java.util.Base64.getEncoder().encodeToString(b);
+      assertTrue(result.isUnderflow());
+      assertEquals(expected, new String(encoded.array(), 0, encoded.limit()));
+
+      ByteBuffer decoded = ByteBuffer.allocate(size);
+      assertTrue(Base64Util.decode(encoded, decoded).isUnderflow());
+      assertArrayEquals(b, decoded.array());
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#decode(ByteBuffer source, ByteBuffer destination, String characterSet, boolean endOfInput)}.
+   */
+  @Test
+  public final void testByteBufferPartialInput() {
+    ByteBuffer source = ByteBuffer.wrap("UG9seWZvb".getBytes());
+    ByteBuffer destination = ByteBuffer.allocate(16);
+
+    assertTrue(Base64Util.decode(source, destination, Base64Util.CHARACTERSET, false).isUnderflow());
+    assertEquals(8, source.position());
+    assertEquals(6, destination.position());
+
+    source = ByteBuffer.wrap("UG9s\r\nWZ*b".getBytes());
+    CoderResult result = Base64Util.decode(source, destination);
+    assertTrue(result.isMalformed());
+    assertEquals(4, source.position());
+    assertEquals(5, result.length());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeParallel(byte[] byteArray, String characterSet, int threshold, ForkJoinPool pool)}.
+   */
+  @Test
+  public final void testParallel() {
+    Random random = new Random();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int size : new int[] { 0, 1, 2, 999, 1000, 1001, 65536, 100003 }) {
+        byte[] b = new byte[size];
+        random.nextBytes(b);
+
+        byte[] encoded = Base64Util.encodeParallel(b, Base64Util.CHARACTERSET, 1000, pool);
+        assertArrayEquals(java.util.Base64.getEncoder().encode(b), encoded);
+        assertArrayEquals(b, Base64Util.decodeParallel(encoded, Base64Util.CHARACTERSET, 1000, pool));
+
+        // MIME line wrapped input is split on line boundaries
+        byte[] wrapped = java.util.Base64.getMimeEncoder().encode(b);
+        assertArrayEquals(b, Base64Util.decodeParallel(wrapped, Base64Util.CHARACTERSET, 1000, pool));
+
+        assertArrayEquals(java.util.Base64.getUrlEncoder().encode(b), Base64UrlUtil.encodeParallel(b));
+        assertArrayEquals(b, Base64UrlUtil.decodeParallel(java.util.Base64.getUrlEncoder().withoutPadding().encode(b)));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#setWordAtATime(boolean wordAtATime)}.
+   */
+  @Test
+  public final void testWordAtATime() {
+    assertTrue(Base64Util.isWordAtATime());
+    Random random = new Random(6);
+    try {
+      for (boolean wordAtATime : new boolean[] { false, true }) {
+        Base64Util.setWordAtATime(wordAtATime);
+        assertEquals(wordAtATime, Base64Util.isWordAtATime());
+        for (int size : new int[] { 0, 1, 2, 5, 6, 7, 8, 9, 100, 4096, 100001 }) {
+          byte[] b = new byte[size];
+          random.nextBytes(b);
+          assertArrayEquals(java.util.Base64.getEncoder().encode(b), Base64Util.encode(b));
+          assertArrayEquals(java.util.Base64.getUrlEncoder().encode(b), Base64UrlUtil.encode(b));
+        }
+      }
+    } finally {
+      Base64Util.setWordAtATime(true);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeFile(Path in, Path out, boolean includeLinebreaks)}.
+   */
+  @Test
+  public final void testFile() throws IOException {
+    Path in = Files.createTempFile("base64", ".bin");
+    Path encoded = Files.createTempFile("base64", ".txt");
+    Path decoded = Files.createTempFile("base64", ".bin");
+    try {
+      byte[] separator = "\r\n".getBytes();
+      for (int size : new int[] { 0, 1, 2, 57, 4096, 100001 }) {
+        byte[] b = new byte[size];
+        new Random().nextBytes(b);
+        Files.write(in, b);
+
+        Base64Util.encodeFile(in, encoded, true);
+        assertArrayEquals(java.util.Base64.getMimeEncoder(76, separator).encode(b), Files.readAllBytes(encoded));
+        Base64Util.decodeFile(encoded, decoded);
+        assertArrayEquals(b, Files.readAllBytes(decoded));
+
+        Base64UrlUtil.encodeFile(in, encoded);
+        assertArrayEquals(java.util.Base64.getUrlEncoder().encode(b), Files.readAllBytes(encoded));
+        Base64UrlUtil.decodeFile(encoded, decoded);
+        assertArrayEquals(b, Files.readAllBytes(decoded));
+      }
+    } finally {
+      Files.delete(in);
+      Files.delete(encoded);
+      Files.delete(decoded);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeFile(Path in, Path out, String characterSet, int lineLength, String lineSeparator)}
+   * and {@link de.whisperedshouts.util.Base64Util#decodeFile(Path in, Path out)}, with files of several chunks.
+   */
+  @Test
+  public final void testFileChunks() throws IOException {
+    Path in = Files.createTempFile("base64", ".bin");
+    Path encoded = Files.createTempFile("base64", ".txt");
+    Path decoded = Files.createTempFile("base64", ".bin");
+    try {
+      byte[] b = new byte[3 * (1 << 20) + 5];
+      new Random(3).nextBytes(b);
+      Files.write(in, b);
+
+      Base64Util.encodeFile(in, encoded, Base64Util.CHARACTERSET, 64, "\n");
+      byte[] expected = java.util.Base64.getMimeEncoder(64, "\n".getBytes()).encode(b);
+      assertArrayEquals(expected, Files.readAllBytes(encoded));
+      Base64Util.decodeFile(encoded, decoded);
+      assertArrayEquals(b, Files.readAllBytes(decoded));
+
+      // line separators which split the quanta at the chunk boundaries
+      String characters = java.util.Base64.getEncoder().encodeToString(b);
+      StringBuilder lines = new StringBuilder();
+      for (int offset = 0; offset < characters.length(); offset += 7) {
+        lines.append(characters, offset, Math.min(offset + 7, characters.length())).append("\r\n");
+      }
+      Files.write(encoded, lines.toString().getBytes());
+      Base64Util.decodeFile(encoded, decoded);
+      assertArrayEquals(b, Files.readAllBytes(decoded));
+
+      lines.setCharAt(2_000_001, '!');
+      Files.write(encoded, lines.toString().getBytes());
+      try {
+        Base64Util.decodeFile(encoded, decoded);
+        fail("invalid character not detected");
+      } catch (IOException e) {
+        assertEquals("invalid character at offset 2000001", e.getMessage());
+      }
+    } finally {
+      Files.delete(in);
+      Files.delete(encoded);
+      Files.delete(decoded);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeTo(byte[] byteArray, Appendable out)}
+   * and {@link de.whisperedshouts.util.Base64Util#decode(CharSequence base64Encoded)}.
+   */
+  @Test
+  public final void testCharacters() throws IOException {
+    Random random = new Random();
+    for (int size : new int[] { 0, 1, 2, 3, 100, 3071, 3072, 3073, 10000 }) {
+      byte[] b = new byte[size];
+      random.nextBytes(b);
+      String expected = java.util.Base64.getEncoder().encodeToString(b);
+
+      StringBuilder builder = new StringBuilder("prefix");
+      Base64Util.encodeTo(b, builder);
+      assertEquals("prefix" + expected, builder.toString());
+
+      StringWriter writer = new StringWriter();
+      Base64Util.encodeTo(b, writer);
+      assertEquals(expected, writer.toString());
+
+      CharBuffer buffer = CharBuffer.allocate(expected.length());
+      Base64Util.encodeTo(b, buffer);
+      assertEquals(expected, buffer.flip().toString());
+
+      assertEquals(expected, Base64Util.encodeToString(b));
+      assertArrayEquals(b, Base64Util.decode(expected));
+      assertArrayEquals(b, Base64Util.decode(new StringBuilder(java.util.Base64.getMimeEncoder().encodeToString(b))));
+      assertArrayEquals(b, Base64Util.decode(CharBuffer.wrap(expected.replace("=", ""))));
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeAll(java.util.List byteArrays)}
+   * and {@link de.whisperedshouts.util.Base64Util#decodeAll(java.util.List encoded)}.
+   */
+  @Test
+  public final void testBatch() {
+    Random random = new Random();
+    for (int size : new int[] { 0, 1, 511, 512, 513, 5000 }) {
+      List<byte[]> items = new ArrayList<>();
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        byte[] b = new byte[random.nextInt(200)];
+        random.nextBytes(b);
+        items.add(b);
+        expected.add(java.util.Base64.getEncoder().encodeToString(b));
+      }
+
+      BatchResult<String> encoded = Base64Util.encodeAll(items);
+      assertEquals(size, encoded.size());
+      assertEquals(expected, encoded.getValues());
+      assertTrue(!encoded.hasErrors());
+
+      BatchResult<byte[]> decoded = Base64Util.decodeAll(expected, Base64Util.CHARACTERSET,
+          ForkJoinPool.commonPool());
+      for (int i = 0; i < size; i++) {
+        assertArrayEquals(items.get(i), decoded.get(i));
+      }
+    }
+
+    // failing items do not affect the others
+    List<String> encoded = Arrays.asList("UG9sbG8=", "UG9s*G8=", "UG9s\nbG8", null, "UG9sbG8=QQ==");
+    BatchResult<byte[]> decoded = Base64Util.decodeAll(encoded);
+    assertTrue(decoded.hasErrors());
+    assertArrayEquals("Pollo".getBytes(), decoded.get(0));
+    assertEquals("invalid character at offset 4", decoded.getError(1).getMessage());
+    assertArrayEquals("Pollo".getBytes(), decoded.get(2));
+    assertTrue(decoded.getError(3) instanceof NullPointerException);
+    assertTrue(decoded.getError(4) instanceof IllegalArgumentException);
+    assertTrue(decoded.isSuccess(0));
+    try {
+      decoded.get(1);
+      fail("failed item returned a value");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    BatchResult<String> result = Base64Util.encodeAll(Arrays.asList("Pollo".getBytes(), null));
+    assertEquals("UG9sbG8=", result.get(0));
+    assertTrue(!result.isSuccess(1));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#isValid(byte[] source, int offset, int length)}.
+   */
+  @Test
+  public final void testIsValid() {
+    Random random = new Random(42);
+    for (int length = 0; length < 100; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      String encoded = Base64Util.encodeToString(data);
+      assertTrue(Base64Util.isValid(encoded));
+      assertTrue(Base64Util.isValid(encoded.getBytes(), 0, encoded.length()));
+      assertTrue(Base64Util.isValid(encoded.replace("=", "")));
+    }
+
+    assertTrue(Base64Util.isValid("Zm9v\r\nYmFy"));
+    assertTrue(Base64Util.isValid("Zm9vYg=="));
+    assertFalse(Base64Util.isValid("Zm9vYmFy!"));
+    assertFalse(Base64Util.isValid("Zm9vYmFyZm9vYm-y"));
+    assertFalse(Base64Util.isValid("Zm9vYmFyZm9vYm-y".getBytes(), 0, 16));
+    assertTrue(Base64Util.isValid("Zm9vYmFyZm9vYm-y".getBytes(), 0, 12));
+    assertFalse(Base64Util.isValid("Zm9vY"));
+    assertFalse(Base64Util.isValid("Zm9vY==="));
+    assertFalse(Base64Util.isValid("Zm9vYg="));
+    assertFalse(Base64Util.isValid("Zg==Zg=="));
+    assertFalse(Base64Util.isValid("Zm9vYg==".getBytes(), 0, 7));
+    assertFalse(Base64Util.isValid("Zm9v\u00e4"));
+    assertTrue(Base64UrlUtil.isValid("Zm9vYm-y"));
+    assertFalse(Base64UrlUtil.isValid("Zm9vYm+y"));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#decodeStrict(byte[] byteArray)}.
+   */
+  @Test
+  public final void testDecodeStrict() {
+    assertArrayEquals("foobar".getBytes(), Base64Util.decodeStrict("Zm9v\r\nYmFy".getBytes()));
+    assertArrayEquals("foob".getBytes(), Base64Util.decodeStrict("Zm9vYg=="));
+    assertArrayEquals("foob".getBytes(), Base64Util.decodeStrict("Zm9vYg"));
+
+    String[] invalid = { "Zm9v!mFy", "Zm9vY", "Zg==Zg==", "Zm=v" };
+    String[] messages = { "invalid character at offset 4", "incomplete quantum at offset 5",
+        "invalid character at offset 4", "invalid character at offset 3" };
+    for (int i = 0; i < invalid.length; i++) {
+      try {
+        Base64Util.decodeStrict(invalid[i].getBytes());
+        fail("no exception for " + invalid[i]);
+      } catch (IllegalArgumentException e) {
+        assertEquals(messages[i], e.getMessage());
+      }
+      try {
+        Base64Util.decodeStrict((CharSequence) invalid[i]);
+        fail("no exception for " + invalid[i]);
+      } catch (IllegalArgumentException e) {
+        assertEquals(messages[i], e.getMessage());
+      }
+    }
+  }
 }
@@ -0,0 +1,110 @@
+/**
+ * 
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class Base85UtilTest {
+  private final static byte[] HELLO_WORLD = { (byte) 0x86, 0x4F, (byte) 0xD2, 0x6F, (byte) 0xB5, 0x59, (byte) 0xF7,
+      0x5B };
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base85Util#encode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testEncode() {
+    assertEquals("9jqo^", Base85Util.encodeToString("Man "));
+    assertEquals("F*2M7/c", Base85Util.encodeToString("sure."));
+    assertEquals("", Base85Util.encodeToString(new byte[0]));
+    assertEquals("s8W-!", Base85Util.encodeToString(new byte[] { -1, -1, -1, -1 }));
+    assertEquals("HelloWorld", Base85Util.encodeToString(HELLO_WORLD, Base85Util.Z85_CHARSET));
+
+    // zero groups are abbreviated by Ascii85 only
+    byte[] zeros = new byte[9];
+    assertEquals("zz!!", Base85Util.encodeToString(zeros));
+    assertEquals("000000000000", Base85Util.encodeToString(zeros, Base85Util.Z85_CHARSET));
+    assertEquals(12, Base85Util.encodedLength(zeros.length));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base85Util#decode(byte[] byteArray)}.
+   */
+  @Test
+  public final void testDecode() {
+    assertEquals("Man sure.", Base85Util.decodeToString("9jqo^F*2M7/c"));
+    assertEquals("Man sure.", Base85Util.decodeToString("9jq\r\no^ F*2M7\n/c"));
+    assertArrayEquals(HELLO_WORLD, Base85Util.decode("HelloWorld", Base85Util.Z85_CHARSET));
+    assertArrayEquals(new byte[9], Base85Util.decode("z z\n!!".getBytes()));
+
+    byte[] destination = new byte[12];
+    byte[] encoded = "9jqo^zF*2M7/c".getBytes();
+    assertEquals(13, Base85Util.decodedLength(encoded, 0, encoded.length));
+    try {
+      Base85Util.decode(encoded, 0, encoded.length, destination, 0);
+      fail("destination too small");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+    assertEquals(8, Base85Util.decode(encoded, 0, 6, destination, 4));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base85Util#decode(byte[] byteArray, String base85Charset)}.
+   */
+  @Test
+  public final void testRoundTrip() {
+    Random random = new Random(85);
+    for (int length = 0; length < 300; length++) {
+      byte[] b = new byte[length];
+      random.nextBytes(b);
+      if (length % 3 == 0 && length >= 8) {
+        // zero groups, aligned and not aligned
+        b[0] = b[1] = b[2] = b[3] = 0;
+        b[length - 1] = b[length - 2] = b[length - 3] = b[length - 4] = 0;
+      }
+
+      for (String charset : new String[] { Base85Util.ASCII85_CHARSET, Base85Util.Z85_CHARSET }) {
+        byte[] encoded = Base85Util.encode(b, charset);
+        assertArrayEquals(b, Base85Util.decode(encoded, charset));
+        assertArrayEquals(b, Base85Util.decode(new String(encoded, StandardCharsets.ISO_8859_1), charset));
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base85Util#decode(String base85Encoded)}.
+   */
+  @Test
+  public final void testInvalid() {
+    for (String invalid : new String[] { "9jqo^v", "s8W-\"", "9jqo^F", "9jzo^", "9jqo€" }) {
+      try {
+        Base85Util.decode(invalid);
+        fail("decoded " + invalid);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+
+    try {
+      Base85Util.decode("9jqo^v");
+    } catch (IllegalArgumentException e) {
+      assertEquals("invalid character at offset 5", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class BufferPoolTest {
+  private final int maximumBufferSize = BufferPool.getMaximumBufferSize();
+
+  /**
+   * restores the configuration for the other tests
+   */
+  @After
+  public final void restore() {
+    BufferPool.setMaximumBufferSize(maximumBufferSize);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.BufferPool#acquireBytes(int minimumLength)}.
+   */
+  @Test
+  public final void testAcquireBytes() {
+    BufferPool.setMaximumBufferSize(64 * 1024);
+    BufferPool.resetStatistics();
+
+    byte[] buffer = BufferPool.acquireBytes(300);
+    assertEquals(512, buffer.length);
+    assertEquals(0, BufferPool.getHits());
+    assertEquals(1, BufferPool.getMisses());
+
+    BufferPool.release(buffer);
+    assertSame(buffer, BufferPool.acquireBytes(400));
+    assertEquals(1, BufferPool.getHits());
+
+    // a buffer is only handed out once
+    assertNotSame(buffer, BufferPool.acquireBytes(400));
+    assertEquals(2, BufferPool.getMisses());
+
+    byte[] large = BufferPool.acquireBytes(100000);
+    assertEquals(100000, large.length);
+    BufferPool.release(large);
+    assertNotSame(large, BufferPool.acquireBytes(100000));
+    assertEquals(1, BufferPool.getHits());
+    assertEquals(4, BufferPool.getMisses());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.BufferPool#setMaximumBufferSize(int maximumBufferSize)}.
+   */
+  @Test
+  public final void testSetMaximumBufferSize() {
+    BufferPool.setMaximumBufferSize(1000);
+    assertEquals(512, BufferPool.getMaximumBufferSize());
+
+    char[] buffer = BufferPool.acquireChars(1);
+    assertEquals(256, buffer.length);
+    BufferPool.release(buffer);
+    assertSame(buffer, BufferPool.acquireChars(256));
+
+    BufferPool.setMaximumBufferSize(0);
+    assertEquals(0, BufferPool.getMaximumBufferSize());
+    byte[] unpooled = BufferPool.acquireBytes(300);
+    assertEquals(300, unpooled.length);
+    BufferPool.release(unpooled);
+    assertNotSame(unpooled, BufferPool.acquireBytes(300));
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.BufferPool#setMaximumBufferSize(int maximumBufferSize)}.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public final void testSetMaximumBufferSizeTooLarge() {
+    BufferPool.setMaximumBufferSize(BufferPool.LIMIT + 1);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.Base64Util#encodeTo(byte[] byteArray, Appendable out)}.
+   */
+  @Test
+  public final void testEncodeToReusesBuffers() throws IOException {
+    BufferPool.setMaximumBufferSize(64 * 1024);
+    byte[] data = new byte[10000];
+    StringBuilder first = new StringBuilder();
+    Base64Util.encodeTo(data, first);
+
+    BufferPool.resetStatistics();
+    StringBuilder second = new StringBuilder();
+    Base64Util.encodeTo(data, second);
+
+    assertEquals(first.toString(), second.toString());
+    assertTrue(BufferPool.getHits() >= 2);
+    assertEquals(0, BufferPool.getMisses());
+  }
+}
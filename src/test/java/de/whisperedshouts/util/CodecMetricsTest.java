@@ -0,0 +1,135 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author mario_000
+ *
+ */
+public class CodecMetricsTest {
+  private final CodecMetrics metrics = CodecMetrics.getInstance();
+
+  /**
+   * disables the metrics for the other tests
+   */
+  @After
+  public final void restore() {
+    metrics.setEnabled(false);
+    metrics.reset();
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecMetrics#getEncodeCalls()}.
+   */
+  @Test
+  public final void testCounters() {
+    metrics.reset();
+    Base64Util.encode(new byte[100]);
+    assertTrue(metrics.getEncodeCalls().isEmpty());
+
+    metrics.setEnabled(true);
+    Base64Util.encode(new byte[100]);
+    Base64Codec.STANDARD.encodeToString(new byte[3]);
+    Base64Util.decode("AAAA");
+    Base32Util.encode(new byte[10], Base32Util.BASE32_HEX_CHARSET);
+    Base16Util.decode("00ff");
+
+    assertEquals(Long.valueOf(2), metrics.getEncodeCalls().get("base64"));
+    assertEquals(Long.valueOf(103), metrics.getEncodedBytes().get("base64"));
+    assertEquals(Long.valueOf(1), metrics.getDecodeCalls().get("base64"));
+    assertEquals(Long.valueOf(4), metrics.getDecodedCharacters().get("base64"));
+    assertEquals(Long.valueOf(1), metrics.getEncodeCalls().get("base32hex"));
+    assertEquals(Long.valueOf(1), metrics.getDecodeCalls().get("base16"));
+
+    long[] histogram = metrics.getInputSizeHistogram();
+    // 100 bytes
+    assertEquals(1, histogram[7]);
+    // 3 bytes
+    assertEquals(1, histogram[2]);
+    // 4 characters each
+    assertEquals(2, histogram[3]);
+    // 10 bytes
+    assertEquals(1, histogram[4]);
+
+    metrics.reset();
+    assertTrue(metrics.getEncodeCalls().isEmpty());
+    assertEquals(0, metrics.getInputSizeHistogram()[7]);
+  }
+
+  /**
+   * Test method for {@link de.whisperedshouts.util.CodecMetrics#register()}.
+   */
+  @Test
+  public final void testRegister() throws JMException {
+    CodecMetrics.register();
+    CodecMetrics.register();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(CodecMetrics.OBJECT_NAME);
+    assertEquals(Boolean.FALSE, server.getAttribute(name, "Enabled"));
+    assertEquals(33, ((long[]) server.getAttribute(name, "InputSizeHistogram")).length);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecMetrics#end(CodecMetrics.CodecEvent, Alphabet, int, int)}.
+   */
+  @Test
+  public final void testFlightRecorderEvents() throws IOException {
+    Path file = Files.createTempFile("codec", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("de.whisperedshouts.util.CodecEncode").withThreshold(Duration.ZERO);
+      recording.enable("de.whisperedshouts.util.CodecDecode").withThreshold(Duration.ZERO);
+      recording.start();
+
+      // not recorded while disabled
+      Base32Util.encode(new byte[5]);
+      metrics.setEnabled(true);
+      Base32Util.encode(new byte[5]);
+      Base32Util.decode("MZXW6===");
+
+      recording.stop();
+      recording.dump(file);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      assertEquals(2, events.size());
+      Map<String, RecordedEvent> byName = Map.of(events.get(0).getEventType().getName(), events.get(0),
+          events.get(1).getEventType().getName(), events.get(1));
+      RecordedEvent encode = byName.get("de.whisperedshouts.util.CodecEncode");
+      assertEquals("base32", encode.getString("codec"));
+      assertEquals(5, encode.getLong("inputSize"));
+      assertEquals(8, encode.getLong("outputSize"));
+      RecordedEvent decode = byName.get("de.whisperedshouts.util.CodecDecode");
+      assertEquals(8, decode.getLong("inputSize"));
+      assertEquals(3, decode.getLong("outputSize"));
+      assertFalse(decode.getDuration().isNegative());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author mario_000
+ *
+ */
+public class CodecToolTest {
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecTool#run(String[], java.io.InputStream, java.io.OutputStream, PrintStream)}.
+   */
+  @Test
+  public final void testEncodeStdin() {
+    byte[] data = new byte[100];
+    new Random(100).nextBytes(data);
+
+    assertEquals(CodecTool.EXIT_OK, run(data, "-w", "60"));
+    String encoded = Base64Util.encodeToString(data);
+    assertEquals(encoded.substring(0, 60) + "\n" + encoded.substring(60, 120) + "\n" + encoded.substring(120) + "\n",
+        output());
+
+    out.reset();
+    assertEquals(CodecTool.EXIT_OK, run(data, "--wrap", "0", "--alphabet", "base32hex", "-"));
+    assertEquals(Base32Util.encodeToString(data, Base32Util.BASE32_HEX_CHARSET), output());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecTool#run(String[], java.io.InputStream, java.io.OutputStream, PrintStream)}.
+   */
+  @Test
+  public final void testDecodeFiles() throws IOException {
+    Path first = Files.createTempFile("codec", ".b64");
+    Path second = Files.createTempFile("codec", ".b64");
+    try {
+      Files.write(first, "Zm9v\nYmFy\n".getBytes(StandardCharsets.US_ASCII));
+      Files.write(second, "-_8=".getBytes(StandardCharsets.US_ASCII));
+
+      assertEquals(CodecTool.EXIT_OK, run(new byte[0], "-d", "-a", "url", first.toString(), second.toString()));
+      assertArrayEquals(new byte[] { 'f', 'o', 'o', 'b', 'a', 'r', (byte) 0xFB, (byte) 0xFF }, out.toByteArray());
+    } finally {
+      Files.delete(first);
+      Files.delete(second);
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecTool#run(String[], java.io.InputStream, java.io.OutputStream, PrintStream)}.
+   */
+  @Test
+  public final void testParallel() {
+    byte[] data = new byte[3 * AbstractBitUtil.DEFAULT_PARALLEL_THRESHOLD + 1];
+    new Random(3).nextBytes(data);
+
+    assertEquals(CodecTool.EXIT_OK, run(data, "-j", "2", "-a", "base32"));
+    byte[] encoded = out.toByteArray();
+    assertEquals('\n', encoded[76]);
+
+    out.reset();
+    assertEquals(CodecTool.EXIT_OK, run(encoded, "-d", "-j", "2", "-a", "base32"));
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecTool#run(String[], java.io.InputStream, java.io.OutputStream, PrintStream)},
+   * with inputs of several chunks.
+   */
+  @Test
+  public final void testChunks() {
+    byte[] data = new byte[7 * (1 << 20) + 1];
+    new Random(7).nextBytes(data);
+
+    // the lines do not line up with the chunks
+    assertEquals(CodecTool.EXIT_OK, run(data, "-j", "1", "-w", "70"));
+    String encoded = Base64Util.encodeToString(data);
+    StringBuilder expected = new StringBuilder();
+    for (int offset = 0; offset < encoded.length(); offset += 70) {
+      expected.append(encoded, offset, Math.min(offset + 70, encoded.length())).append('\n');
+    }
+    assertEquals(expected.toString(), output());
+
+    byte[] lines = out.toByteArray();
+    for (String threads : new String[] { "1", "2" }) {
+      out.reset();
+      assertEquals(CodecTool.EXIT_OK, run(lines, "-d", "-j", threads));
+      assertArrayEquals(data, out.toByteArray());
+    }
+
+    // padding in an earlier chunk ends the input
+    byte[] padded = new byte[5 << 20];
+    Arrays.fill(padded, (byte) '\n');
+    System.arraycopy("Zm9vYg==".getBytes(StandardCharsets.US_ASCII), 0, padded, 0, 8);
+    padded[padded.length - 1] = 'A';
+    out.reset();
+    assertEquals(CodecTool.EXIT_FAILURE, run(padded, "-d"));
+    assertEquals("encoding-utils: -: invalid character at offset " + (padded.length - 1) + "\n", error());
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.CodecTool#run(String[], java.io.InputStream, java.io.OutputStream, PrintStream)}.
+   */
+  @Test
+  public final void testErrors() {
+    assertEquals(CodecTool.EXIT_USAGE, run(new byte[0], "-a", "base99"));
+    assertTrue(error().startsWith("encoding-utils: unknown alphabet base99\nusage:"));
+
+    err.reset();
+    assertEquals(CodecTool.EXIT_USAGE, run(new byte[0], "-w"));
+    assertTrue(error().startsWith("encoding-utils: option -w requires a value"));
+
+    err.reset();
+    assertEquals(CodecTool.EXIT_FAILURE, run("Zm9v!".getBytes(StandardCharsets.US_ASCII), "-d"));
+    assertEquals("encoding-utils: -: invalid character at offset 4\n", error());
+
+    err.reset();
+    assertEquals(CodecTool.EXIT_FAILURE, run("Zm9vY".getBytes(StandardCharsets.US_ASCII), "-d"));
+    assertEquals("encoding-utils: -: incomplete quantum at offset 5\n", error());
+
+    err.reset();
+    assertEquals(CodecTool.EXIT_FAILURE, run(new byte[0], "does-not-exist"));
+    assertTrue(error().startsWith("encoding-utils: does-not-exist: could not be read"));
+  }
+
+  private int run(byte[] input, String... args) {
+    return CodecTool.run(args, new ByteArrayInputStream(input), out, new PrintStream(err, true));
+  }
+
+  private String output() {
+    return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+  }
+
+  private String error() {
+    return new String(err.toByteArray(), StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Helpers for the stream tests, which write and read in chunks of random
+ * sizes, so quanta are split across calls. The chunks hold up to 11 bytes,
+ * more than the quantum of any alphabet.
+ *
+ * @author mario_000
+ *
+ */
+final class StreamTestSupport {
+  private static final Random RANDOM    = new Random();
+  private static final int    MAX_CHUNK = 11;
+
+  private StreamTestSupport() {
+  }
+
+  /**
+   * writes the bytes to the encoding stream in chunks and closes it
+   *
+   * @param stream
+   *          the encoding stream
+   * @param sink
+   *          the stream the encoding stream writes to
+   * @param b
+   *          the bytes to encode
+   * @return the encoded characters
+   */
+  static String encode(OutputStream stream, ByteArrayOutputStream sink, byte[] b) throws IOException {
+    try (OutputStream out = stream) {
+      int position = 0;
+      while (position < b.length) {
+        int chunk = Math.min(RANDOM.nextInt(MAX_CHUNK + 1), b.length - position);
+        out.write(b, position, chunk);
+        position += chunk;
+      }
+    }
+
+    return new String(sink.toByteArray());
+  }
+
+  /**
+   * reads the decoding stream in chunks until its end and closes it
+   *
+   * @param in
+   *          the decoding stream
+   * @return the decoded bytes
+   */
+  static byte[] decode(InputStream in) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] chunk = new byte[MAX_CHUNK];
+    int read;
+    while ((read = in.read(chunk, 0, 1 + RANDOM.nextInt(chunk.length))) != -1) {
+      result.write(chunk, 0, read);
+    }
+    in.close();
+
+    return result.toByteArray();
+  }
+}
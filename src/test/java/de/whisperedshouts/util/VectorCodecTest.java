@@ -0,0 +1,218 @@
+/**
+ *
+ */
+package de.whisperedshouts.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import org.apache.commons.codec.binary.Base32;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the vectorized kernels directly, without the scalar kernels handling
+ * the rest of the input. The kernels process whole blocks of up to 64 bytes,
+ * so every length up to a few blocks is checked at several offsets. Runs only
+ * if the kernels are available, i.E. with the java 17 classes first on the
+ * class path and --add-modules jdk.incubator.vector.
+ *
+ * @author mario_000
+ *
+ */
+public class VectorCodecTest {
+  /**
+   * the largest block any vector species processes, 512 bit
+   */
+  private static final int  MAX_BLOCK = 64;
+  private static final int  LENGTHS   = 4 * MAX_BLOCK + 8;
+  private static final byte SENTINEL  = (byte) 0xA5;
+
+  /**
+   * skips the tests if the kernels are not available
+   */
+  @BeforeClass
+  public static void setUpBeforeClass() {
+    Assume.assumeTrue(VectorCodec.AVAILABLE);
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.VectorCodec#encodeBase64(byte[], int, int, byte[], int, Alphabet)}.
+   */
+  @Test
+  public final void testEncodeBase64() {
+    Random random = new Random(64);
+    for (Base64Codec codec : new Base64Codec[] { Base64Codec.STANDARD, Base64Codec.URL_SAFE }) {
+      Base64.Encoder reference = codec == Base64Codec.STANDARD ? Base64.getEncoder() : Base64.getUrlEncoder();
+      for (int length = 0; length <= LENGTHS; length++) {
+        for (int offset = 0; offset < 3; offset++) {
+          byte[] source = new byte[offset + length + 5];
+          random.nextBytes(source);
+          byte[] destination = new byte[offset + 2 * length + 8];
+          Arrays.fill(destination, SENTINEL);
+
+          int encoded = VectorCodec.encodeBase64(source, offset, length, destination, offset, codec.alphabet);
+          assertEquals(0, encoded % 3);
+          assertTrue(encoded <= length);
+          assertTrue("length " + length + " left " + (length - encoded), length - encoded < MAX_BLOCK);
+
+          byte[] expected = reference.encode(Arrays.copyOfRange(source, offset, offset + encoded));
+          assertArrayEquals(expected, Arrays.copyOfRange(destination, offset, offset + expected.length));
+          assertUntouched(destination, offset + expected.length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.VectorCodec#decodeBase64(byte[], int, int, byte[], int, Alphabet)}.
+   */
+  @Test
+  public final void testDecodeBase64() {
+    Random random = new Random(64);
+    for (Base64Codec codec : new Base64Codec[] { Base64Codec.STANDARD, Base64Codec.URL_SAFE }) {
+      Base64.Encoder reference = codec == Base64Codec.STANDARD ? Base64.getEncoder() : Base64.getUrlEncoder();
+      for (int length = 0; length <= LENGTHS; length += 4) {
+        for (int offset = 0; offset < 3; offset++) {
+          byte[] data = new byte[length / 4 * 3];
+          random.nextBytes(data);
+          byte[] source = new byte[offset + length];
+          System.arraycopy(reference.encode(data), 0, source, offset, length);
+          byte[] destination = new byte[offset + data.length + 8];
+          Arrays.fill(destination, SENTINEL);
+
+          int decoded = VectorCodec.decodeBase64(source, offset, length, destination, offset, codec.alphabet);
+          assertEquals(0, decoded % 4);
+          assertTrue("length " + length + " left " + (length - decoded), length - decoded < MAX_BLOCK);
+
+          int bytes = decoded / 4 * 3;
+          assertArrayEquals(Arrays.copyOf(data, bytes), Arrays.copyOfRange(destination, offset, offset + bytes));
+          assertUntouched(destination, offset + bytes);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.VectorCodec#decodeBase64(byte[], int, int, byte[], int, Alphabet)},
+   * with characters outside of the alphabet inside a block.
+   */
+  @Test
+  public final void testDecodeBase64Stops() {
+    byte[] data = new byte[LENGTHS / 4 * 3];
+    new Random(64).nextBytes(data);
+    byte[] encoded = Base64.getEncoder().encode(data);
+
+    for (byte stop : new byte[] { '\n', '\r', ' ', '=', '-', '_', '!', (byte) 0xC3 }) {
+      for (int position = 0; position < encoded.length; position++) {
+        byte[] source = encoded.clone();
+        source[position] = stop;
+        byte[] destination = new byte[data.length + 8];
+        Arrays.fill(destination, SENTINEL);
+
+        // the block holding the character is left to the scalar kernels
+        int decoded = VectorCodec.decodeBase64(source, 0, source.length, destination, 0, Base64Codec.STANDARD.alphabet);
+        assertTrue("stop at " + position + " decoded " + decoded, decoded <= position);
+        assertTrue("stop at " + position + " decoded " + decoded, position - decoded < MAX_BLOCK);
+
+        int bytes = decoded / 4 * 3;
+        assertArrayEquals(Arrays.copyOf(data, bytes), Arrays.copyOf(destination, bytes));
+        assertUntouched(destination, bytes);
+      }
+    }
+  }
+
+  /**
+   * Test method for
+   * {@link de.whisperedshouts.util.VectorCodec#encodeBase32(byte[], int, int, byte[], int, Alphabet)}.
+   */
+  @Test
+  public final void testEncodeBase32() {
+    Random random = new Random(32);
+    for (Base32Codec codec : new Base32Codec[] { Base32Codec.RFC4648, Base32Codec.HEX }) {
+      Base32 reference = new Base32(codec == Base32Codec.HEX);
+      for (int length = 0; length <= LENGTHS; length++) {
+        for (int offset = 0; offset < 3; offset++) {
+          byte[] source = new byte[offset + length + 5];
+          random.nextBytes(source);
+          byte[] destination = new byte[offset + 2 * length + 8];
+          Arrays.fill(destination, SENTINEL);
+
+          int encoded = VectorCodec.encodeBase32(source, offset, length, destination, offset, codec.alphabet);
+          assertEquals(0, encoded % 5);
+          assertTrue(encoded <= length);
+          assertTrue("length " + length + " left " + (length - encoded), length - encoded < MAX_BLOCK);
+
+          byte[] expected = reference.encode(Arrays.copyOfRange(source, offset, offset + encoded));
+          assertArrayEquals(expected, Arrays.copyOfRange(destination, offset, offset + expected.length));
+          assertUntouched(destination, offset + expected.length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test method for the vectorized kernels with alphabets that are not made
+   * of the supported ranges, which are left to the scalar kernels.
+   */
+  @Test
+  public final void testNonQualifyingAlphabets() {
+    byte[] source = new byte[LENGTHS];
+    new Random(0).nextBytes(source);
+    byte[] destination = new byte[2 * LENGTHS];
+
+    // base64 with the digits first and a base32 alphabet
+    Alphabet digitsFirst = Alphabet.of("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz+/");
+    for (Alphabet alphabet : new Alphabet[] { digitsFirst, Base32Codec.RFC4648.alphabet }) {
+      assertEquals(0, VectorCodec.encodeBase64(source, 0, source.length, destination, 0, alphabet));
+    }
+    byte[] encoded = Base64.getEncoder().encode(Arrays.copyOf(source, LENGTHS / 4 * 3));
+    assertEquals(0, VectorCodec.decodeBase64(encoded, 0, encoded.length, destination, 0, digitsFirst));
+
+    // crockford and z-base-32 are not made of two contiguous ranges
+    for (Base32Codec codec : new Base32Codec[] { Base32Codec.CROCKFORD, Base32Codec.ZBASE32 }) {
+      assertEquals(0, VectorCodec.encodeBase32(source, 0, source.length, destination, 0, codec.alphabet));
+    }
+
+    // a qualifying alphabet still qualifies after the cached one changed
+    assertTrue(VectorCodec.encodeBase64(source, 0, source.length, destination, 0, Base64Codec.URL_SAFE.alphabet) > 0);
+    assertEquals(0, VectorCodec.encodeBase64(source, 0, source.length, destination, 0, digitsFirst));
+    assertTrue(VectorCodec.encodeBase64(source, 0, source.length, destination, 0, Base64Codec.STANDARD.alphabet) > 0);
+  }
+
+  /**
+   * Test method for {@link de.whisperedshouts.util.Base64Util#decode(byte[])}
+   * and {@link de.whisperedshouts.util.Base64Util#encode(byte[])}, with
+   * lengths around the vector threshold and line separators inside a block.
+   */
+  @Test
+  public final void testThreshold() {
+    Random random = new Random(Base64Util.VECTOR_THRESHOLD);
+    for (int length = Base64Util.VECTOR_THRESHOLD - 8; length <= 4 * Base64Util.VECTOR_THRESHOLD; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+
+      byte[] encoded = Base64Util.encode(data);
+      assertArrayEquals(Base64.getEncoder().encode(data), encoded);
+      assertArrayEquals(data, Base64Util.decode(encoded));
+
+      byte[] lines = Base64.getMimeEncoder(12, "\r\n".getBytes()).encode(data);
+      assertArrayEquals(data, Base64Util.decode(lines));
+    }
+  }
+
+  private static void assertUntouched(byte[] destination, int from) {
+    for (int i = from; i < destination.length; i++) {
+      assertEquals("written past the result at " + i, SENTINEL, destination[i]);
+    }
+  }
+}